@@ -0,0 +1,13 @@
+package com.faisal.cache;
+
+/**
+ * Value encoding of a Redis cache, chosen per cache with {@code app.cache.caches.<name>.codec}.
+ */
+public enum CacheCodec {
+
+    /** {@code GenericJackson2JsonRedisSerializer}: self-describing, works for any value. */
+    JSON,
+
+    /** {@link ProductBinarySerializer}: compact encoding of product responses and pages. */
+    BINARY
+}
@@ -0,0 +1,69 @@
+package com.faisal.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-cache generation counters kept in Redis and baked into every cache key, so evicting a whole
+ * cache is one {@code INCR}: entries of older generations are simply never read again and expire
+ * with their TTL.
+ *
+ * <p>Each node keeps the generation it last saw and re-reads it at most every {@code refresh}, or
+ * right away when another node announces a clear. That bounds how long a node can keep using an
+ * old generation after someone else cleared the cache.
+ */
+public class CacheGenerations {
+
+    private static final String PREFIX = "cache:generation:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final long refreshNanos;
+    private final Map<String, Seen> seen = new ConcurrentHashMap<>();
+
+    public CacheGenerations(StringRedisTemplate redisTemplate, Duration refresh) {
+        this.redisTemplate = redisTemplate;
+        this.refreshNanos = refresh.toNanos();
+    }
+
+    /**
+     * Key prefix of the current generation, e.g. {@code productsSearch::7::}.
+     */
+    public String prefix(String cacheName) {
+        return cacheName + "::" + current(cacheName) + "::";
+    }
+
+    public long current(String cacheName) {
+        Seen cached = seen.get(cacheName);
+        long now = System.nanoTime();
+        if (cached != null && now - cached.readAt() < refreshNanos) {
+            return cached.generation();
+        }
+        String value = redisTemplate.opsForValue().get(PREFIX + cacheName);
+        long generation = value == null ? 0 : Long.parseLong(value);
+        seen.put(cacheName, new Seen(generation, now));
+        return generation;
+    }
+
+    /**
+     * Moves the cache to a new, empty generation.
+     */
+    public long advance(String cacheName) {
+        Long generation = redisTemplate.opsForValue().increment(PREFIX + cacheName);
+        long next = generation == null ? 0 : generation;
+        seen.put(cacheName, new Seen(next, System.nanoTime()));
+        return next;
+    }
+
+    /**
+     * Drops the locally known generation so the next access reads it from Redis.
+     */
+    public void forget(String cacheName) {
+        seen.remove(cacheName);
+    }
+
+    private record Seen(long generation, long readAt) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.faisal.cache;
+
+/**
+ * Published on the invalidation channel when a node evicts from a two-level cache.
+ * A {@code null} key means the whole cache was cleared.
+ */
+record CacheInvalidationMessage(String origin, String cacheName, String key) {
+}
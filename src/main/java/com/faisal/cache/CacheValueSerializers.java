@@ -0,0 +1,70 @@
+package com.faisal.cache;
+
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Builds the value serializer of each Redis cache from its {@code codec} and
+ * {@code compress-above} settings.
+ *
+ * <p>Every format starts with a distinct first byte (JSON text is ASCII, the binary codec and
+ * LZ4 frames use their own magic bytes), and a serializer that is handed a value in a format it
+ * does not own returns {@code null}. After a codec change, old entries are read as misses and
+ * get overwritten; they do not fail requests.
+ */
+public class CacheValueSerializers {
+
+    private final ProductCacheProperties properties;
+    private final RedisSerializer<Object> json;
+
+    public CacheValueSerializers(ProductCacheProperties properties) {
+        this.properties = properties;
+        GenericJackson2JsonRedisSerializer jackson = new GenericJackson2JsonRedisSerializer();
+        // Cached orders carry Instants, which plain Jackson refuses to write.
+        jackson.configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+        this.json = new JsonSerializer(jackson);
+    }
+
+    public RedisSerializer<Object> forCache(String cacheName) {
+        return create(properties.codecFor(cacheName), properties.compressAboveFor(cacheName));
+    }
+
+    /**
+     * Serializer for a codec and compression threshold ({@code null} for no compression).
+     */
+    public RedisSerializer<Object> create(CacheCodec codec, DataSize compressAbove) {
+        RedisSerializer<Object> serializer = codec == CacheCodec.BINARY ? new ProductBinarySerializer(json) : json;
+        if (compressAbove != null) {
+            serializer = new Lz4CompressingSerializer(serializer, (int) compressAbove.toBytes());
+        }
+        return serializer;
+    }
+
+    /**
+     * JSON that leaves values of the other formats to be read as misses.
+     */
+    private static final class JsonSerializer implements RedisSerializer<Object> {
+
+        private final GenericJackson2JsonRedisSerializer delegate;
+
+        private JsonSerializer(GenericJackson2JsonRedisSerializer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public byte[] serialize(Object value) throws SerializationException {
+            return delegate.serialize(value);
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) throws SerializationException {
+            if (bytes != null && bytes.length > 0 && (bytes[0] & 0x80) != 0) {
+                return null;
+            }
+            return delegate.deserialize(bytes);
+        }
+    }
+}
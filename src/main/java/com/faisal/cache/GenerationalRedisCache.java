@@ -0,0 +1,29 @@
+package com.faisal.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+/**
+ * Redis cache whose {@link #clear()} advances the cache generation instead of scanning for and
+ * deleting every key of the cache.
+ */
+class GenerationalRedisCache extends RedisCache {
+
+    private final CacheGenerations generations;
+
+    GenerationalRedisCache(
+            String name,
+            RedisCacheWriter cacheWriter,
+            RedisCacheConfiguration cacheConfiguration,
+            CacheGenerations generations
+    ) {
+        super(name, cacheWriter, cacheConfiguration);
+        this.generations = generations;
+    }
+
+    @Override
+    public void clear() {
+        generations.advance(getName());
+    }
+}
@@ -0,0 +1,74 @@
+package com.faisal.cache;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * LZ4-compresses values of another serializer once they reach a size threshold. Compressed
+ * values are {@code MAGIC, original length (4 bytes), LZ4 block}; smaller ones are stored as the
+ * delegate wrote them.
+ *
+ * <p>The length header is checked before anything is allocated: a value claiming more than
+ * {@link #MAX_LENGTH} bytes, or more than an LZ4 block of its size can expand to, reads back as
+ * {@code null}, which the cache treats as a miss.
+ */
+class Lz4CompressingSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xB8;
+    static final int MAX_LENGTH = 16 * 1024 * 1024;
+
+    /** An LZ4 block expands at most about 255 times. */
+    private static final int MAX_RATIO = 255;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final RedisSerializer<Object> delegate;
+    private final int threshold;
+    private final LZ4Compressor compressor = LZ4.fastCompressor();
+    private final LZ4SafeDecompressor decompressor = LZ4.safeDecompressor();
+
+    Lz4CompressingSerializer(RedisSerializer<Object> delegate, int threshold) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] raw = delegate.serialize(value);
+        if (raw == null || raw.length < threshold) {
+            return raw;
+        }
+        byte[] out = new byte[5 + compressor.maxCompressedLength(raw.length)];
+        out[0] = MAGIC;
+        ByteBuffer.wrap(out, 1, 4).putInt(raw.length);
+        int compressed = compressor.compress(raw, 0, raw.length, out, 5, out.length - 5);
+        return Arrays.copyOf(out, 5 + compressed);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != MAGIC) {
+            return delegate.deserialize(bytes);
+        }
+        if (bytes.length < 5) {
+            throw new SerializationException("Truncated compressed cache value");
+        }
+        int length = ByteBuffer.wrap(bytes, 1, 4).getInt();
+        if (length < 0 || length > MAX_LENGTH || length > (long) (bytes.length - 5) * MAX_RATIO) {
+            return null;
+        }
+        byte[] raw = new byte[length];
+        try {
+            decompressor.decompress(bytes, 5, bytes.length - 5, raw, 0, length);
+        } catch (RuntimeException ex) {
+            throw new SerializationException("Corrupt compressed cache value", ex);
+        }
+        return delegate.deserialize(raw);
+    }
+}
@@ -0,0 +1,298 @@
+package com.faisal.cache;
+
+import com.faisal.dto.CachedPage;
+import com.faisal.dto.response.ProductResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Schema-aware binary encoding of {@link ProductResponse}, {@link CachedPage} and {@link Page} of
+ * product responses: fields are written in declaration order as varints and length-prefixed
+ * UTF-8, without field names or type metadata. Any other value (including cached nulls) is
+ * written as JSON behind a type tag, so the codec can be used for any cache.
+ *
+ * <p>Layout: {@code MAGIC, VERSION, TYPE, body}. Values written by another codec or another
+ * format version read back as {@code null}, which the cache treats as a miss.
+ */
+class ProductBinarySerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xB7;
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_OTHER = 0;
+    private static final byte TYPE_PRODUCT = 1;
+    private static final byte TYPE_CACHED_PAGE = 2;
+    private static final byte TYPE_PAGE = 3;
+
+    private final RedisSerializer<Object> fallback;
+
+    ProductBinarySerializer(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        Writer out = new Writer();
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+
+        if (value instanceof ProductResponse product) {
+            out.writeByte(TYPE_PRODUCT);
+            writeProduct(out, product);
+        } else if (value instanceof CachedPage<?> page && onlyProducts(page.content())) {
+            out.writeByte(TYPE_CACHED_PAGE);
+            writeProducts(out, page.content());
+            out.writeVarLong(page.pageNumber());
+            out.writeVarLong(page.pageSize());
+            out.writeVarLong(page.totalElements());
+        } else if (value instanceof Page<?> page && onlyProducts(page.getContent())) {
+            out.writeByte(TYPE_PAGE);
+            writeProducts(out, page.getContent());
+            writePageable(out, page.getPageable());
+            out.writeVarLong(page.getTotalElements());
+        } else {
+            out.writeByte(TYPE_OTHER);
+            out.writeRaw(fallback.serialize(value));
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < 3 || bytes[0] != MAGIC || bytes[1] != VERSION) {
+            return null;
+        }
+        Reader in = new Reader(bytes, 3);
+        try {
+            return switch (bytes[2]) {
+                case TYPE_PRODUCT -> readProduct(in);
+                case TYPE_CACHED_PAGE -> new CachedPage<>(readProducts(in),
+                        (int) in.readVarLong(), (int) in.readVarLong(), in.readVarLong());
+                case TYPE_PAGE -> {
+                    List<ProductResponse> content = readProducts(in);
+                    Pageable pageable = readPageable(in);
+                    yield new PageImpl<>(content, pageable, in.readVarLong());
+                }
+                case TYPE_OTHER -> fallback.deserialize(Arrays.copyOfRange(bytes, 3, bytes.length));
+                default -> null;
+            };
+        } catch (ArrayIndexOutOfBoundsException ex) {
+            throw new SerializationException("Truncated cache value", ex);
+        } catch (IllegalArgumentException ex) {
+            throw new SerializationException("Corrupt cache value", ex);
+        }
+    }
+
+    private static boolean onlyProducts(List<?> content) {
+        for (Object item : content) {
+            if (!(item instanceof ProductResponse)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeProducts(Writer out, List<?> products) {
+        out.writeVarLong(products.size());
+        for (Object product : products) {
+            writeProduct(out, (ProductResponse) product);
+        }
+    }
+
+    private static List<ProductResponse> readProducts(Reader in) {
+        int size = in.readLength();
+        List<ProductResponse> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(readProduct(in));
+        }
+        return products;
+    }
+
+    private static void writeProduct(Writer out, ProductResponse product) {
+        int present = (product.id() != null ? 1 : 0)
+                | (product.name() != null ? 2 : 0)
+                | (product.description() != null ? 4 : 0)
+                | (product.price() != null ? 8 : 0)
+                | (product.quantity() != null ? 16 : 0);
+        out.writeByte((byte) present);
+        if (product.id() != null) {
+            out.writeVarLong(product.id());
+        }
+        if (product.name() != null) {
+            out.writeString(product.name());
+        }
+        if (product.description() != null) {
+            out.writeString(product.description());
+        }
+        if (product.price() != null) {
+            out.writeVarLong(zigZag(product.price().scale()));
+            out.writeBytes(product.price().unscaledValue().toByteArray());
+        }
+        if (product.quantity() != null) {
+            out.writeVarLong(zigZag(product.quantity()));
+        }
+    }
+
+    private static ProductResponse readProduct(Reader in) {
+        int present = in.readByte();
+        Long id = (present & 1) != 0 ? in.readVarLong() : null;
+        String name = (present & 2) != 0 ? in.readString() : null;
+        String description = (present & 4) != 0 ? in.readString() : null;
+        BigDecimal price = null;
+        if ((present & 8) != 0) {
+            int scale = (int) unZigZag(in.readVarLong());
+            price = new BigDecimal(new BigInteger(in.readBytes()), scale);
+        }
+        Integer quantity = (present & 16) != 0 ? (int) unZigZag(in.readVarLong()) : null;
+        return new ProductResponse(id, name, description, price, quantity);
+    }
+
+    private static void writePageable(Writer out, Pageable pageable) {
+        out.writeByte((byte) (pageable.isPaged() ? 1 : 0));
+        if (pageable.isPaged()) {
+            out.writeVarLong(pageable.getPageNumber());
+            out.writeVarLong(pageable.getPageSize());
+        }
+        List<Sort.Order> orders = pageable.getSort().toList();
+        out.writeVarLong(orders.size());
+        for (Sort.Order order : orders) {
+            out.writeString(order.getProperty());
+            out.writeByte((byte) ((order.isAscending() ? 0 : 1) | (order.isIgnoreCase() ? 2 : 0)));
+        }
+    }
+
+    private static Pageable readPageable(Reader in) {
+        boolean paged = in.readByte() == 1;
+        int number = paged ? (int) in.readVarLong() : 0;
+        int size = paged ? (int) in.readVarLong() : 0;
+        int count = in.readLength();
+        List<Sort.Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String property = in.readString();
+            int flags = in.readByte();
+            Sort.Order order = new Sort.Order((flags & 1) != 0 ? Sort.Direction.DESC : Sort.Direction.ASC, property);
+            orders.add((flags & 2) != 0 ? order.ignoreCase() : order);
+        }
+        Sort sort = Sort.by(orders);
+        return paged ? PageRequest.of(number, size, sort) : Pageable.unpaged(sort);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer = new byte[128];
+        private int position;
+
+        void writeByte(byte value) {
+            ensure(1);
+            buffer[position++] = value;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            writeRaw(bytes);
+        }
+
+        void writeRaw(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeString(String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensure(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int readByte() {
+            return buffer[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        /**
+         * Reads a length or element count. Every element takes at least one byte, so a value
+         * larger than what is left of the buffer can only come from a corrupt entry.
+         */
+        int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > buffer.length - position) {
+                throw new SerializationException("Corrupt cache value: length " + length + " at " + position
+                        + " exceeds the " + (buffer.length - position) + " bytes left");
+            }
+            return (int) length;
+        }
+
+        byte[] readBytes() {
+            int length = readLength();
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        String readString() {
+            int length = readLength();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
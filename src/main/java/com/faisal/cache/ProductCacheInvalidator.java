@@ -0,0 +1,85 @@
+package com.faisal.cache;
+
+import com.faisal.event.ProductStockChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collects the products whose stock changed in the current transaction and evicts their cache
+ * entries once, after commit: the {@code productById} keys of those products and the list/search
+ * pages that {@link ProductPageIndex} saw them on. A rolled back transaction evicts nothing.
+ *
+ * <p>Pages a product was not on when they were cached (for example an {@code available=false}
+ * search once the product sells out) are not evicted and catch up when their TTL expires.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCacheInvalidator {
+
+    private final CacheManager cacheManager;
+    private final ProductPageIndex pageIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public void stockChanged(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(Set.copyOf(productIds));
+            return;
+        }
+
+        ProductStockChangedEvent event =
+                (ProductStockChangedEvent) TransactionSynchronizationManager.getResource(this);
+        if (event == null) {
+            event = new ProductStockChangedEvent(new LinkedHashSet<>());
+            TransactionSynchronizationManager.bindResource(this, event);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProductCacheInvalidator.this);
+                }
+            });
+            eventPublisher.publishEvent(event);
+        }
+        event.productIds().addAll(productIds);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        evict(event.productIds());
+    }
+
+    private void evict(Set<Long> productIds) {
+        Cache byId = cacheManager.getCache(ProductCacheManager.PRODUCT_BY_ID);
+        if (byId != null) {
+            productIds.forEach(byId::evict);
+        }
+
+        int pages = 0;
+        for (String cacheName : ProductCacheManager.PAGE_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            for (String pageKey : pageIndex.takePagesContaining(cacheName, productIds)) {
+                cache.evict(pageKey);
+                pages++;
+            }
+        }
+        log.debug("Evicted product caches after stock change products={}, pages={}", productIds.size(), pages);
+    }
+}
@@ -0,0 +1,75 @@
+package com.faisal.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.util.Set;
+
+/**
+ * Redis cache manager for the product caches. Each cache uses the TTL and value codec configured
+ * for it and is cleared by advancing its {@link CacheGenerations generation}. List/search pages are
+ * indexed by product id, and hit/miss metrics ({@code cache.gets}) are bound for every cache as
+ * it is created: Spring Boot only binds caches that exist at startup, and ours are all created
+ * on first use.
+ */
+public class ProductCacheManager extends RedisCacheManager {
+
+    public static final String PRODUCT_BY_ID = "productById";
+    public static final String PRODUCTS_LIST = "productsList";
+    public static final String PRODUCTS_SEARCH = "productsSearch";
+
+    static final Set<String> PAGE_CACHES = Set.of(PRODUCTS_LIST, PRODUCTS_SEARCH);
+
+    private final CacheGenerations generations;
+    private final ProductCacheProperties properties;
+    private final CacheValueSerializers valueSerializers;
+    private final ProductPageIndex pageIndex;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * {@code defaultCacheConfiguration} is expected to prefix keys with
+     * {@link CacheGenerations#prefix(String)}.
+     */
+    public ProductCacheManager(
+            RedisCacheWriter cacheWriter,
+            RedisCacheConfiguration defaultCacheConfiguration,
+            CacheGenerations generations,
+            ProductCacheProperties properties,
+            ProductPageIndex pageIndex,
+            MeterRegistry meterRegistry
+    ) {
+        super(cacheWriter, defaultCacheConfiguration);
+        this.generations = generations;
+        this.properties = properties;
+        this.valueSerializers = new CacheValueSerializers(properties);
+        this.pageIndex = pageIndex;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+        RedisCacheConfiguration config = cacheConfiguration
+                .entryTtl(properties.ttlFor(name))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializers.forCache(name)));
+        return new GenerationalRedisCache(name, getCacheWriter(), config, generations);
+    }
+
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        if (cache instanceof RedisCache redisCache && meterRegistry != null) {
+            new RedisCacheMetrics(redisCache, Tags.of("cache.manager", "redisCacheManager", "cache.level", "l2")).bindTo(meterRegistry);
+        }
+        Cache decorated = super.decorateCache(cache);
+        if (PAGE_CACHES.contains(cache.getName())) {
+            return new PageIndexingCache(decorated, pageIndex);
+        }
+        return decorated;
+    }
+}
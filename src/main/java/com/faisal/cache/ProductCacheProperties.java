@@ -0,0 +1,105 @@
+package com.faisal.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the product caches, bound to {@code app.cache}. The top-level values are defaults;
+ * a cache listed under {@code caches} overrides any of them.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache")
+public class ProductCacheProperties {
+
+    /** Redis pub/sub channel used to tell the other nodes which L1 entries to drop. */
+    private String invalidationChannel = "cache:invalidations";
+
+    /** How often a node re-reads a cache generation it has not been told about. */
+    private Duration generationRefresh = Duration.ofSeconds(1);
+
+    /** Redis entry TTL. */
+    private Duration ttl = Duration.ofMinutes(15);
+
+    /** Window before expiry in which hits may trigger a background reload; zero disables it. */
+    private Duration refreshAhead = Duration.ofMinutes(1);
+
+    /** How long a miss waits for a load of the same key already running before loading it itself. */
+    private Duration loadWait = Duration.ofSeconds(5);
+
+    private Level1 l1 = new Level1(true, 10_000L, Duration.ofSeconds(30));
+
+    private CacheCodec codec = CacheCodec.JSON;
+
+    /** Values at least this large are LZ4-compressed in Redis; unset means never. */
+    private DataSize compressAbove;
+
+    private Map<String, CacheSpec> caches = new HashMap<>();
+
+    /**
+     * Effective L1 settings of a cache: its own values where set, the defaults otherwise.
+     */
+    public Level1 l1For(String cacheName) {
+        CacheSpec spec = caches.get(cacheName);
+        if (spec == null || spec.getL1() == null) {
+            return l1;
+        }
+        Level1 own = spec.getL1();
+        return new Level1(
+                own.getEnabled() != null ? own.getEnabled() : l1.getEnabled(),
+                own.getMaximumSize() != null ? own.getMaximumSize() : l1.getMaximumSize(),
+                own.getTtl() != null ? own.getTtl() : l1.getTtl()
+        );
+    }
+
+    public Duration ttlFor(String cacheName) {
+        CacheSpec spec = caches.get(cacheName);
+        return spec != null && spec.getTtl() != null ? spec.getTtl() : ttl;
+    }
+
+    public Duration refreshAheadFor(String cacheName) {
+        CacheSpec spec = caches.get(cacheName);
+        return spec != null && spec.getRefreshAhead() != null ? spec.getRefreshAhead() : refreshAhead;
+    }
+
+    public CacheCodec codecFor(String cacheName) {
+        CacheSpec spec = caches.get(cacheName);
+        return spec != null && spec.getCodec() != null ? spec.getCodec() : codec;
+    }
+
+    public DataSize compressAboveFor(String cacheName) {
+        CacheSpec spec = caches.get(cacheName);
+        return spec != null && spec.getCompressAbove() != null ? spec.getCompressAbove() : compressAbove;
+    }
+
+    @Getter
+    @Setter
+    public static class CacheSpec {
+        private Duration ttl;
+        private Duration refreshAhead;
+        private Level1 l1;
+        private CacheCodec codec;
+        private DataSize compressAbove;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Level1 {
+
+        private Boolean enabled;
+        private Long maximumSize;
+
+        /** Upper bound on how long a node can serve an entry after a lost invalidation message. */
+        private Duration ttl;
+    }
+}
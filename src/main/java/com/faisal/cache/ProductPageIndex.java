@@ -0,0 +1,93 @@
+package com.faisal.cache;
+
+import com.faisal.dto.CachedPage;
+import com.faisal.dto.response.ProductResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Remembers which cached list/search pages contain which product, as one Redis set per
+ * (cache, product) holding the page keys. Stock changes then evict exactly those pages instead
+ * of clearing the cache or scanning its keyspace. Index sets expire with the pages they point to.
+ */
+public class ProductPageIndex {
+
+    private static final String PREFIX = "productPages:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ProductCacheProperties properties;
+
+    public ProductPageIndex(StringRedisTemplate redisTemplate, ProductCacheProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    public void index(String cacheName, Object pageKey, Object page) {
+        List<?> content = contentOf(page);
+        if (content == null || content.isEmpty()) {
+            return;
+        }
+        String member = pageKey.toString();
+        long ttlSeconds = properties.ttlFor(cacheName).toSeconds();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (Object item : content) {
+                if (item instanceof ProductResponse product && product.id() != null) {
+                    String indexKey = indexKey(cacheName, product.id());
+                    redis.sAdd(indexKey, member);
+                    redis.expire(indexKey, ttlSeconds);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Returns the keys of the cached pages that contain any of the given products and drops
+     * their index entries.
+     */
+    public Set<String> takePagesContaining(String cacheName, Collection<Long> productIds) {
+        Set<String> pageKeys = new LinkedHashSet<>();
+        if (productIds.isEmpty()) {
+            return pageKeys;
+        }
+        // One SMEMBERS + DEL per product rather than SUNION, so the index keys do not have to
+        // share a cluster slot.
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (Long productId : productIds) {
+                String indexKey = indexKey(cacheName, productId);
+                redis.sMembers(indexKey);
+                redis.del(indexKey);
+            }
+            return null;
+        });
+        for (Object reply : replies) {
+            if (reply instanceof Set<?> members) {
+                members.forEach(member -> pageKeys.add(member.toString()));
+            }
+        }
+        return pageKeys;
+    }
+
+    private static List<?> contentOf(Object page) {
+        if (page instanceof CachedPage<?> cached) {
+            return cached.content();
+        }
+        if (page instanceof Page<?> springPage) {
+            return springPage.getContent();
+        }
+        return null;
+    }
+
+    private static String indexKey(String cacheName, Long productId) {
+        return PREFIX + cacheName + ":" + productId;
+    }
+}
@@ -0,0 +1,237 @@
+package com.faisal.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Stampede protection for {@code @Cacheable(sync = true)} reads.
+ *
+ * <p>Concurrent misses for the same key in this JVM share one load: the first caller runs the
+ * loader and the others wait for its result, for at most {@code loadWait}; a caller that gives up
+ * waiting loads the value itself, without caching it. A load that overlaps an eviction of its key
+ * still answers its callers but is not written to the cache.
+ *
+ * <p>Entries this node loaded are also refreshed ahead of expiry: a hit within
+ * {@code refreshAhead} of the entry's TTL triggers a background reload with a probability that
+ * grows as expiry approaches, so a hot key is normally reloaded once, before it expires, instead
+ * of by every caller after. Keys loaded by other nodes are refreshed by those nodes.
+ */
+@Slf4j
+class SingleFlightCache implements Cache {
+
+    private final Cache delegate;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final long loadWaitNanos;
+    private final Executor refreshExecutor;
+
+    private final Map<Object, Flight> inFlight = new ConcurrentHashMap<>();
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Long> expiries;
+
+    SingleFlightCache(Cache delegate, Duration ttl, Duration refreshAhead, Duration loadWait, Executor refreshExecutor) {
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAheadNanos = Math.min(refreshAhead.toNanos(), ttlNanos);
+        this.loadWaitNanos = loadWait.toNanos();
+        this.refreshExecutor = refreshExecutor;
+        this.expiries = Caffeine.newBuilder()
+                .maximumSize(50_000)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper hit = delegate.get(key);
+        if (hit != null) {
+            maybeRefresh(key, valueLoader);
+            return (T) hit.get();
+        }
+
+        Flight flight = new Flight();
+        Flight leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            return follow(key, valueLoader, leader);
+        }
+
+        try {
+            // The previous flight for this key may have finished between the miss and putIfAbsent.
+            ValueWrapper loaded = delegate.get(key);
+            if (loaded != null) {
+                flight.result.complete(loaded.get());
+                return (T) loaded.get();
+            }
+            T value = valueLoader.call();
+            if (!flight.stale) {
+                store(key, value);
+            }
+            flight.result.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            flight.result.completeExceptionally(ex);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T follow(Object key, Callable<T> valueLoader, Flight leader) {
+        try {
+            return (T) leader.result.get(loadWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } catch (TimeoutException ex) {
+            log.debug("Gave up waiting for another load cache={}, key={}", getName(), key);
+        }
+        try {
+            return valueLoader.call();
+        } catch (Throwable ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        store(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            expiries.put(key, System.nanoTime() + ttlNanos);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        forget(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        forget(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        forgetAll();
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        forgetAll();
+        return delegate.invalidate();
+    }
+
+    private void store(Object key, Object value) {
+        delegate.put(key, value);
+        expiries.put(key, System.nanoTime() + ttlNanos);
+    }
+
+    private void maybeRefresh(Object key, Callable<?> valueLoader) {
+        Long expiresAt = expiries.getIfPresent(key);
+        if (expiresAt == null || refreshAheadNanos <= 0) {
+            return;
+        }
+        long remaining = expiresAt - System.nanoTime();
+        if (remaining > refreshAheadNanos
+                || ThreadLocalRandom.current().nextDouble() < (double) remaining / refreshAheadNanos) {
+            return;
+        }
+
+        Flight flight = new Flight();
+        if (inFlight.putIfAbsent(key, flight) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(key, valueLoader, flight));
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private void refresh(Object key, Callable<?> valueLoader, Flight flight) {
+        try {
+            Object value = valueLoader.call();
+            if (!flight.stale) {
+                store(key, value);
+            }
+            flight.result.complete(value);
+        } catch (Throwable ex) {
+            flight.result.completeExceptionally(ex);
+            log.debug("Early refresh failed cache={}, key={}", getName(), key, ex);
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Detaches any load running for the key, so it is not written back and later misses start a
+     * fresh one.
+     */
+    private void forget(Object key) {
+        expiries.invalidate(key);
+        Flight flight = inFlight.remove(key);
+        if (flight != null) {
+            flight.stale = true;
+        }
+    }
+
+    private void forgetAll() {
+        expiries.invalidateAll();
+        inFlight.keySet().forEach(this::forget);
+    }
+
+    private static final class Flight {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile boolean stale;
+    }
+}
@@ -0,0 +1,137 @@
+package com.faisal.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded in-process L1 in front of a Redis L2 cache. Reads try L1 first and fill it from L2;
+ * writes go to both. Evictions also go to both and are announced to the other nodes, which
+ * drop only their L1 copy.
+ */
+class TwoLevelCache implements Cache {
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> l1;
+    private final Cache l2;
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    TwoLevelCache(
+            com.github.benmanes.caffeine.cache.Cache<String, Object> l1,
+            Cache l2,
+            BiConsumer<String, String> invalidationPublisher
+    ) {
+        this.l1 = l1;
+        this.l2 = l2;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return l2.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String l1Key = key.toString();
+        Object local = l1.getIfPresent(l1Key);
+        if (local != null) {
+            return new SimpleValueWrapper(fromStore(local));
+        }
+        ValueWrapper remote = l2.get(key);
+        if (remote != null) {
+            l1.put(l1Key, toStore(remote.get()));
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String l1Key = key.toString();
+        Object local = l1.getIfPresent(l1Key);
+        if (local != null) {
+            return (T) fromStore(local);
+        }
+        T value = l2.get(key, valueLoader);
+        l1.put(l1Key, toStore(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        l2.put(key, value);
+        l1.put(key.toString(), toStore(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = l2.putIfAbsent(key, value);
+        l1.put(key.toString(), toStore(existing != null ? existing.get() : value));
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        evictLocal(key.toString());
+        invalidationPublisher.accept(getName(), key.toString());
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = l2.evictIfPresent(key);
+        evictLocal(key.toString());
+        invalidationPublisher.accept(getName(), key.toString());
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        clearLocal();
+        invalidationPublisher.accept(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = l2.invalidate();
+        clearLocal();
+        invalidationPublisher.accept(getName(), null);
+        return present;
+    }
+
+    void evictLocal(String key) {
+        l1.invalidate(key);
+    }
+
+    void clearLocal() {
+        l1.invalidateAll();
+    }
+
+    private static Object toStore(Object value) {
+        return value == null ? NullValue.INSTANCE : value;
+    }
+
+    private static Object fromStore(Object value) {
+        return value == NullValue.INSTANCE ? null : value;
+    }
+}
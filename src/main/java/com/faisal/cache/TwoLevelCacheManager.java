@@ -0,0 +1,172 @@
+package com.faisal.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Puts a Caffeine L1 in front of each cache of {@link ProductCacheManager} whose L1 is enabled
+ * in {@link ProductCacheProperties}; other caches are served straight from Redis.
+ *
+ * <p>Evictions are published on the invalidation channel and every other node drops the same
+ * entries from its own L1. L1 hits and misses are reported as {@code cache.gets} with
+ * {@code cache.level=l1}, next to the Redis ones tagged {@code cache.level=l2}.
+ *
+ * <p>Every cache is wrapped in a {@link SingleFlightCache}, so {@code @Cacheable(sync = true)}
+ * misses are coalesced and hot entries are reloaded in the background shortly before they expire.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener, DisposableBean {
+
+    private final ProductCacheManager l2CacheManager;
+    private final CacheGenerations generations;
+    private final ProductCacheProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor refreshExecutor = refreshExecutor();
+
+    public TwoLevelCacheManager(
+            ProductCacheManager l2CacheManager,
+            CacheGenerations generations,
+            ProductCacheProperties properties,
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.l2CacheManager = l2CacheManager;
+        this.generations = generations;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return l2CacheManager.getCacheNames();
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidationMessage invalidation;
+        try {
+            invalidation = objectMapper.readValue(message.getBody(), CacheInvalidationMessage.class);
+        } catch (Exception ex) {
+            log.warn("Ignoring malformed cache invalidation message: {}", new String(message.getBody(), StandardCharsets.UTF_8));
+            return;
+        }
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        if (invalidation.key() == null) {
+            generations.forget(invalidation.cacheName());
+        }
+        Cache cached = caches.get(invalidation.cacheName());
+        if (cached instanceof SingleFlightCache singleFlight) {
+            cached = singleFlight.getDelegate();
+        }
+        if (!(cached instanceof TwoLevelCache cache)) {
+            return;
+        }
+        if (invalidation.key() == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(invalidation.key());
+        }
+    }
+
+    private Cache createCache(String name) {
+        Cache l2 = l2CacheManager.getCache(name);
+        if (l2 == null) {
+            return null;
+        }
+        Duration ttl = properties.ttlFor(name);
+        Duration refreshAhead = properties.refreshAheadFor(name);
+        log.info("Created cache name={}, ttl={}, refreshAhead={}", name, ttl, refreshAhead);
+        return new SingleFlightCache(withLevel1(name, l2, ttl), ttl, refreshAhead, properties.getLoadWait(),
+                refreshExecutor);
+    }
+
+    private Cache withLevel1(String name, Cache l2, Duration ttl) {
+        ProductCacheProperties.Level1 l1 = properties.l1For(name);
+        if (!Boolean.TRUE.equals(l1.getEnabled())) {
+            return l2;
+        }
+
+        // An L1 copy must not outlive the Redis entry it was read from.
+        Duration l1Ttl = l1.getTtl().compareTo(ttl) < 0 ? l1.getTtl() : ttl;
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(l1.getMaximumSize())
+                .expireAfterWrite(l1Ttl)
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, local, name,
+                    Tags.of("cache.manager", "cacheManager", "cache.level", "l1"));
+        }
+        log.info("Enabled L1 cache name={}, maximumSize={}, ttl={}", name, l1.getMaximumSize(), l1Ttl);
+        return new TwoLevelCache(local, l2, this::publishInvalidation);
+    }
+
+    private void publishInvalidation(String cacheName, String key) {
+        try {
+            String payload = objectMapper.writeValueAsString(new CacheInvalidationMessage(nodeId, cacheName, key));
+            redisTemplate.convertAndSend(properties.getInvalidationChannel(), payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize cache invalidation", ex);
+        } catch (RuntimeException ex) {
+            // L2 is already evicted; the other nodes' L1 copies expire after the L1 TTL.
+            log.warn("Could not publish cache invalidation cache={}, key={}", cacheName, key, ex);
+        }
+    }
+
+    /**
+     * Early refreshes are best effort: a small pool with a bounded queue, and refreshes that do
+     * not fit are dropped; the entry is then loaded on its next miss.
+     */
+    private static ThreadPoolExecutor refreshExecutor() {
+        AtomicInteger threads = new AtomicInteger();
+        return new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
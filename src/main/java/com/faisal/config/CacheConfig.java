@@ -1,30 +1,81 @@
 package com.faisal.config;
 
+import com.faisal.cache.CacheGenerations;
+import com.faisal.cache.ProductCacheManager;
+import com.faisal.cache.ProductCacheProperties;
+import com.faisal.cache.ProductPageIndex;
+import com.faisal.cache.TwoLevelCacheManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
-import org.springframework.data.redis.serializer.RedisSerializationContext;
-
-import java.time.Duration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(ProductCacheProperties.class)
 public class CacheConfig {
 
     @Bean
-    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
+    public ProductPageIndex productPageIndex(StringRedisTemplate redisTemplate, ProductCacheProperties properties) {
+        return new ProductPageIndex(redisTemplate, properties);
+    }
+
+    @Bean
+    public CacheGenerations cacheGenerations(StringRedisTemplate redisTemplate, ProductCacheProperties properties) {
+        return new CacheGenerations(redisTemplate, properties.getGenerationRefresh());
+    }
+
+    @Bean
+    public ProductCacheManager redisCacheManager(
+            RedisConnectionFactory connectionFactory,
+            CacheGenerations cacheGenerations,
+            ProductCacheProperties properties,
+            ProductPageIndex productPageIndex,
+            ObjectProvider<MeterRegistry> meterRegistry
+    ) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(15))
-                .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer())
-                );
-
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .build();
+                .computePrefixWith(cacheGenerations::prefix);
+
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory)
+                .withStatisticsCollector(CacheStatisticsCollector.create());
+
+        return new ProductCacheManager(cacheWriter, config, cacheGenerations,
+                properties, productPageIndex, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    @Primary
+    public TwoLevelCacheManager cacheManager(
+            ProductCacheManager redisCacheManager,
+            CacheGenerations cacheGenerations,
+            ProductCacheProperties properties,
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        return new TwoLevelCacheManager(redisCacheManager, cacheGenerations, properties, redisTemplate, objectMapper, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            TwoLevelCacheManager cacheManager,
+            ProductCacheProperties properties
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(properties.getInvalidationChannel()));
+        return container;
     }
 }
@@ -1,36 +1,39 @@
 package com.faisal.config;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import com.faisal.dto.AuthUser;
+import com.faisal.security.JwtService;
+import com.faisal.security.TokenGenerations;
+import com.faisal.security.TokenRevocations;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
+/**
+ * Rejects requests whose bearer token has been revoked. Runs after
+ * {@code BearerTokenAuthenticationFilter} and checks the {@link Jwt} it already verified, so the
+ * token is decoded once per request, against the {@link TokenRevocations} and
+ * {@link TokenGenerations} held on this node.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtBlacklistFilter extends OncePerRequestFilter {
 
-    private static final String BLACKLIST_PREFIX = "jwt:blacklist:";
-
-    private final StringRedisTemplate redisTemplate;
-
-    @Value("${security.jwt.secret}")
-    private String jwtSecret;
+    private final TokenRevocations tokenRevocations;
+    private final TokenGenerations tokenGenerations;
 
     @Override
     protected void doFilterInternal(
@@ -39,51 +42,36 @@ public class JwtBlacklistFilter extends OncePerRequestFilter {
             FilterChain filterChain
     ) throws ServletException, IOException {
 
-        String auth = request.getHeader("Authorization");
-        if (auth == null || !auth.startsWith("Bearer ")) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!(authentication instanceof AbstractOAuth2TokenAuthenticationToken<?> bearer)
+                || !(bearer.getToken() instanceof Jwt jwt)) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String token = auth.substring("Bearer ".length()).trim();
-        if (token.isEmpty()) {
-            writeUnauthorized(response, "Missing Bearer token");
+        String jti = jwt.getId();
+        if (jti != null && !jti.isBlank() && tokenRevocations.isRevoked(jti)) {
+            log.info("Blocked request with blacklisted token jti={}", jti);
+            writeUnauthorized(response, "Token revoked");
             return;
         }
 
-        final Claims claims;
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (JwtException ex) {
-            // Token is present but invalid (expired, malformed, bad signature, etc.)
-            log.debug("Invalid JWT presented to blacklist filter: {}", ex.getMessage());
-            writeUnauthorized(response, "Invalid token");
-            return;
-        } catch (IllegalArgumentException ex) {
-            log.debug("Invalid JWT input presented to blacklist filter: {}", ex.getMessage());
-            writeUnauthorized(response, "Invalid token");
+        if (bearer.getPrincipal() instanceof AuthUser user
+                && !tokenGenerations.isCurrent(user.userId(), generation(jwt))) {
+            log.info("Blocked request with token of an earlier generation userId={}, jti={}", user.userId(), jti);
+            writeUnauthorized(response, "Token revoked");
             return;
         }
 
-        String jti = claims.getId();
-        if (jti != null && !jti.isBlank()) {
-            String key = BLACKLIST_PREFIX + jti;
-            String blacklisted = redisTemplate.opsForValue().get(key);
-            if (blacklisted != null) {
-                log.info("Blocked request with blacklisted token jti={}", jti);
-                writeUnauthorized(response, "Token revoked");
-                return;
-            }
-        }
-
         filterChain.doFilter(request, response);
     }
 
+    /** Tokens issued before generations were introduced count as generation 0. */
+    private static long generation(Jwt jwt) {
+        Object generation = jwt.getClaims().get(JwtService.GENERATION_CLAIM);
+        return generation instanceof Number number ? number.longValue() : 0;
+    }
+
     private void writeUnauthorized(HttpServletResponse response, String message) throws IOException {
         if (response.isCommitted()) {
             return;
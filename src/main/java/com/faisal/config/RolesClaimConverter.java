@@ -1,9 +1,15 @@
 package com.faisal.config;
 
+import com.faisal.dto.AuthUser;
+import com.faisal.exception.BadRequestException;
+import com.faisal.security.AuthUserAuthenticationToken;
+import com.faisal.security.SecurityUtils;
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 
 import java.util.Collection;
 import java.util.List;
@@ -23,5 +29,18 @@ public class RolesClaimConverter implements Converter<Jwt, Collection<GrantedAut
         }
         return List.of();
     }
-}
 
+    /**
+     * The authentication for a verified {@code jwt}, with its {@link AuthUser} as principal. A token
+     * whose claims do not make a user still authenticates with the {@link Jwt} as principal, and
+     * {@link SecurityUtils#currentUser()} rejects it where a user is needed.
+     */
+    public AbstractAuthenticationToken authenticate(Jwt jwt) {
+        Collection<GrantedAuthority> authorities = convert(jwt);
+        try {
+            return new AuthUserAuthenticationToken(jwt, SecurityUtils.fromJwt(jwt), authorities);
+        } catch (BadRequestException | IllegalArgumentException ex) {
+            return new JwtAuthenticationToken(jwt, authorities, jwt.getSubject());
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.faisal.controller;
 import com.faisal.dto.request.LoginRequest;
 import com.faisal.dto.response.ApiResponse;
 import com.faisal.dto.response.LoginResponse;
+import com.faisal.security.LoginExecutor;
+import com.faisal.security.SecurityUtils;
 import com.faisal.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,6 +15,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
@@ -20,18 +24,21 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginExecutor loginExecutor;
 
     @PostMapping("/login")
     @Operation(
             summary = "Login",
-            description = "Authenticates a user using email/password and returns a Bearer JWT access token.",
+            description = "Authenticates a user using email/password and returns a Bearer JWT access token. " +
+                    "503 means too many logins are in progress.",
             operationId = "login"
     )
-    public ResponseEntity<ApiResponse<LoginResponse>> login(
+    public CompletableFuture<ResponseEntity<ApiResponse<LoginResponse>>> login(
             @Parameter(description = "Login request payload containing email and password.")
             @Valid @RequestBody LoginRequest request
     ) {
-        return ResponseEntity.ok(new ApiResponse<>(true,authService.login(request.email(), request.password())));
+        return loginExecutor.submit(() -> authService.login(request.email(), request.password()))
+                .thenApply(response -> ResponseEntity.ok(new ApiResponse<>(true, response)));
     }
 
     @PostMapping("/logout")
@@ -51,4 +58,16 @@ public class AuthController {
         authService.logout(authorization);
         return ResponseEntity.ok(new ApiResponse<>(true, "Logged out"));
     }
+
+    @PostMapping("/logout-all")
+    @Operation(
+            summary = "Logout everywhere",
+            description = "Revokes every token issued to the caller so far, including the presented one.",
+            operationId = "logoutAll"
+    )
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<ApiResponse<String>> logoutAll() {
+        authService.logoutEverywhere(SecurityUtils.currentUser().userId());
+        return ResponseEntity.ok(new ApiResponse<>(true, "Logged out everywhere"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.faisal.controller;
+
+import com.faisal.dto.request.ReplaceDiscountRulesRequest;
+import com.faisal.dto.response.ApiResponse;
+import com.faisal.dto.response.DiscountRuleResponse;
+import com.faisal.service.DiscountRuleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/discount-rules")
+@RequiredArgsConstructor
+@Tag(name = "Discount rules", description = "Discount rule management endpoints")
+public class DiscountRuleController {
+
+    private final DiscountRuleService discountRuleService;
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(
+            summary = "List discount rules",
+            description = "The discount rules orders are priced with. ADMIN only.",
+            operationId = "listDiscountRules"
+    )
+    public ResponseEntity<ApiResponse<List<DiscountRuleResponse>>> list() {
+        return ResponseEntity.ok(new ApiResponse<>(true, discountRuleService.list()));
+    }
+
+    @PutMapping
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(
+            summary = "Replace discount rules",
+            description = "Replaces every discount rule in one go. Each rule takes rate of the subtotal (scope ORDER) or of " +
+                    "each line total (scope LINE) and/or a fixed amount off when that total is above threshold; rules " +
+                    "without a role apply to everyone and all matching rules add up. This node prices orders with the " +
+                    "new rules right away, other nodes within app.discounts.refresh-interval. ADMIN only.",
+            operationId = "replaceDiscountRules"
+    )
+    public ResponseEntity<ApiResponse<List<DiscountRuleResponse>>> replace(
+            @Parameter(description = "The complete new rule set.")
+            @Valid @RequestBody ReplaceDiscountRulesRequest request
+    ) {
+        return ResponseEntity.ok(new ApiResponse<>(true, discountRuleService.replaceAll(request.rules())));
+    }
+}
@@ -2,18 +2,37 @@ package com.faisal.controller;
 
 import com.faisal.dto.request.CreateOrderRequest;
 import com.faisal.dto.response.ApiResponse;
+import com.faisal.dto.response.CursorPage;
+import com.faisal.dto.response.OrderQuoteResponse;
 import com.faisal.dto.response.OrderResponse;
+import com.faisal.dto.response.OrderStatusResponse;
+import com.faisal.enums.ExportFormat;
+import com.faisal.exception.ResourceNotFoundException;
+import com.faisal.export.OrderExporter;
+import com.faisal.idempotency.IdempotentRequests;
+import com.faisal.intake.OrderIntake;
+import com.faisal.quote.OrderQuoter;
+import com.faisal.security.SecurityUtils;
 import com.faisal.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.net.URI;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/orders")
@@ -21,22 +40,159 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final ObjectProvider<OrderIntake> orderIntake;
+    private final IdempotentRequests idempotentRequests;
+    private final OrderExporter orderExporter;
+    private final OrderQuoter orderQuoter;
 
-    public OrderController(OrderService orderService) {
+    private final Timer placements;
+    private final Timer quotes;
+
+    public OrderController(
+            OrderService orderService,
+            ObjectProvider<OrderIntake> orderIntake,
+            IdempotentRequests idempotentRequests,
+            OrderExporter orderExporter,
+            OrderQuoter orderQuoter,
+            MeterRegistry meterRegistry
+    ) {
         this.orderService = orderService;
+        this.orderIntake = orderIntake;
+        this.idempotentRequests = idempotentRequests;
+        this.orderExporter = orderExporter;
+        this.orderQuoter = orderQuoter;
+
+        this.placements = Timer.builder("orders.placement")
+                .description("Time to answer POST /orders, whether the order is placed, queued or replayed")
+                .register(meterRegistry);
+        this.quotes = Timer.builder("orders.quote")
+                .description("Time to answer POST /orders/quote, whether priced or remembered")
+                .register(meterRegistry);
     }
 
     @PostMapping
     @PreAuthorize("hasAnyRole('USER','PREMIUM_USER','ADMIN')")
     @Operation(
             summary = "Place order",
-            description = "Places a new order for a user and calculates totals (including discounts if applicable).",
+            description = "Places a new order for a user and calculates totals (including discounts if applicable). " +
+                    "A coupon_code takes one of the coupon's redemptions; 400 if it is unknown, not running or used up. " +
+                    "With app.orders.intake.mode=async the order is queued instead and 202 is returned with a token " +
+                    "to poll at /orders/{token}/status; 503 means the queue is full.",
             operationId = "placeOrder"
     )
-    public ResponseEntity<ApiResponse<OrderResponse>> placeOrder(
+    public ResponseEntity<?> placeOrder(
+            @Parameter(description = "Client-chosen key; retries with the same key replay the first response instead of placing another order.")
+            @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey,
             @Parameter(description = "Order creation payload including userId, role and items.")
             @Valid @RequestBody CreateOrderRequest orderRequest
     ) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse<>(true, orderService.placeOrder(orderRequest.items())));
+        return placements.record(() -> {
+            if (idempotencyKey == null) {
+                return place(orderRequest);
+            }
+            String scope = "orders:" + SecurityUtils.currentUser().userId();
+            return idempotentRequests.execute(scope, idempotencyKey, orderRequest, () -> place(orderRequest));
+        });
+    }
+
+    @PostMapping("/quote")
+    @PreAuthorize("hasAnyRole('USER','PREMIUM_USER','ADMIN')")
+    @Operation(
+            summary = "Quote order",
+            description = "Prices the items like placing the order would, with the caller's discounts, from cached product " +
+                    "prices. Reserves no stock, redeems no coupon and writes nothing, so it does not promise the items or the " +
+                    "coupon are available. " +
+                    "The same items and coupon for the same role may be answered from a quote up to app.orders.quote.ttl old.",
+            operationId = "quoteOrder"
+    )
+    public ResponseEntity<ApiResponse<OrderQuoteResponse>> quoteOrder(
+            @Parameter(description = "The items to price, as for placing an order.")
+            @Valid @RequestBody CreateOrderRequest orderRequest
+    ) {
+        OrderQuoteResponse quote = quotes.record(
+                () -> orderQuoter.quote(SecurityUtils.currentUser().role(), orderRequest.items(), orderRequest.couponCode()));
+        return ResponseEntity.ok(new ApiResponse<>(true, quote));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('USER','PREMIUM_USER','ADMIN')")
+    @Operation(
+            summary = "Get order",
+            description = "An order with its items. Users can only read their own orders; admins can read any.",
+            operationId = "getOrder"
+    )
+    public ResponseEntity<ApiResponse<OrderResponse>> getOrder(
+            @Parameter(description = "Order id.", example = "1")
+            @PathVariable Long id
+    ) {
+        return ResponseEntity.ok(new ApiResponse<>(true, orderService.getOrder(id)));
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('USER','PREMIUM_USER','ADMIN')")
+    @Operation(
+            summary = "List orders",
+            description = "Orders newest first, keyset-paginated: pass next_cursor from the previous response as cursor. " +
+                    "Users list their own orders; admins list all orders, or one user's with user_id.",
+            operationId = "listOrders"
+    )
+    public ResponseEntity<ApiResponse<CursorPage<OrderResponse>>> listOrders(
+            @Parameter(description = "ADMIN only: only list this user's orders.")
+            @RequestParam(required = false, name = "user_id") Long userId,
+            @RequestParam(defaultValue = "20", name = "size") int size,
+            @RequestParam(required = false, name = "cursor") String cursor
+    ) {
+        return ResponseEntity.ok(new ApiResponse<>(true, orderService.listOrders(userId, size, cursor)));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Export orders",
+            description = "Streams every order placed in [from, to) with its items, oldest first: one JSON object per " +
+                    "order and line (ndjson) or one row per item (csv). ADMIN only.",
+            operationId = "exportOrders"
+    )
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Start of the range, inclusive (ISO-8601).", example = "2026-01-01T00:00:00Z")
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @Parameter(description = "End of the range, exclusive (ISO-8601).", example = "2026-01-02T00:00:00Z")
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "ndjson", name = "format") String format
+    ) {
+        ExportFormat exportFormat = ExportFormat.fromString(format);
+        StreamingResponseBody body = orderExporter.export(from, to, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("orders." + exportFormat.extension()).build().toString())
+                .body(body);
+    }
+
+    @GetMapping("/{token}/status")
+    @PreAuthorize("hasAnyRole('USER','PREMIUM_USER','ADMIN')")
+    @Operation(
+            summary = "Queued order status",
+            description = "Status of an order accepted with 202: QUEUED, PLACED with the order, or FAILED with the reason.",
+            operationId = "orderStatus"
+    )
+    public ResponseEntity<ApiResponse<OrderStatusResponse>> orderStatus(@PathVariable String token) {
+        OrderIntake intake = orderIntake.getIfAvailable();
+        if (intake == null) {
+            throw new ResourceNotFoundException("Order " + token + " not found");
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, intake.status(token, SecurityUtils.currentUser())));
+    }
+
+    private ResponseEntity<ApiResponse<?>> place(CreateOrderRequest orderRequest) {
+        OrderIntake intake = orderIntake.getIfAvailable();
+        if (intake != null) {
+            OrderStatusResponse queued = intake.submit(SecurityUtils.currentUser(), orderRequest.items(), orderRequest.couponCode());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/orders/" + queued.token() + "/status"))
+                    .body(new ApiResponse<>(true, queued));
+        }
+        OrderResponse order = orderService.placeOrder(orderRequest.items(), orderRequest.couponCode());
+        return ResponseEntity.status(HttpStatus.CREATED).body(new ApiResponse<>(true, order));
     }
-}
\ No newline at end of file
+}
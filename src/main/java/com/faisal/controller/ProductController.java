@@ -3,6 +3,7 @@ package com.faisal.controller;
 import com.faisal.dto.request.CreateProductRequest;
 import com.faisal.dto.request.PageRequest;
 import com.faisal.dto.response.ApiResponse;
+import com.faisal.dto.response.CursorPage;
 import com.faisal.dto.response.ProductResponse;
 import com.faisal.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -27,6 +28,8 @@ import java.math.BigDecimal;
 @Tag(name = "Products", description = "Products management endpoints")
 public class ProductController {
 
+    private static final String RELEVANCE = "relevance";
+
     private final ProductService productService;
 
     @PostMapping
@@ -69,7 +72,8 @@ public class ProductController {
     @SecurityRequirement(name = "bearerAuth")
     @Operation(
             summary = "Search products",
-            description = "Search products by combinable filters (name, price range, availability) with paging/sorting.",
+            description = "Search products by combinable filters (name, price range, availability) with paging/sorting. " +
+                    "sort_by=relevance orders name matches by full-text rank.",
             operationId = "searchProducts"
     )
     public ResponseEntity<ApiResponse<Page<ProductResponse>>> search(
@@ -82,15 +86,41 @@ public class ProductController {
             @RequestParam(defaultValue = "id", name = "sort_by") String sortBy,
             @RequestParam(defaultValue = "ASC", name = "direction") String direction
     ) {
-        Pageable pageable = org.springframework.data.domain.PageRequest.of(
-                page,
-                size,
-                Sort.by(Sort.Direction.fromString(direction.toUpperCase()), sortBy)
-        );
+        Sort sort = RELEVANCE.equalsIgnoreCase(sortBy)
+                ? Sort.unsorted()
+                : Sort.by(Sort.Direction.fromString(direction.toUpperCase()), sortBy);
+        Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size, sort);
         Page<ProductResponse> response = productService.searchForApi(name, minPrice, maxPrice, available, pageable);
         return ResponseEntity.ok(new ApiResponse<>(true, response));
     }
 
+    @GetMapping("/scroll")
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasAnyRole('USER','PREMIUM_USER','ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(
+            summary = "Scroll products",
+            description = "Keyset-paginated search with the same filters as /products. Pass next_cursor from the previous " +
+                    "response as cursor, repeating the filters; the cursor keeps its own sort_by (id, name or price) " +
+                    "and direction. total_elements is only computed when with_total=true.",
+            operationId = "scrollProducts"
+    )
+    public ResponseEntity<ApiResponse<CursorPage<ProductResponse>>> scroll(
+            @RequestParam(required = false, name = "name") String name,
+            @RequestParam(required = false , name = "min_price") BigDecimal minPrice,
+            @RequestParam(required = false, name = "max_price") BigDecimal maxPrice,
+            @RequestParam(required = false,name = "is_available") Boolean available,
+            @RequestParam(defaultValue = "100", name = "size") int size,
+            @RequestParam(defaultValue = "id", name = "sort_by") String sortBy,
+            @RequestParam(defaultValue = "ASC", name = "direction") String direction,
+            @RequestParam(required = false, name = "cursor") String cursor,
+            @RequestParam(defaultValue = "false", name = "with_total") boolean withTotal
+    ) {
+        CursorPage<ProductResponse> response = productService.scroll(name, minPrice, maxPrice, available,
+                sortBy, Sort.Direction.fromString(direction.toUpperCase()), size, cursor, withTotal);
+        return ResponseEntity.ok(new ApiResponse<>(true, response));
+    }
+
     @PutMapping("/{id}")
     @ResponseStatus(HttpStatus.CREATED)
     @PreAuthorize("hasRole('ADMIN')")
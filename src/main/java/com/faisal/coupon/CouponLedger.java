@@ -0,0 +1,315 @@
+package com.faisal.coupon;
+
+import com.faisal.exception.BadRequestException;
+import com.faisal.exception.ServiceUnavailableException;
+import com.faisal.model.Coupon;
+import com.faisal.pricing.Money;
+import com.faisal.repository.CouponRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Counts the redemptions left per coupon in Redis and takes one per order with a Lua script, so
+ * a popular code never becomes a hot row in Postgres. A redemption is given back if the order's
+ * transaction rolls back, and queued once it commits; {@link CouponRedemptionWriter} writes the
+ * queue to {@code coupon_redemptions} in batches.
+ *
+ * <p>A coupon is loaded into Redis on first use and kept there, so a change to its row only
+ * takes effect after its key is deleted. Redemptions whose order has not committed yet are
+ * counted per coupon in an in-flight hash, so deleting the key while orders are being placed
+ * loses none of them. All keys share the {@code {coupons}} hash tag so the scripts stay valid on
+ * Redis Cluster.
+ */
+@Slf4j
+@Component
+public class CouponLedger {
+
+    static final String COUPON_PREFIX = "{coupons}:coupon:";
+    static final String REDEMPTIONS_KEY = "{coupons}:redemptions";
+    static final String WRITING_KEY = "{coupons}:writing";
+    static final String LEASE_KEY = "{coupons}:writing:lease";
+    static final String BATCH_KEY = "{coupons}:writing:batch";
+    static final String PENDING_KEY = "{coupons}:pending";
+    static final String INFLIGHT_KEY = "{coupons}:inflight";
+    static final String EPOCH_KEY = "{coupons}:epoch";
+
+    /** Name of this ledger in {@code ledger_batches}. */
+    static final String LEDGER_NAME = "coupons";
+
+    private static final int MAX_SEED_ATTEMPTS = 3;
+
+    /*
+     * One statement, so the count and whether the batch is already in it come from the same
+     * snapshot.
+     */
+    private static final String SEED_SQL = """
+            SELECT (SELECT count(*) FROM coupon_redemptions WHERE coupon_id = ?) AS redeemed,
+                   EXISTS (SELECT 1 FROM ledger_batches WHERE batch_id = ?) AS applied
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final CouponRepository couponRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final RedisScript<List> redeemScript = script("coupon-redeem.lua", List.class);
+    private final RedisScript<Long> releaseScript = script("coupon-release.lua", Long.class);
+    private final RedisScript<Long> seedScript = script("coupon-seed.lua", Long.class);
+    private final RedisScript<Long> recordScript = script("coupon-record.lua", Long.class);
+    private final RedisScript<List> drainScript = script("coupon-drain.lua", List.class);
+    private final RedisScript<Long> completeScript = script("coupon-complete.lua", Long.class);
+    private final RedisScript<Long> releaseLeaseScript = script("lease-release.lua", Long.class);
+
+    private final Map<String, Counter> outcomes = new HashMap<>();
+
+    public CouponLedger(
+            StringRedisTemplate redisTemplate,
+            CouponRepository couponRepository,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.couponRepository = couponRepository;
+        this.jdbcTemplate = jdbcTemplate;
+
+        for (String outcome : List.of("OK", "MISSING", "INACTIVE", "EXHAUSTED")) {
+            outcomes.put(outcome, Counter.builder("coupons.redemptions")
+                    .description("Coupon redemptions attempted, by outcome")
+                    .tag("outcome", outcome.toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Takes one redemption of {@code code} for an order placed at {@code at}. Within a transaction
+     * the redemption is given back if it rolls back. It counts as in flight until
+     * {@link #recordOnCommit} queues it or it is given back.
+     *
+     * @throws BadRequestException if the code is unknown, not running at {@code at} or used up
+     * @throws ServiceUnavailableException if the coupon could not be loaded into Redis
+     */
+    public CouponTerms redeem(String code, Instant at) {
+        CouponTerms coupon = run(code, at, 1);
+        releaseOnRollback(coupon);
+        log.debug("Redeemed coupon code={} id={}", code, coupon.id());
+        return coupon;
+    }
+
+    /**
+     * What {@code code} would take off an order placed at {@code at}, without redeeming it.
+     *
+     * @throws BadRequestException if the code is unknown, not running at {@code at} or used up
+     * @throws ServiceUnavailableException if the coupon could not be loaded into Redis
+     */
+    public CouponTerms check(String code, Instant at) {
+        return run(code, at, 0);
+    }
+
+    /**
+     * Queues the redemption of {@code coupon} by order {@code orderId} to be written to Postgres
+     * once the current transaction commits.
+     */
+    public void recordOnCommit(CouponTerms coupon, Long orderId, Long userId, Instant at) {
+        Redemption redemption = new Redemption(coupon.id(), orderId, userId, at);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(redemption);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(redemption);
+            }
+        });
+    }
+
+    /**
+     * Returns the batch of redemptions waiting to be written and leases it to run {@code runId}
+     * for {@code lease}. While another run holds the lease the batch is empty. Until
+     * {@link #completeWrite(String, Map)} is called the same batch, with the same id, is returned
+     * again.
+     */
+    RedemptionBatch drainRedemptions(String runId, Duration lease) {
+        List<?> entries = redisTemplate.execute(drainScript,
+                List.of(REDEMPTIONS_KEY, WRITING_KEY, LEASE_KEY, BATCH_KEY),
+                runId, Long.toString(lease.toMillis()), UUID.randomUUID().toString());
+        List<Redemption> redemptions = new ArrayList<>();
+        if (entries == null || entries.isEmpty()) {
+            return new RedemptionBatch(null, redemptions);
+        }
+        entries.subList(1, entries.size()).forEach(entry -> redemptions.add(Redemption.parse((String) entry)));
+        return new RedemptionBatch((String) entries.get(0), redemptions);
+    }
+
+    /**
+     * Drops the batch run {@code runId} has written, given the number of redemptions it held per
+     * coupon id.
+     *
+     * @return false if the run's lease expired first, so another run may write the batch again
+     */
+    boolean completeWrite(String runId, Map<Long, Long> written) {
+        List<String> args = new ArrayList<>(written.size() * 2 + 1);
+        args.add(runId);
+        written.forEach((couponId, count) -> {
+            args.add(couponId.toString());
+            args.add(count.toString());
+        });
+        Long epoch = redisTemplate.execute(completeScript,
+                List.of(WRITING_KEY, PENDING_KEY, EPOCH_KEY, LEASE_KEY, BATCH_KEY), args.toArray());
+        return epoch != null && epoch > 0;
+    }
+
+    /** Gives up the lease of run {@code runId}, whose batch failed, so the next run retries it. */
+    void abandonWrite(String runId) {
+        redisTemplate.execute(releaseLeaseScript, List.of(LEASE_KEY), runId);
+    }
+
+    private CouponTerms run(String code, Instant at, int take) {
+        List<?> result = runRedeem(code, at, take);
+        if ("MISSING".equals(result.get(0))) {
+            if (seed(code) == SeedOutcome.CONTENDED) {
+                throw new ServiceUnavailableException("Coupon " + code + " is busy, please retry shortly");
+            }
+            result = runRedeem(code, at, take);
+        }
+
+        String status = (String) result.get(0);
+        outcomes.get(status).increment();
+        return switch (status) {
+            case "MISSING" -> throw new BadRequestException("Unknown coupon code: " + code);
+            case "INACTIVE" -> throw new BadRequestException("Coupon " + code + " is not valid at this time");
+            case "EXHAUSTED" -> throw new BadRequestException("Coupon " + code + " has no redemptions left");
+            default -> new CouponTerms(
+                    Long.parseLong((String) result.get(1)),
+                    code,
+                    Long.parseLong((String) result.get(2)),
+                    Long.parseLong((String) result.get(3)));
+        };
+    }
+
+    private List<?> runRedeem(String code, Instant at, int take) {
+        return redisTemplate.execute(redeemScript, List.of(COUPON_PREFIX + code, INFLIGHT_KEY),
+                Long.toString(at.toEpochMilli()), Integer.toString(take));
+    }
+
+    private void release(CouponTerms coupon) {
+        redisTemplate.execute(releaseScript, List.of(COUPON_PREFIX + coupon.code(), INFLIGHT_KEY),
+                Long.toString(coupon.id()));
+        log.info("Released coupon redemption code={} id={}", coupon.code(), coupon.id());
+    }
+
+    private void releaseOnRollback(CouponTerms coupon) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(coupon);
+                }
+            }
+        });
+    }
+
+    /**
+     * The order has committed by now, so a failure here is logged rather than thrown: the
+     * redemption still counts in Redis but is missing from {@code coupon_redemptions}.
+     */
+    private void record(Redemption redemption) {
+        try {
+            redisTemplate.execute(recordScript, List.of(REDEMPTIONS_KEY, PENDING_KEY, INFLIGHT_KEY),
+                    Long.toString(redemption.couponId()), redemption.format());
+        } catch (RuntimeException ex) {
+            log.error("Could not queue coupon redemption {}", redemption, ex);
+        }
+    }
+
+    /**
+     * Redemptions of the batch being written are only subtracted once: from the Postgres count if
+     * it already has them, otherwise from the pending count.
+     */
+    private SeedOutcome seed(String code) {
+        for (int attempt = 1; attempt <= MAX_SEED_ATTEMPTS; attempt++) {
+            List<String> state = redisTemplate.opsForValue().multiGet(List.of(EPOCH_KEY, BATCH_KEY));
+            String epoch = state == null || state.get(0) == null ? "0" : state.get(0);
+            String batchId = state == null || state.get(1) == null ? "" : state.get(1);
+            Optional<Coupon> found = couponRepository.findByCode(code);
+            if (found.isEmpty()) {
+                return SeedOutcome.UNKNOWN;
+            }
+            Coupon coupon = found.get();
+            Redeemed redeemed = jdbcTemplate.queryForObject(SEED_SQL,
+                    (rs, rowNum) -> new Redeemed(rs.getLong("redeemed"), rs.getBoolean("applied")),
+                    coupon.getId(), batchId);
+            Long seeded = redisTemplate.execute(seedScript,
+                    List.of(COUPON_PREFIX + code, PENDING_KEY, EPOCH_KEY, BATCH_KEY, WRITING_KEY, INFLIGHT_KEY),
+                    coupon.getId().toString(),
+                    coupon.getMaxRedemptions() == null ? "" : coupon.getMaxRedemptions().toString(),
+                    Long.toString(redeemed.count()),
+                    coupon.getRate() == null ? "0" : Long.toString(Money.toPartsPerMillion(coupon.getRate())),
+                    coupon.getAmount() == null ? "0" : Long.toString(Money.toCents(coupon.getAmount())),
+                    coupon.getStartsAt() == null ? "" : Long.toString(coupon.getStartsAt().toEpochMilli()),
+                    coupon.getEndsAt() == null ? "" : Long.toString(coupon.getEndsAt().toEpochMilli()),
+                    epoch,
+                    batchId,
+                    redeemed.batchApplied() ? "1" : "0");
+            if (seeded == null || seeded >= 0) {
+                return SeedOutcome.SEEDED;
+            }
+        }
+        log.warn("Could not seed ledger for coupon {} after {} attempts", code, MAX_SEED_ATTEMPTS);
+        return SeedOutcome.CONTENDED;
+    }
+
+    private static <T> RedisScript<T> script(String name, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("redis/" + name));
+        script.setResultType(resultType);
+        return script;
+    }
+
+    private record Redeemed(long count, boolean batchApplied) {
+    }
+
+    /** How loading a coupon into Redis ended; {@code CONTENDED} means every attempt raced a batch write. */
+    private enum SeedOutcome { SEEDED, UNKNOWN, CONTENDED }
+
+    /** Redemptions waiting to be written, under the id of their batch. */
+    record RedemptionBatch(String id, List<Redemption> redemptions) {
+
+        boolean isEmpty() {
+            return redemptions.isEmpty();
+        }
+    }
+
+    record Redemption(long couponId, long orderId, long userId, Instant redeemedAt) {
+
+        String format() {
+            return couponId + ":" + orderId + ":" + userId + ":" + redeemedAt.toEpochMilli();
+        }
+
+        static Redemption parse(String entry) {
+            String[] parts = entry.split(":");
+            return new Redemption(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                    Instant.ofEpochMilli(Long.parseLong(parts[3])));
+        }
+    }
+}
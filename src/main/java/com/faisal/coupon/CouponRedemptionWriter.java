@@ -0,0 +1,115 @@
+package com.faisal.coupon;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Writes the redemptions queued by {@link CouponLedger} to {@code coupon_redemptions} in one
+ * JDBC batch per run.
+ *
+ * <p>Every node runs the writer, so a run leases the batch it drains for
+ * {@code app.coupons.write-lease}, and runs on other nodes skip it until it is completed or the
+ * lease expires. The batch is written in a transaction that times out after half the lease, so a
+ * slow run rolls back before another can take the batch over. A batch that fails to commit is
+ * retried on the next run. The batch id is recorded in {@code ledger_batches} in the same
+ * transaction, so a batch drained again after a crash between the Postgres commit and
+ * {@link CouponLedger#completeWrite(String, Map)} is only completed, and seeds can tell whether
+ * Postgres already counts it.
+ */
+@Slf4j
+@Component
+public class CouponRedemptionWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO coupon_redemptions (coupon_id, order_id, user_id, redeemed_at) VALUES (?, ?, ?, ?) " +
+                    "ON CONFLICT DO NOTHING";
+    private static final String RECORD_BATCH_SQL =
+            "INSERT INTO ledger_batches (batch_id, ledger, applied_at) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String PRUNE_BATCHES_SQL =
+            "DELETE FROM ledger_batches WHERE ledger = ? AND batch_id <> ?";
+
+    private final CouponLedger ledger;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration lease;
+
+    private final Counter written;
+
+    public CouponRedemptionWriter(
+            CouponLedger ledger,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.coupons.write-lease:1m}") Duration lease
+    ) {
+        this.ledger = ledger;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setTimeout((int) Math.max(1, lease.toSeconds() / 2));
+        this.lease = lease;
+
+        this.written = Counter.builder("coupons.redemptions.written")
+                .description("Coupon redemptions written from Redis to Postgres")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.coupons.write-interval:1s}")
+    public void write() {
+        String runId = UUID.randomUUID().toString();
+        CouponLedger.RedemptionBatch drained = ledger.drainRedemptions(runId, lease);
+        if (drained.isEmpty()) {
+            return;
+        }
+        List<CouponLedger.Redemption> redemptions = drained.redemptions();
+
+        List<Object[]> batch = new ArrayList<>(redemptions.size());
+        Map<Long, Long> perCoupon = new TreeMap<>();
+        for (CouponLedger.Redemption redemption : redemptions) {
+            batch.add(new Object[]{redemption.couponId(), redemption.orderId(), redemption.userId(),
+                    Timestamp.from(redemption.redeemedAt())});
+            perCoupon.merge(redemption.couponId(), 1L, Long::sum);
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        boolean applied;
+        try {
+            applied = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update(RECORD_BATCH_SQL, drained.id(), CouponLedger.LEDGER_NAME, now) == 0) {
+                    return false;
+                }
+                jdbcTemplate.update(PRUNE_BATCHES_SQL, CouponLedger.LEDGER_NAME, drained.id());
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                return true;
+            }));
+        } catch (RuntimeException ex) {
+            ledger.abandonWrite(runId);
+            throw ex;
+        }
+        if (!ledger.completeWrite(runId, perCoupon)) {
+            log.warn("Coupon write lease expired before batch {} was completed, the next run completes it", drained.id());
+            return;
+        }
+        if (!applied) {
+            log.info("Completed coupon batch {} that Postgres had already written", drained.id());
+            return;
+        }
+        written.increment(batch.size());
+
+        log.info("Wrote coupon redemptions to Postgres redemptions={}, coupons={}", batch.size(), perCoupon.size());
+    }
+}
@@ -0,0 +1,15 @@
+package com.faisal.coupon;
+
+import com.faisal.pricing.Money;
+
+/**
+ * What a redeemed coupon takes off an order: {@code rate} parts per million of the subtotal plus
+ * {@code amount} cents.
+ */
+public record CouponTerms(long id, String code, long rate, long amount) {
+
+    /** The discount on {@code subtotal} cents, in millionths of a cent. */
+    public long discount(long subtotal) {
+        return Math.addExact(Math.multiplyExact(subtotal, rate), Math.multiplyExact(amount, Money.MILLIONTHS_PER_CENT));
+    }
+}
@@ -1,6 +0,0 @@
-package com.faisal.discount;
-
-public enum DiscountChainResult {
-    CONTINUE,
-    STOP
-}
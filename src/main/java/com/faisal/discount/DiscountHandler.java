@@ -1,5 +0,0 @@
-package com.faisal.discount;
-
-public interface DiscountHandler {
-    DiscountChainResult handle(DiscountContext ctx);
-}
\ No newline at end of file
@@ -0,0 +1,329 @@
+package com.faisal.discount;
+
+import com.faisal.enums.DiscountScope;
+import com.faisal.enums.Role;
+import com.faisal.model.DiscountRule;
+import com.faisal.pricing.Money;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Discount rules compiled for evaluation. For each role, the order rules and the line rules that
+ * apply to it are sorted by threshold with running totals of their rates and amounts, so the
+ * discount of an order is one binary search on the subtotal plus one per line, whatever the
+ * number of rules, and nothing is allocated.
+ *
+ * <p>Promotions, rules with a start or an end, are kept apart in an interval tree per role, so
+ * only the {@code k} promotions running when the order is placed are looked at, in
+ * O(log n + k).
+ *
+ * <p>A plan is immutable; {@link DiscountRules} replaces it as a whole when the rules change.
+ */
+public final class DiscountPlan {
+
+    private static final Role[] ROLES = Role.values();
+
+    /** Slot of orders without a role, after the roles; only rules for every role apply. */
+    private static final int NO_ROLE = ROLES.length;
+
+    public static final DiscountPlan EMPTY = compile(List.of());
+
+    private final List<Rule> rules;
+    private final Tiers[] orderTiers;
+    private final Tiers[] lineTiers;
+    private final Promotions[] promotions;
+
+    private DiscountPlan(List<Rule> rules) {
+        this.rules = rules;
+        this.orderTiers = new Tiers[NO_ROLE + 1];
+        this.lineTiers = new Tiers[NO_ROLE + 1];
+        this.promotions = new Promotions[NO_ROLE + 1];
+
+        List<Rule> standing = rules.stream().filter(rule -> !rule.isPromotion()).toList();
+        List<Rule> windowed = rules.stream().filter(Rule::isPromotion).toList();
+        for (int slot = 0; slot <= NO_ROLE; slot++) {
+            Role role = slot == NO_ROLE ? null : ROLES[slot];
+            orderTiers[slot] = Tiers.of(standing, DiscountScope.ORDER, role);
+            lineTiers[slot] = Tiers.of(standing, DiscountScope.LINE, role);
+            promotions[slot] = Promotions.of(windowed.stream().filter(rule -> rule.appliesTo(role)).toList());
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if a rule has no scope, no rate and no amount, a negative
+     *         value, a rate above 1 or with more than six decimals, fractions of a cent, or an end
+     *         that is not after its start
+     */
+    public static DiscountPlan compile(List<DiscountRule> rules) {
+        List<Rule> compiled = new ArrayList<>(rules.size());
+        for (DiscountRule rule : rules) {
+            compiled.add(Rule.of(rule));
+        }
+        return new DiscountPlan(List.copyOf(compiled));
+    }
+
+    /**
+     * Discount for an order in cents placed at {@code at}, in millionths of a cent, unrounded and
+     * not capped at the subtotal.
+     */
+    public long discount(Role role, Instant at, long subtotal, long[] lineTotals) {
+        if (subtotal <= 0) {
+            return 0;
+        }
+        int slot = role == null ? NO_ROLE : role.ordinal();
+
+        long discount = orderTiers[slot].discount(subtotal);
+        Tiers lines = lineTiers[slot];
+        if (lines.size() > 0) {
+            for (long lineTotal : lineTotals) {
+                discount = Math.addExact(discount, lines.discount(lineTotal));
+            }
+        }
+        return Math.addExact(discount, promotions[slot].discount(at, subtotal, lineTotals));
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    /** Whether both plans give every order the same discount because they hold the same rules. */
+    public boolean hasSameRules(DiscountPlan other) {
+        return rules.equals(other.rules);
+    }
+
+    /**
+     * A rule in cents and parts per million; a rule without a threshold has {@link Long#MIN_VALUE}.
+     * It runs from {@code startsAt} inclusive to {@code endsAt} exclusive, {@link Instant#MIN} and
+     * {@link Instant#MAX} when open.
+     */
+    private record Rule(Role role, DiscountScope scope, long threshold, long rate, long amount,
+                        Instant startsAt, Instant endsAt) {
+
+        static Rule of(DiscountRule rule) {
+            String name = rule.getName();
+            if (rule.getScope() == null) {
+                throw invalid(name, "scope is required");
+            }
+            if (rule.getRate() == null && rule.getAmount() == null) {
+                throw invalid(name, "rate or amount is required");
+            }
+            long threshold = rule.getThreshold() == null ? Long.MIN_VALUE : cents(name, "threshold", rule.getThreshold());
+            long amount = rule.getAmount() == null ? 0 : cents(name, "amount", rule.getAmount());
+
+            long rate = 0;
+            if (rule.getRate() != null) {
+                try {
+                    rate = Money.toPartsPerMillion(rule.getRate());
+                } catch (ArithmeticException ex) {
+                    throw invalid(name, "rate must have at most 6 decimals");
+                }
+                if (rate < 0 || rate > 1_000_000) {
+                    throw invalid(name, "rate must be between 0 and 1");
+                }
+            }
+
+            Instant startsAt = rule.getStartsAt() == null ? Instant.MIN : rule.getStartsAt();
+            Instant endsAt = rule.getEndsAt() == null ? Instant.MAX : rule.getEndsAt();
+            if (!endsAt.isAfter(startsAt)) {
+                throw invalid(name, "end must be after start");
+            }
+            return new Rule(rule.getRole(), rule.getScope(), threshold, rate, amount, startsAt, endsAt);
+        }
+
+        boolean isPromotion() {
+            return !startsAt.equals(Instant.MIN) || !endsAt.equals(Instant.MAX);
+        }
+
+        boolean appliesTo(Role orderRole) {
+            return role == null || role == orderRole;
+        }
+
+        /** In millionths of a cent, for a subtotal or line total in cents. */
+        long discount(long total) {
+            if (total <= threshold) {
+                return 0;
+            }
+            return Math.addExact(Math.multiplyExact(total, rate), Math.multiplyExact(amount, Money.MILLIONTHS_PER_CENT));
+        }
+
+        private static long cents(String name, String field, BigDecimal value) {
+            long cents;
+            try {
+                cents = Money.toCents(value);
+            } catch (ArithmeticException ex) {
+                throw invalid(name, field + " must be whole cents");
+            }
+            if (cents < 0) {
+                throw invalid(name, field + " cannot be negative");
+            }
+            return cents;
+        }
+
+        private static IllegalArgumentException invalid(String name, String reason) {
+            return new IllegalArgumentException("Discount rule '" + name + "': " + reason);
+        }
+    }
+
+    /**
+     * The rules of one scope for one role by ascending threshold. {@code rates[k]} and
+     * {@code amounts[k]} are the sums over the first {@code k} rules, so the rules whose threshold
+     * a total is above are always a prefix.
+     */
+    private static final class Tiers {
+
+        private final long[] thresholds;
+        private final long[] rates;
+        private final long[] amounts;
+
+        private Tiers(long[] thresholds, long[] rates, long[] amounts) {
+            this.thresholds = thresholds;
+            this.rates = rates;
+            this.amounts = amounts;
+        }
+
+        static Tiers of(List<Rule> rules, DiscountScope scope, Role role) {
+            List<Rule> applicable = rules.stream()
+                    .filter(rule -> rule.scope() == scope && rule.appliesTo(role))
+                    .sorted(Comparator.comparingLong(Rule::threshold))
+                    .toList();
+
+            int n = applicable.size();
+            long[] thresholds = new long[n];
+            long[] rates = new long[n + 1];
+            long[] amounts = new long[n + 1];
+            for (int i = 0; i < n; i++) {
+                Rule rule = applicable.get(i);
+                thresholds[i] = rule.threshold();
+                rates[i + 1] = Math.addExact(rates[i], rule.rate());
+                amounts[i + 1] = Math.addExact(amounts[i], Math.multiplyExact(rule.amount(), Money.MILLIONTHS_PER_CENT));
+            }
+            return new Tiers(thresholds, rates, amounts);
+        }
+
+        int size() {
+            return thresholds.length;
+        }
+
+        /** In millionths of a cent, for a subtotal or line total in cents. */
+        long discount(long total) {
+            int applicable = countBelow(total);
+            if (applicable == 0) {
+                return 0;
+            }
+            return Math.addExact(Math.multiplyExact(total, rates[applicable]), amounts[applicable]);
+        }
+
+        /** How many thresholds are strictly below {@code total}. */
+        private int countBelow(long total) {
+            int low = 0;
+            int high = thresholds.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (thresholds[mid] < total) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * A centered interval tree of the promotions for one role. Each node keeps the promotions
+     * running at its center, sorted by start and by end; those that end by the center are on the
+     * left, those that start after it on the right. A lookup walks one path down, and at each node
+     * stops scanning at the first promotion that is not running, so it visits O(log n) nodes and
+     * only the promotions it applies.
+     */
+    private static final class Promotions {
+
+        private static final Promotions NONE = new Promotions(Instant.MIN, new Rule[0], new Rule[0], null, null);
+
+        private final Instant center;
+        private final Rule[] byStart;
+        private final Rule[] byEnd;
+        private final Promotions before;
+        private final Promotions after;
+
+        private Promotions(Instant center, Rule[] byStart, Rule[] byEnd, Promotions before, Promotions after) {
+            this.center = center;
+            this.byStart = byStart;
+            this.byEnd = byEnd;
+            this.before = before;
+            this.after = after;
+        }
+
+        static Promotions of(List<Rule> rules) {
+            Promotions tree = build(rules);
+            return tree == null ? NONE : tree;
+        }
+
+        /** The median start is the center, so its promotion is at the node and both sides shrink. */
+        private static Promotions build(List<Rule> rules) {
+            if (rules.isEmpty()) {
+                return null;
+            }
+            Instant center = rules.stream().map(Rule::startsAt).sorted().toList().get(rules.size() / 2);
+
+            List<Rule> ending = new ArrayList<>();
+            List<Rule> running = new ArrayList<>();
+            List<Rule> starting = new ArrayList<>();
+            for (Rule rule : rules) {
+                if (!rule.endsAt().isAfter(center)) {
+                    ending.add(rule);
+                } else if (rule.startsAt().isAfter(center)) {
+                    starting.add(rule);
+                } else {
+                    running.add(rule);
+                }
+            }
+            Rule[] byStart = running.stream().sorted(Comparator.comparing(Rule::startsAt)).toArray(Rule[]::new);
+            Rule[] byEnd = running.stream().sorted(Comparator.comparing(Rule::endsAt).reversed()).toArray(Rule[]::new);
+            return new Promotions(center, byStart, byEnd, build(ending), build(starting));
+        }
+
+        /** In millionths of a cent, for the promotions running at {@code at}. */
+        long discount(Instant at, long subtotal, long[] lineTotals) {
+            long discount = 0;
+            Promotions node = this;
+            while (node != null) {
+                if (at.isBefore(node.center)) {
+                    // Every promotion here ends after the center, so it runs if it has started.
+                    for (Rule rule : node.byStart) {
+                        if (rule.startsAt().isAfter(at)) {
+                            break;
+                        }
+                        discount = Math.addExact(discount, apply(rule, subtotal, lineTotals));
+                    }
+                    node = node.before;
+                } else {
+                    // Every promotion here started by the center, so it runs if it has not ended.
+                    for (Rule rule : node.byEnd) {
+                        if (!rule.endsAt().isAfter(at)) {
+                            break;
+                        }
+                        discount = Math.addExact(discount, apply(rule, subtotal, lineTotals));
+                    }
+                    node = node.after;
+                }
+            }
+            return discount;
+        }
+
+        private static long apply(Rule rule, long subtotal, long[] lineTotals) {
+            if (rule.scope() == DiscountScope.ORDER) {
+                return rule.discount(subtotal);
+            }
+            long discount = 0;
+            for (long lineTotal : lineTotals) {
+                discount = Math.addExact(discount, rule.discount(lineTotal));
+            }
+            return discount;
+        }
+    }
+}
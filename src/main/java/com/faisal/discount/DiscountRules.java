@@ -0,0 +1,71 @@
+package com.faisal.discount;
+
+import com.faisal.event.DiscountRulesChangedEvent;
+import com.faisal.repository.DiscountRuleRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+
+/**
+ * The {@link DiscountPlan} orders are priced with, compiled from the {@code discount_rules} table
+ * at startup and swapped for a new one in a single volatile write whenever the rules change, so an
+ * order is always priced by one complete rule set.
+ *
+ * <p>This node reloads right after an admin replaced the rules; other nodes pick the change up on
+ * their next refresh, every {@code app.discounts.refresh-interval}. Promotions that have ended are
+ * left out of the next plan; until then the plan skips them by the order's time. Rules that fail to
+ * compile are logged and the current plan is kept.
+ */
+@Slf4j
+@Component
+public class DiscountRules {
+
+    private final DiscountRuleRepository repository;
+
+    private volatile DiscountPlan plan = DiscountPlan.EMPTY;
+
+    public DiscountRules(DiscountRuleRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+
+        Gauge.builder("discounts.rules.active", this, rules -> rules.plan().size())
+                .description("Discount rules in the plan orders are priced with")
+                .register(meterRegistry);
+    }
+
+    public DiscountPlan plan() {
+        return plan;
+    }
+
+    @PostConstruct
+    void load() {
+        plan = DiscountPlan.compile(repository.findAllNotEndedBy(Instant.now()));
+        log.info("Discount rules loaded rules={}", plan.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.discounts.refresh-interval:30s}")
+    public void refresh() {
+        DiscountPlan next;
+        try {
+            next = DiscountPlan.compile(repository.findAllNotEndedBy(Instant.now()));
+        } catch (RuntimeException ex) {
+            log.error("Discount rules could not be reloaded, keeping the current {} rules", plan.size(), ex);
+            return;
+        }
+        if (!next.hasSameRules(plan)) {
+            plan = next;
+            log.info("Discount rules reloaded rules={}", next.size());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRulesChanged(DiscountRulesChangedEvent event) {
+        refresh();
+    }
+}
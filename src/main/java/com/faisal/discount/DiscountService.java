@@ -1,31 +1,34 @@
 package com.faisal.discount;
 
+import com.faisal.coupon.CouponTerms;
 import com.faisal.enums.Role;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.util.List;
+import java.time.Instant;
 
 @Service
 @RequiredArgsConstructor
 public class DiscountService {
 
-    private final List<DiscountHandler> handlers;
+    private final DiscountRules discountRules;
 
-    public BigDecimal totalDiscount(Role role, BigDecimal subtotal, List<BigDecimal> lineTotals) {
-        if (subtotal == null || subtotal.signum() <= 0) {
-            return BigDecimal.ZERO;
-        }
-
-        DiscountContext ctx = new DiscountContext(role, subtotal, lineTotals);
-
-        for (DiscountHandler handler : handlers) {
-            if (handler.handle(ctx) == DiscountChainResult.STOP) {
-                break;
-            }
-        }
+    /**
+     * Applies the current discount rules, and the promotions running at {@code at}, to an order in
+     * cents and returns its discount in millionths of a cent, unrounded and not capped at the
+     * subtotal; {@link com.faisal.pricing.OrderPricing} does both.
+     */
+    public long totalDiscount(Role role, Instant at, long subtotal, long[] lineTotals) {
+        return totalDiscount(role, at, null, subtotal, lineTotals);
+    }
 
-        return ctx.getDiscountTotal();
+    /**
+     * {@link #totalDiscount(Role, Instant, long, long[])} plus what a redeemed {@code coupon} takes
+     * off the subtotal, if there is one.
+     */
+    public long totalDiscount(Role role, Instant at, CouponTerms coupon, long subtotal, long[] lineTotals) {
+        long discount = discountRules.plan().discount(role, at, subtotal, lineTotals);
+        return coupon == null ? discount : Math.addExact(discount, coupon.discount(subtotal));
     }
-}
\ No newline at end of file
+
+}
@@ -0,0 +1,36 @@
+package com.faisal.dto;
+
+import com.faisal.exception.BadRequestException;
+import com.faisal.model.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated order listing: the creation time and id of the last order
+ * returned, newest first. Clients only ever see it as an opaque token.
+ */
+public record OrderCursor(Instant createdAt, Long id) {
+
+    private static final String SEPARATOR = "\n";
+
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getId());
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, createdAt.toString(), id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 2);
+            return new OrderCursor(Instant.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (RuntimeException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.faisal.dto;
+
+import com.faisal.exception.BadRequestException;
+import com.faisal.model.Product;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Position in a keyset-paginated product listing: the sort column, its direction, and the sort
+ * value and id of the last product returned. Clients only ever see it as an opaque token.
+ */
+public record ProductCursor(
+        String sortBy,
+        Sort.Direction direction,
+        Comparable<?> value,
+        Long id
+) {
+
+    /** Columns that can be keyset-paginated; each is NOT NULL and backed by a (column, id) index. */
+    public static final Set<String> SORTABLE = Set.of("id", "name", "price");
+
+    private static final String SEPARATOR = "\n";
+
+    public static ProductCursor after(Product product, String sortBy, Sort.Direction direction) {
+        Comparable<?> value = switch (sortBy) {
+            case "name" -> product.getName();
+            case "price" -> product.getPrice();
+            default -> product.getId();
+        };
+        return new ProductCursor(sortBy, direction, value, product.getId());
+    }
+
+    public String encode() {
+        String value = this.value instanceof BigDecimal decimal ? decimal.toPlainString() : this.value.toString();
+        String raw = String.join(SEPARATOR, sortBy, direction.name(), id.toString(), value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 4);
+            String sortBy = parts[0];
+            Sort.Direction direction = Sort.Direction.valueOf(parts[1]);
+            Long id = Long.valueOf(parts[2]);
+            Comparable<?> value = switch (sortBy) {
+                case "id" -> id;
+                case "name" -> parts[3];
+                case "price" -> new BigDecimal(parts[3]);
+                default -> throw new IllegalArgumentException(sortBy);
+            };
+            return new ProductCursor(sortBy, direction, value, id);
+        } catch (RuntimeException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
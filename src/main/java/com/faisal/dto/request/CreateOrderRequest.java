@@ -3,6 +3,7 @@ package com.faisal.dto.request;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 
 import java.util.List;
 
@@ -11,6 +12,14 @@ public record CreateOrderRequest(
         @NotEmpty(message = "Order must contain at least one item")
         @Valid
         @JsonProperty("items")
-        List<OrderItemRequest> items
+        List<OrderItemRequest> items,
 
-) {}
+        @Size(min = 1, max = 64, message = "Coupon code must be between 1 and 64 characters")
+        @JsonProperty("coupon_code")
+        String couponCode
+
+) {
+    public CreateOrderRequest(List<OrderItemRequest> items) {
+        this(items, null);
+    }
+}
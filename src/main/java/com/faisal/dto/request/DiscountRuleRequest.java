@@ -0,0 +1,45 @@
+package com.faisal.dto.request;
+
+import com.faisal.enums.DiscountScope;
+import com.faisal.enums.Role;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record DiscountRuleRequest(
+
+        @NotBlank(message = "name is required")
+        @JsonProperty("name")
+        String name,
+
+        @JsonProperty("role")
+        Role role,
+
+        @NotNull(message = "scope is required")
+        @JsonProperty("scope")
+        DiscountScope scope,
+
+        @PositiveOrZero(message = "threshold cannot be negative")
+        @Digits(integer = 17, fraction = 2, message = "threshold must be a valid monetary format (e.g., 500.00)")
+        @JsonProperty("threshold")
+        BigDecimal threshold,
+
+        @DecimalMin(value = "0", message = "rate cannot be negative")
+        @DecimalMax(value = "1", message = "rate cannot be above 1")
+        @Digits(integer = 1, fraction = 6, message = "rate must have at most 6 decimals (e.g., 0.05)")
+        @JsonProperty("rate")
+        BigDecimal rate,
+
+        @PositiveOrZero(message = "amount cannot be negative")
+        @Digits(integer = 17, fraction = 2, message = "amount must be a valid monetary format (e.g., 50.00)")
+        @JsonProperty("amount")
+        BigDecimal amount,
+
+        @JsonProperty("starts_at")
+        Instant startsAt,
+
+        @JsonProperty("ends_at")
+        Instant endsAt
+) {}
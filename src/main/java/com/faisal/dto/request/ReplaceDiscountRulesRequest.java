@@ -0,0 +1,16 @@
+package com.faisal.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record ReplaceDiscountRulesRequest(
+
+        @NotNull(message = "rules is required")
+        @Valid
+        @JsonProperty("rules")
+        List<DiscountRuleRequest> rules
+
+) {}
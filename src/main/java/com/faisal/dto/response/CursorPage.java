@@ -0,0 +1,19 @@
+package com.faisal.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record CursorPage<T>(
+
+        @JsonProperty("content")
+        List<T> content,
+
+        @JsonProperty("next_cursor")
+        String nextCursor,
+
+        @JsonProperty("total_elements")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Long totalElements
+) {}
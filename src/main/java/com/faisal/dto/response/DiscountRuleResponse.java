@@ -0,0 +1,38 @@
+package com.faisal.dto.response;
+
+import com.faisal.enums.DiscountScope;
+import com.faisal.enums.Role;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record DiscountRuleResponse(
+
+        @JsonProperty("id")
+        Long id,
+
+        @JsonProperty("name")
+        String name,
+
+        @JsonProperty("role")
+        Role role,
+
+        @JsonProperty("scope")
+        DiscountScope scope,
+
+        @JsonProperty("threshold")
+        BigDecimal threshold,
+
+        @JsonProperty("rate")
+        BigDecimal rate,
+
+        @JsonProperty("amount")
+        BigDecimal amount,
+
+        @JsonProperty("starts_at")
+        Instant startsAt,
+
+        @JsonProperty("ends_at")
+        Instant endsAt
+) {}
@@ -0,0 +1,19 @@
+package com.faisal.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record OrderQuoteResponse(
+
+        @JsonProperty("total")
+        BigDecimal total,
+
+        @JsonProperty("total_discount")
+        BigDecimal totalDiscount,
+
+        @JsonProperty("items")
+        List<OrderItemResponse> items
+) {
+}
@@ -0,0 +1,22 @@
+package com.faisal.dto.response;
+
+import com.faisal.enums.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record OrderStatusResponse(
+
+        @JsonProperty("token")
+        String token,
+
+        @JsonProperty("status")
+        OrderStatus status,
+
+        @JsonProperty("order")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        OrderResponse order,
+
+        @JsonProperty("error")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        String error
+) {}
@@ -0,0 +1,11 @@
+package com.faisal.enums;
+
+/**
+ * What a discount rule's threshold and rate apply to.
+ */
+public enum DiscountScope {
+    /** The order subtotal; the rule applies at most once per order. */
+    ORDER,
+    /** Each line total; the rule applies once per line above the threshold. */
+    LINE
+}
@@ -0,0 +1,7 @@
+package com.faisal.enums;
+
+public enum OrderStatus {
+    QUEUED,
+    PLACED,
+    FAILED
+}
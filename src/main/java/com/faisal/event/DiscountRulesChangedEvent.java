@@ -0,0 +1,7 @@
+package com.faisal.event;
+
+/**
+ * Published when an admin replaces the discount rules.
+ */
+public record DiscountRulesChangedEvent(int rules) {
+}
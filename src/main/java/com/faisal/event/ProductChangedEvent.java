@@ -0,0 +1,7 @@
+package com.faisal.event;
+
+/**
+ * Published when an admin changes or deletes a product.
+ */
+public record ProductChangedEvent(Long productId) {
+}
@@ -0,0 +1,10 @@
+package com.faisal.event;
+
+import java.util.Set;
+
+/**
+ * Products whose stock changed in the current transaction. One instance is published per
+ * transaction and {@code productIds} keeps growing until it commits.
+ */
+public record ProductStockChangedEvent(Set<Long> productIds) {
+}
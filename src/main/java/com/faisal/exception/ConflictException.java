@@ -0,0 +1,7 @@
+package com.faisal.exception;
+
+public class ConflictException extends BaseException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
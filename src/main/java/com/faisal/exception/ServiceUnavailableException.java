@@ -0,0 +1,7 @@
+package com.faisal.exception;
+
+public class ServiceUnavailableException extends BaseException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
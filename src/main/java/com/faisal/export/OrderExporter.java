@@ -0,0 +1,229 @@
+package com.faisal.export;
+
+import com.faisal.enums.ExportFormat;
+import com.faisal.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the orders placed in {@code [from, to)} and their items to a response, oldest first.
+ * Rows come from a forward-only cursor in a read-only transaction, {@code fetch-size} rows per
+ * round trip, and are written as soon as they are read: nothing is mapped to entities or
+ * collected, so memory use does not depend on the size of the range.
+ *
+ * <p>NDJSON writes one line per order with its items nested; CSV writes one line per item with
+ * the order columns repeated. Once the first bytes are out the status can no longer change, so
+ * a failure mid-export aborts the response and the client sees a truncated body.
+ */
+@Slf4j
+@Component
+public class OrderExporter {
+
+    static final String QUERY = """
+            select o.id, o.user_id, o.created_at, o.order_total,
+                   i.product_id, i.quantity, i.unit_price, i.discount_applied, i.total_price
+            from orders o
+            join order_item i on i.order_id = o.id
+            where o.created_at >= ? and o.created_at < ?
+            order by o.created_at, o.id
+            """;
+
+    static final String CSV_HEADER =
+            "order_id,user_id,created_at,order_total,product_id,quantity,unit_price,discount_applied,total_price\n";
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public OrderExporter(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${app.orders.export.fetch-size:1000}") int fetchSize
+    ) {
+        // PostgreSQL only keeps a server-side cursor open when a fetch size is set and autocommit is
+        // off, which the surrounding transaction takes care of; otherwise it loads the whole result.
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @throws BadRequestException if {@code from} is not before {@code to}
+     */
+    public StreamingResponseBody export(Instant from, Instant to, ExportFormat format) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+        return out -> write(from, to, format, out);
+    }
+
+    private void write(Instant from, Instant to, ExportFormat format, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        long[] rows = new long[1];
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(QUERY, rs -> {
+                try {
+                    writer.row(rs);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                rows[0]++;
+            }, Timestamp.from(from), Timestamp.from(to)));
+            writer.finish();
+        } catch (UncheckedIOException ex) {
+            log.warn("Order export aborted after {} rows: {}", rows[0], ex.getMessage());
+            throw ex.getCause();
+        }
+        log.info("Order export done format={}, from={}, to={}, rows={}, ms={}", format, from, to, rows[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private interface RowWriter {
+
+        void row(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    /** One line per item. Every column is a number or an ISO timestamp, so nothing needs quoting. */
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_BYTES);
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong(1)));
+            writer.write(',');
+            writer.write(text(rs.getObject(2)));
+            writer.write(',');
+            writer.write(text(instant(rs.getTimestamp(3))));
+            writer.write(',');
+            writer.write(decimal(rs.getBigDecimal(4)));
+            writer.write(',');
+            writer.write(text(rs.getObject(5)));
+            writer.write(',');
+            writer.write(text(rs.getObject(6)));
+            writer.write(',');
+            writer.write(decimal(rs.getBigDecimal(7)));
+            writer.write(',');
+            writer.write(decimal(rs.getBigDecimal(8)));
+            writer.write(',');
+            writer.write(decimal(rs.getBigDecimal(9)));
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String text(Object value) {
+            return value == null ? "" : value.toString();
+        }
+
+        private static String decimal(BigDecimal value) {
+            return value == null ? "" : value.toPlainString();
+        }
+    }
+
+    /**
+     * One line per order. The query returns an order's items on consecutive rows, so an order is
+     * closed when the next one starts and only the current order id is remembered.
+     */
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator json;
+        private long currentOrderId = -1;
+
+        private NdjsonRowWriter(OutputStream out) throws IOException {
+            this.json = objectMapper.getFactory().createGenerator(new BufferedOutputStream(out, BUFFER_BYTES));
+            // Lines are separated by hand below; the generator would otherwise add a space.
+            this.json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            long orderId = rs.getLong(1);
+            if (orderId != currentOrderId) {
+                endOrder();
+                currentOrderId = orderId;
+                json.writeStartObject();
+                json.writeNumberField("order_id", orderId);
+                writeLong("user_id", rs, 2);
+                Instant createdAt = instant(rs.getTimestamp(3));
+                json.writeStringField("created_at", createdAt == null ? null : createdAt.toString());
+                json.writeNumberField("total", rs.getBigDecimal(4));
+                json.writeArrayFieldStart("items");
+            }
+            json.writeStartObject();
+            writeLong("product_id", rs, 5);
+            writeLong("quantity", rs, 6);
+            json.writeNumberField("unit_price", rs.getBigDecimal(7));
+            json.writeNumberField("discount_applied", rs.getBigDecimal(8));
+            json.writeNumberField("total_price", rs.getBigDecimal(9));
+            json.writeEndObject();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            endOrder();
+            json.flush();
+        }
+
+        private void endOrder() throws IOException {
+            if (currentOrderId == -1) {
+                return;
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        private void writeLong(String field, ResultSet rs, int column) throws SQLException, IOException {
+            long value = rs.getLong(column);
+            if (rs.wasNull()) {
+                json.writeNullField(field);
+            } else {
+                json.writeNumberField(field, value);
+            }
+        }
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
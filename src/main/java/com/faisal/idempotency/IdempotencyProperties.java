@@ -0,0 +1,28 @@
+package com.faisal.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of {@code Idempotency-Key} handling, bound to {@code app.idempotency}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    /** How long a completed response is replayed for duplicates of its key. */
+    private Duration replayWindow = Duration.ofHours(24);
+
+    /** How long a claim survives without a result, e.g. when the node handling it dies. */
+    private Duration claimTtl = Duration.ofMinutes(1);
+
+    /** How long a duplicate waits for the in-flight request before it is answered with 409. */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    /** How often a waiting duplicate checks whether the in-flight request has finished. */
+    private Duration pollInterval = Duration.ofMillis(50);
+}
@@ -0,0 +1,192 @@
+package com.faisal.idempotency;
+
+import com.faisal.exception.BadRequestException;
+import com.faisal.exception.ConflictException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key}. The first request claims the key in
+ * Redis; duplicates arriving while it runs wait for its result, and duplicates arriving later get
+ * its status, {@code Location} and JSON body back byte for byte, marked with
+ * {@code Idempotent-Replayed: true}. Reusing a key for a different request body is rejected.
+ *
+ * <p>A request that throws releases its claim, so the client may retry with the same key. If the
+ * node dies after the action committed but before the response was stored, the claim expires
+ * after {@code claim-ttl} and a retry runs the action again.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotentRequests {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final String KEY_PREFIX = "idempotency:";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+
+    private final RedisScript<List> claimScript = script("idempotency-claim.lua", List.class);
+    private final RedisScript<Long> completeScript = script("idempotency-complete.lua", Long.class);
+    private final RedisScript<Long> releaseScript = script("idempotency-release.lua", Long.class);
+
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter conflicts;
+    private final Counter mismatches;
+
+    public IdempotentRequests(
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            IdempotencyProperties properties,
+            MeterRegistry meterRegistry
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+
+        this.executed = outcome(meterRegistry, "executed", "Requests that claimed their key and ran");
+        this.replayed = outcome(meterRegistry, "replayed", "Duplicates answered with the stored response");
+        this.conflicts = outcome(meterRegistry, "conflict", "Duplicates that gave up waiting for the first request");
+        this.mismatches = outcome(meterRegistry, "mismatch", "Keys reused for a different request body");
+    }
+
+    /**
+     * Runs {@code action} unless a request with the same {@code key} in {@code scope} already did,
+     * in which case its response is returned instead.
+     *
+     * @throws BadRequestException if the key is malformed or was used for a different request
+     * @throws ConflictException if the first request is still running after {@code wait-timeout}
+     */
+    public ResponseEntity<byte[]> execute(String scope, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String recordKey = KEY_PREFIX + scope + ":" + key;
+        String fingerprint = fingerprint(request);
+        String owner = UUID.randomUUID().toString();
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+
+        while (true) {
+            List<?> existing = redisTemplate.execute(claimScript, List.of(recordKey),
+                    fingerprint, owner, String.valueOf(properties.getClaimTtl().toMillis()));
+            if (existing == null || existing.isEmpty()) {
+                return run(recordKey, owner, action);
+            }
+            if (!fingerprint.equals(existing.get(1))) {
+                mismatches.increment();
+                throw new BadRequestException(HEADER + " was already used for a different request");
+            }
+            if ("done".equals(existing.get(0))) {
+                replayed.increment();
+                return response(Integer.parseInt((String) existing.get(2)), (String) existing.get(3),
+                        ((String) existing.get(4)).getBytes(StandardCharsets.UTF_8), true);
+            }
+            if (System.nanoTime() > deadline) {
+                conflicts.increment();
+                throw new ConflictException("A request with this " + HEADER + " is still in progress");
+            }
+            pause();
+        }
+    }
+
+    private ResponseEntity<byte[]> run(String recordKey, String owner, Supplier<ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            redisTemplate.execute(releaseScript, List.of(recordKey), owner);
+            throw ex;
+        }
+        executed.increment();
+
+        byte[] body = serialize(response.getBody());
+        URI location = response.getHeaders().getLocation();
+        String locationValue = location == null ? "" : location.toString();
+        Long stored = redisTemplate.execute(completeScript, List.of(recordKey),
+                owner,
+                String.valueOf(response.getStatusCode().value()),
+                locationValue,
+                new String(body, StandardCharsets.UTF_8),
+                String.valueOf(properties.getReplayWindow().toMillis()));
+        if (stored == null || stored == 0) {
+            log.warn("Idempotency claim {} expired before its response was stored", recordKey);
+        }
+        return response(response.getStatusCode().value(), locationValue, body, false);
+    }
+
+    private static ResponseEntity<byte[]> response(int status, String location, byte[] body, boolean replayed) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, String.valueOf(replayed));
+        if (location != null && !location.isEmpty()) {
+            builder.location(URI.create(location));
+        }
+        return builder.body(body);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.getPollInterval().toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("A request with this " + HEADER + " is still in progress");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(serialize(request)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), ex);
+        }
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome, String description) {
+        return Counter.builder("idempotency.requests")
+                .tag("outcome", outcome)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    private static <T> RedisScript<T> script(String name, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("redis/" + name));
+        script.setResultType(resultType);
+        return script;
+    }
+}
@@ -0,0 +1,323 @@
+package com.faisal.intake;
+
+import com.faisal.dto.AuthUser;
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.dto.response.OrderResponse;
+import com.faisal.dto.response.OrderStatusResponse;
+import com.faisal.enums.OrderStatus;
+import com.faisal.enums.Role;
+import com.faisal.exception.BaseException;
+import com.faisal.exception.ResourceNotFoundException;
+import com.faisal.exception.ServiceUnavailableException;
+import com.faisal.inventory.StockReserver;
+import com.faisal.service.OrderService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Async mode of {@code POST /orders}: the request is validated, queued and answered with 202 and a
+ * token, and writer threads place the queued orders in batches of up to {@code max-batch}, one
+ * transaction (and one commit flush) per batch.
+ *
+ * <p>An order that is rejected (unknown product, short stock) rolls the batch back; it is marked
+ * failed, the orders before it are placed again in their own transaction and the rest continue in
+ * the next one. Any other failure, such as a deadlock between two writers, rolls back the batch and
+ * its orders are retried in one transaction each. An order that fails with
+ * {@link ServiceUnavailableException} (stock or a coupon briefly busy in Redis) rolls the batch back
+ * the same way, but stays queued: it is put back in the queue after {@code retry-delay}, up to
+ * {@code max-retries} times, before it is marked failed.
+ *
+ * <p>The queue and the statuses live in this JVM: a token can only be polled on the node that
+ * accepted it, and orders still queued when the process is killed are lost. A graceful shutdown
+ * drains the queue first.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(OrderIntakeProperties.class)
+@ConditionalOnProperty(name = "app.orders.intake.mode", havingValue = "async")
+public class OrderIntake {
+
+    private static final long POLL_MILLIS = 200;
+
+    private final OrderService orderService;
+    private final OrderIntakeProperties properties;
+    private final TransactionTemplate batchTransaction;
+
+    private final BlockingQueue<QueuedOrder> queue;
+    private final Cache<String, TrackedOrder> statuses;
+    private final ExecutorService writers;
+    private final ScheduledExecutorService retryTimer;
+    private final AtomicInteger retriesWaiting = new AtomicInteger();
+    private volatile boolean running = true;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter retried;
+    private final DistributionSummary batchSize;
+
+    public OrderIntake(
+            OrderService orderService,
+            OrderIntakeProperties properties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry
+    ) {
+        this.orderService = orderService;
+        this.properties = properties;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getStatusTtl())
+                .build();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(properties.getWriters(),
+                runnable -> new Thread(runnable, "order-writer-" + threadNumber.incrementAndGet()));
+        this.retryTimer = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "order-retry"));
+
+        Gauge.builder("orders.intake.queue.size", queue, BlockingQueue::size)
+                .description("Orders accepted but not yet picked up by a writer")
+                .register(meterRegistry);
+        this.accepted = Counter.builder("orders.intake.accepted")
+                .description("Orders queued for the writers")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("orders.intake.rejected")
+                .description("Orders refused because the queue was full")
+                .register(meterRegistry);
+        this.retried = Counter.builder("orders.intake.retried")
+                .description("Orders queued again after a 503")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("orders.intake.batch.size")
+                .description("Orders placed per writer transaction")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < properties.getWriters(); i++) {
+            writers.submit(this::drain);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        // Retries already scheduled still run, and the writers wait for them.
+        retryTimer.shutdown();
+        writers.shutdown();
+        if (!writers.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Order writers did not drain the queue in time, dropping {} orders", queue.size() + retriesWaiting.get());
+            writers.shutdownNow();
+            retryTimer.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues an order for {@code user} and returns its {@link OrderStatus#QUEUED} status.
+     *
+     * @throws ServiceUnavailableException if the queue is full
+     */
+    public OrderStatusResponse submit(AuthUser user, List<OrderItemRequest> items, String couponCode) {
+        StockReserver.quantitiesByProduct(items);
+
+        String token = UUID.randomUUID().toString();
+        OrderStatusResponse queued = new OrderStatusResponse(token, OrderStatus.QUEUED, null, null);
+        // Tracked before it is queued, so a fast writer cannot finish before the QUEUED status is stored.
+        statuses.put(token, new TrackedOrder(user.userId(), queued));
+
+        if (!running || !queue.offer(new QueuedOrder(token, user, List.copyOf(items), couponCode, 0))) {
+            statuses.invalidate(token);
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many orders in progress, please retry shortly");
+        }
+        accepted.increment();
+        return queued;
+    }
+
+    /**
+     * Status of an order queued by {@code user}. Admins may read any order's status.
+     */
+    public OrderStatusResponse status(String token, AuthUser user) {
+        TrackedOrder tracked = statuses.getIfPresent(token);
+        if (tracked == null || (!tracked.userId().equals(user.userId()) && user.role() != Role.ADMIN)) {
+            throw new ResourceNotFoundException("Order " + token + " not found");
+        }
+        return tracked.status();
+    }
+
+    private void drain() {
+        List<QueuedOrder> batch = new ArrayList<>(properties.getMaxBatch());
+        while (running || !queue.isEmpty() || retriesWaiting.get() > 0) {
+            try {
+                QueuedOrder first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getMaxBatch() - 1);
+                write(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Order writer failed on a batch of {} orders", batch.size(), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<QueuedOrder> batch) {
+        batchSize.record(batch.size());
+
+        Map<QueuedOrder, OrderStatusResponse> results = new LinkedHashMap<>();
+        Deque<List<QueuedOrder>> segments = new ArrayDeque<>();
+        segments.push(batch);
+        while (!segments.isEmpty()) {
+            List<QueuedOrder> segment = segments.pop();
+            Rejection rejection;
+            try {
+                rejection = placeAll(segment, results);
+            } catch (RuntimeException ex) {
+                log.warn("Order batch of {} rolled back, placing its orders one by one: {}", segment.size(), ex.getMessage());
+                segment.forEach(order -> placeAlone(order, results));
+                continue;
+            }
+            if (rejection == null) {
+                continue;
+            }
+            QueuedOrder rejected = segment.get(rejection.index());
+            if (!rejection.retryable() || !retryLater(rejected)) {
+                results.put(rejected, failed(rejected, rejection.error()));
+            }
+            // The orders before the rejected one were placed fine and are retried on their own, then the rest follow.
+            if (rejection.index() + 1 < segment.size()) {
+                segments.push(segment.subList(rejection.index() + 1, segment.size()));
+            }
+            if (rejection.index() > 0) {
+                segments.push(segment.subList(0, rejection.index()));
+            }
+        }
+
+        results.forEach((order, status) -> statuses.put(order.token(), new TrackedOrder(order.user().userId(), status)));
+        log.info("Order batch written size={}, failed={}", batch.size(),
+                results.values().stream().filter(status -> status.status() == OrderStatus.FAILED).count());
+    }
+
+    /**
+     * Places {@code segment} in one transaction. If an order is rejected, or fails with 503, the
+     * transaction is rolled back and its position returned; otherwise the placed orders are added
+     * to {@code results}.
+     */
+    private Rejection placeAll(List<QueuedOrder> segment, Map<QueuedOrder, OrderStatusResponse> results) {
+        Map<QueuedOrder, OrderStatusResponse> placed = new LinkedHashMap<>();
+        Rejection rejection = batchTransaction.execute(status -> {
+            for (int i = 0; i < segment.size(); i++) {
+                QueuedOrder order = segment.get(i);
+                try {
+                    placed.put(order, placed(order, orderService.placeOrder(order.user(), order.items(), order.couponCode())));
+                } catch (BaseException ex) {
+                    status.setRollbackOnly();
+                    return new Rejection(i, ex.getMessage(), ex instanceof ServiceUnavailableException);
+                }
+            }
+            return null;
+        });
+        if (rejection == null) {
+            results.putAll(placed);
+        }
+        return rejection;
+    }
+
+    /** Places {@code order} in its own transaction and adds its outcome to {@code results}, unless it is retried later. */
+    private void placeAlone(QueuedOrder order, Map<QueuedOrder, OrderStatusResponse> results) {
+        try {
+            results.put(order, placed(order, orderService.placeOrder(order.user(), order.items(), order.couponCode())));
+        } catch (ServiceUnavailableException ex) {
+            if (!retryLater(order)) {
+                results.put(order, failed(order, ex.getMessage()));
+            }
+        } catch (BaseException ex) {
+            results.put(order, failed(order, ex.getMessage()));
+        } catch (RuntimeException ex) {
+            log.error("Queued order {} could not be placed", order.token(), ex);
+            results.put(order, failed(order, "Order could not be placed"));
+        }
+    }
+
+    /**
+     * Puts {@code order} back in the queue after {@code retry-delay}; it keeps its
+     * {@link OrderStatus#QUEUED} status meanwhile.
+     *
+     * @return false if it has no retries left, so it should be marked failed
+     */
+    private boolean retryLater(QueuedOrder order) {
+        if (order.attempt() >= properties.getMaxRetries()) {
+            return false;
+        }
+        QueuedOrder next = new QueuedOrder(order.token(), order.user(), order.items(), order.couponCode(), order.attempt() + 1);
+        retriesWaiting.incrementAndGet();
+        try {
+            retryTimer.schedule(() -> requeue(next), properties.getRetryDelay().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // Shutting down: queue it right away so the writers still place it.
+            requeue(next);
+        }
+        retried.increment();
+        log.info("Queued order {} hit a busy ledger, retry {} of {}", order.token(), next.attempt(), properties.getMaxRetries());
+        return true;
+    }
+
+    private void requeue(QueuedOrder order) {
+        try {
+            if (!queue.offer(order)) {
+                statuses.put(order.token(), new TrackedOrder(order.user().userId(),
+                        failed(order, "Too many orders in progress, please retry shortly")));
+            }
+        } finally {
+            retriesWaiting.decrementAndGet();
+        }
+    }
+
+    private static OrderStatusResponse placed(QueuedOrder order, OrderResponse response) {
+        return new OrderStatusResponse(order.token(), OrderStatus.PLACED, response, null);
+    }
+
+    private static OrderStatusResponse failed(QueuedOrder order, String error) {
+        return new OrderStatusResponse(order.token(), OrderStatus.FAILED, null, error);
+    }
+
+    private record QueuedOrder(String token, AuthUser user, List<OrderItemRequest> items, String couponCode, int attempt) {}
+
+    private record TrackedOrder(Long userId, OrderStatusResponse status) {}
+
+    private record Rejection(int index, String error, boolean retryable) {}
+}
@@ -0,0 +1,41 @@
+package com.faisal.intake;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the async order intake, bound to {@code app.orders.intake}. The intake itself is
+ * switched on with {@code app.orders.intake.mode=async}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.orders.intake")
+public class OrderIntakeProperties {
+
+    /** Orders waiting for a writer; submissions beyond this are refused with 503. */
+    private int queueCapacity = 10_000;
+
+    /** Writer threads, each committing its own batches. */
+    private int writers = 2;
+
+    /** Most orders a writer places in one transaction. */
+    private int maxBatch = 100;
+
+    /**
+     * Times an order that failed with 503 (stock or a coupon briefly busy in Redis) is queued again
+     * before it is marked failed.
+     */
+    private int maxRetries = 3;
+
+    /** How long such an order waits before it is queued again. */
+    private Duration retryDelay = Duration.ofSeconds(1);
+
+    /** How long the outcome of an order can be polled after it last changed. */
+    private Duration statusTtl = Duration.ofMinutes(10);
+
+    /** How long shutdown waits for the writers to drain the queue. */
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,27 @@
+package com.faisal.inventory;
+
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Default mode: stock lives in {@code products.quantity} and is taken with a conditional UPDATE.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.inventory.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseStockReserver implements StockReserver {
+
+    private final ProductService productService;
+
+    @Override
+    public Map<Long, BigDecimal> reserve(List<OrderItemRequest> items) {
+        return productService.reserveStock(items);
+    }
+}
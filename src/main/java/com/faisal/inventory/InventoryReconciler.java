@@ -0,0 +1,169 @@
+package com.faisal.inventory;
+
+import com.faisal.cache.ProductCacheInvalidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the units reserved in {@link RedisInventoryLedger} back to {@code products.quantity}
+ * in one JDBC batch per run, then measures how far Redis and Postgres disagree for the
+ * products it just touched.
+ *
+ * <p>Every node runs the reconciler, so a run leases the batch it drains for
+ * {@code app.inventory.reconcile-lease}, and runs on other nodes skip it until it is completed
+ * or the lease expires. The batch is written in a transaction that times out after half the
+ * lease, so a slow run rolls back before another can take the batch over. A batch that fails to
+ * commit is retried on the next run. The batch id is recorded in {@code ledger_batches} in the
+ * same transaction, so a batch drained again after a crash, or a pause longer than the rest of
+ * the lease, between the Postgres commit and
+ * {@link RedisInventoryLedger#completeReconciliation(String)} is only completed, not applied twice.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.inventory.mode", havingValue = "redis")
+public class InventoryReconciler {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET quantity = quantity - ?, updated_at = ? WHERE id = ?";
+    private static final String RECORD_BATCH_SQL =
+            "INSERT INTO ledger_batches (batch_id, ledger, applied_at) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String PRUNE_BATCHES_SQL =
+            "DELETE FROM ledger_batches WHERE ledger = ? AND batch_id <> ?";
+
+    private final RedisInventoryLedger ledger;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final Duration lease;
+
+    private final AtomicLong driftUnits = new AtomicLong();
+    private final AtomicLong driftProducts = new AtomicLong();
+    private final Counter reconciledUnits;
+
+    public InventoryReconciler(
+            RedisInventoryLedger ledger,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ProductCacheInvalidator productCacheInvalidator,
+            MeterRegistry meterRegistry,
+            @Value("${app.inventory.reconcile-lease:1m}") Duration lease
+    ) {
+        this.ledger = ledger;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setTimeout((int) Math.max(1, lease.toSeconds() / 2));
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.lease = lease;
+
+        Gauge.builder("inventory.ledger.drift.units", driftUnits, AtomicLong::get)
+                .description("Sum of |Postgres quantity - ledger quantity| over the last reconciled products")
+                .register(meterRegistry);
+        Gauge.builder("inventory.ledger.drift.products", driftProducts, AtomicLong::get)
+                .description("Number of products whose Postgres quantity disagrees with the ledger")
+                .register(meterRegistry);
+        this.reconciledUnits = Counter.builder("inventory.ledger.reconciled.units")
+                .description("Units written back from the ledger to Postgres")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.reconcile-interval:5s}")
+    public void reconcile() {
+        String runId = UUID.randomUUID().toString();
+        RedisInventoryLedger.PendingBatch drained = ledger.drainPending(runId, lease);
+        if (drained.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> pending = drained.units();
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> batch = new ArrayList<>(pending.size());
+        long units = 0;
+        for (Map.Entry<Long, Long> entry : pending.entrySet()) {
+            if (entry.getValue() != 0) {
+                batch.add(new Object[]{entry.getValue(), now, entry.getKey()});
+                units += entry.getValue();
+            }
+        }
+
+        boolean applied;
+        try {
+            applied = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update(RECORD_BATCH_SQL, drained.id(), RedisInventoryLedger.LEDGER_NAME, now) == 0) {
+                    return false;
+                }
+                jdbcTemplate.update(PRUNE_BATCHES_SQL, RedisInventoryLedger.LEDGER_NAME, drained.id());
+                jdbcTemplate.batchUpdate(DECREMENT_SQL, batch);
+                productCacheInvalidator.stockChanged(pending.keySet());
+                return true;
+            }));
+        } catch (RuntimeException ex) {
+            ledger.abandonReconciliation(runId);
+            throw ex;
+        }
+        if (!ledger.completeReconciliation(runId)) {
+            log.warn("Reconciliation lease expired before batch {} was completed, the next run completes it", drained.id());
+            return;
+        }
+        if (!applied) {
+            log.info("Completed batch {} that Postgres had already applied", drained.id());
+            return;
+        }
+        reconciledUnits.increment(units);
+
+        log.info("Reconciled ledger into Postgres products={}, units={}", batch.size(), units);
+        measureDrift(pending);
+    }
+
+    private void measureDrift(Map<Long, Long> reconciled) {
+        Map<Long, Long> expected = ledger.expectedQuantities(reconciled.keySet());
+        if (expected.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> actual = new HashMap<>();
+        namedJdbcTemplate.query(
+                "SELECT id, quantity FROM products WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", expected.keySet()),
+                rs -> {
+                    actual.put(rs.getLong("id"), rs.getLong("quantity"));
+                });
+
+        long units = 0;
+        long products = 0;
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            long diff = Math.abs(actual.getOrDefault(entry.getKey(), 0L) - entry.getValue());
+            if (diff != 0) {
+                units += diff;
+                products++;
+            }
+        }
+        driftUnits.set(units);
+        driftProducts.set(products);
+
+        if (products > 0) {
+            log.warn("Inventory drift between Redis and Postgres products={}, units={}", products, units);
+        }
+    }
+}
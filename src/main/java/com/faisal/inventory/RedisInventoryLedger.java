@@ -0,0 +1,284 @@
+package com.faisal.inventory;
+
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.event.ProductChangedEvent;
+import com.faisal.exception.BadRequestException;
+import com.faisal.exception.ResourceNotFoundException;
+import com.faisal.exception.ServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.UUID;
+
+/**
+ * Redis mode: per-product stock is mirrored into Redis hashes and reserved with one Lua script
+ * per order, so hot SKUs no longer contend on the {@code products} row. Reserved units are
+ * recorded in a pending hash that {@link InventoryReconciler} writes back to Postgres in batches.
+ *
+ * <p>All keys share the {@code {inventory}} hash tag so the scripts stay valid on Redis Cluster.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.inventory.mode", havingValue = "redis")
+public class RedisInventoryLedger implements StockReserver {
+
+    static final String PRODUCT_PREFIX = "{inventory}:product:";
+    static final String PENDING_KEY = "{inventory}:pending";
+    static final String RECONCILING_KEY = "{inventory}:reconciling";
+    static final String LEASE_KEY = "{inventory}:reconciling:lease";
+    static final String BATCH_KEY = "{inventory}:reconciling:batch";
+    static final String EPOCH_KEY = "{inventory}:epoch";
+
+    /** Name of this ledger in {@code ledger_batches}. */
+    static final String LEDGER_NAME = "inventory";
+
+    private static final int MAX_SEED_ATTEMPTS = 3;
+
+    /*
+     * One statement, so the quantities and whether the batch is already in them come from the
+     * same snapshot.
+     */
+    private static final String SEED_SQL = """
+            SELECT id, quantity, price,
+                   EXISTS (SELECT 1 FROM ledger_batches WHERE batch_id = :batch) AS applied
+            FROM products
+            WHERE id IN (:ids) AND deleted = false
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final RedisScript<List> reserveScript = script("inventory-reserve.lua", List.class);
+    private final RedisScript<Long> releaseScript = script("inventory-release.lua", Long.class);
+    private final RedisScript<Long> seedScript = script("inventory-seed.lua", Long.class);
+    private final RedisScript<List> drainScript = script("inventory-drain.lua", List.class);
+    private final RedisScript<Long> completeScript = script("inventory-complete.lua", Long.class);
+    private final RedisScript<Long> releaseLeaseScript = script("lease-release.lua", Long.class);
+    private final RedisScript<List> expectedScript = script("inventory-expected.lua", List.class);
+
+    public RedisInventoryLedger(StringRedisTemplate redisTemplate, JdbcTemplate jdbcTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public Map<Long, BigDecimal> reserve(List<OrderItemRequest> items) {
+        SortedMap<Long, Integer> quantities = StockReserver.quantitiesByProduct(items);
+
+        List<?> result = runReserve(quantities);
+        if ("MISSING".equals(result.get(0))) {
+            if (!seed(ids(result))) {
+                throw new ServiceUnavailableException("Stock is being reconciled, please retry shortly");
+            }
+            result = runReserve(quantities);
+        }
+
+        String status = (String) result.get(0);
+        if ("MISSING".equals(status)) {
+            throw new ResourceNotFoundException("Products with IDs " + ids(result) + " not found");
+        }
+        if ("SHORT".equals(status)) {
+            throw new BadRequestException("Insufficient stock for products: " + ids(result));
+        }
+
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        int i = 1;
+        for (Long productId : quantities.keySet()) {
+            prices.put(productId, new BigDecimal((String) result.get(i++)));
+        }
+
+        releaseOnRollback(quantities);
+        log.info("Reserved stock in ledger for {} products, lines={}", quantities.size(), items.size());
+        return prices;
+    }
+
+    /**
+     * Drops the ledger entry of a product an admin changed, so the next reservation reloads it.
+     * Units reserved before the change stay pending and are still written back.
+     */
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        redisTemplate.delete(PRODUCT_PREFIX + event.productId());
+    }
+
+    /**
+     * Returns the batch of reserved units awaiting reconciliation and leases it to run
+     * {@code runId} for {@code lease}. While another run holds the lease the batch is empty.
+     * Until {@link #completeReconciliation(String)} is called the same batch, with the same id,
+     * is returned again.
+     */
+    PendingBatch drainPending(String runId, Duration lease) {
+        List<?> flat = redisTemplate.execute(drainScript,
+                List.of(PENDING_KEY, RECONCILING_KEY, LEASE_KEY, BATCH_KEY),
+                runId, Long.toString(lease.toMillis()), UUID.randomUUID().toString());
+        Map<Long, Long> units = new LinkedHashMap<>();
+        if (flat == null || flat.isEmpty()) {
+            return new PendingBatch(null, units);
+        }
+        for (int i = 1; i + 1 < flat.size(); i += 2) {
+            units.put(Long.valueOf((String) flat.get(i)), Long.valueOf((String) flat.get(i + 1)));
+        }
+        return new PendingBatch((String) flat.get(0), units);
+    }
+
+    /**
+     * Drops the batch run {@code runId} has written.
+     *
+     * @return false if the run's lease expired first, so another run may write the batch again
+     */
+    boolean completeReconciliation(String runId) {
+        Long epoch = redisTemplate.execute(completeScript,
+                List.of(RECONCILING_KEY, EPOCH_KEY, LEASE_KEY, BATCH_KEY), runId);
+        return epoch != null && epoch > 0;
+    }
+
+    /** Gives up the lease of run {@code runId}, whose batch failed, so the next run retries it. */
+    void abandonReconciliation(String runId) {
+        redisTemplate.execute(releaseLeaseScript, List.of(LEASE_KEY), runId);
+    }
+
+    /**
+     * Quantity Postgres should hold per product once everything in flight is reconciled.
+     * Products that are not in the ledger are left out.
+     */
+    Map<Long, Long> expectedQuantities(Collection<Long> productIds) {
+        List<String> keys = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        for (Long productId : productIds) {
+            keys.add(PRODUCT_PREFIX + productId);
+            args.add(productId.toString());
+        }
+        keys.add(PENDING_KEY);
+        keys.add(RECONCILING_KEY);
+
+        List<?> values = redisTemplate.execute(expectedScript, keys, args.toArray());
+        Map<Long, Long> expected = new HashMap<>();
+        int i = 0;
+        for (Long productId : productIds) {
+            Object value = values == null ? null : values.get(i);
+            if (value != null) {
+                expected.put(productId, Long.valueOf((String) value));
+            }
+            i++;
+        }
+        return expected;
+    }
+
+    private List<?> runReserve(SortedMap<Long, Integer> quantities) {
+        return redisTemplate.execute(reserveScript, lineKeys(quantities), lineArgs(quantities));
+    }
+
+    private void release(SortedMap<Long, Integer> quantities) {
+        redisTemplate.execute(releaseScript, lineKeys(quantities), lineArgs(quantities));
+        log.info("Released ledger reservation for products {}", quantities.keySet());
+    }
+
+    private void releaseOnRollback(SortedMap<Long, Integer> quantities) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(quantities);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns false if every attempt raced a reconciliation, leaving some products unloaded.
+     * Units of the batch being reconciled are only subtracted from the committed quantity if
+     * Postgres has not applied that batch yet.
+     */
+    private boolean seed(List<Long> productIds) {
+        for (int attempt = 1; attempt <= MAX_SEED_ATTEMPTS; attempt++) {
+            List<String> state = redisTemplate.opsForValue().multiGet(List.of(EPOCH_KEY, BATCH_KEY));
+            String epoch = state == null || state.get(0) == null ? "0" : state.get(0);
+            String batchId = state == null || state.get(1) == null ? "" : state.get(1);
+            List<StockRow> rows = jdbcTemplate.query(SEED_SQL,
+                    new MapSqlParameterSource("ids", productIds).addValue("batch", batchId),
+                    (rs, rowNum) -> new StockRow(rs.getLong("id"), rs.getLong("quantity"),
+                            rs.getBigDecimal("price"), rs.getBoolean("applied")));
+
+            boolean retry = false;
+            for (StockRow row : rows) {
+                Long seeded = redisTemplate.execute(seedScript,
+                        List.of(PRODUCT_PREFIX + row.id(), PENDING_KEY, RECONCILING_KEY, EPOCH_KEY, BATCH_KEY),
+                        Long.toString(row.id()),
+                        Long.toString(row.quantity()),
+                        row.price().toPlainString(),
+                        epoch,
+                        batchId,
+                        row.batchApplied() ? "1" : "0");
+                retry |= seeded != null && seeded < 0;
+            }
+            if (!retry) {
+                return true;
+            }
+        }
+        log.warn("Could not seed ledger for products {} after {} attempts", productIds, MAX_SEED_ATTEMPTS);
+        return false;
+    }
+
+    /** Reserved units per product id awaiting reconciliation, under the id of their batch. */
+    record PendingBatch(String id, Map<Long, Long> units) {
+
+        boolean isEmpty() {
+            return units.isEmpty();
+        }
+    }
+
+    private record StockRow(long id, long quantity, BigDecimal price, boolean batchApplied) {
+    }
+
+    private static List<String> lineKeys(SortedMap<Long, Integer> quantities) {
+        List<String> keys = new ArrayList<>(quantities.size() + 1);
+        for (Long productId : quantities.keySet()) {
+            keys.add(PRODUCT_PREFIX + productId);
+        }
+        keys.add(PENDING_KEY);
+        return keys;
+    }
+
+    private static Object[] lineArgs(SortedMap<Long, Integer> quantities) {
+        List<String> args = new ArrayList<>(quantities.size() * 2);
+        quantities.values().forEach(q -> args.add(q.toString()));
+        quantities.keySet().forEach(id -> args.add(id.toString()));
+        return args.toArray();
+    }
+
+    private static List<Long> ids(List<?> result) {
+        return result.subList(1, result.size()).stream()
+                .map(id -> Long.valueOf((String) id))
+                .toList();
+    }
+
+    private static <T> RedisScript<T> script(String name, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("redis/" + name));
+        script.setResultType(resultType);
+        return script;
+    }
+}
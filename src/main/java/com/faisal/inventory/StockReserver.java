@@ -0,0 +1,33 @@
+package com.faisal.inventory;
+
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.exception.BadRequestException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Takes stock for every line of an order and returns the official unit price per product id.
+ * Either all lines are reserved or none are.
+ */
+public interface StockReserver {
+
+    Map<Long, BigDecimal> reserve(List<OrderItemRequest> items);
+
+    /**
+     * Merges duplicate product lines and orders them by product id.
+     */
+    static SortedMap<Long, Integer> quantitiesByProduct(List<OrderItemRequest> items) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItemRequest item : items) {
+            if (item.quantity() == null || item.quantity() <= 0) {
+                throw new BadRequestException("Quantity must be at least 1");
+            }
+            quantities.merge(item.productId(), item.quantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
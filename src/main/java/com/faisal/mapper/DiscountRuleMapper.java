@@ -0,0 +1,15 @@
+package com.faisal.mapper;
+
+import com.faisal.dto.request.DiscountRuleRequest;
+import com.faisal.dto.response.DiscountRuleResponse;
+import com.faisal.model.DiscountRule;
+import org.mapstruct.*;
+
+@Mapper(componentModel = "spring")
+public interface DiscountRuleMapper {
+
+    DiscountRuleResponse toResponse(DiscountRule rule);
+
+    @Mapping(target = "id", ignore = true)
+    DiscountRule fromRequest(DiscountRuleRequest request);
+}
@@ -14,6 +14,7 @@ public interface OrderMapper {
 
     @Mapping(target = "orderId", source = "id")
     @Mapping(target = "total", source = "orderTotal")
+    @Mapping(target = "totalDiscount", expression = "java(totalDiscount(order))")
     OrderResponse toResponse(Order order);
 
     OrderItemResponse toItemResponse(OrderItem item);
@@ -28,4 +29,11 @@ public interface OrderMapper {
                 order.getItems().stream().map(this::toItemResponse).toList()
         );
     }
-}
\ No newline at end of file
+
+    /** Orders do not store the discount they were placed with; it is the sum of their lines' discounts. */
+    default BigDecimal totalDiscount(Order order) {
+        return order.getItems().stream()
+                .map(OrderItem::getDiscountApplied)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
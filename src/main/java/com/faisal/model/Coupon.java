@@ -0,0 +1,45 @@
+package com.faisal.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A code that takes {@code rate} of the subtotal, {@code amount} off, or both, from an order
+ * placed from {@code startsAt} up to {@code endsAt}, at most {@code maxRedemptions} times in
+ * total. The redemptions left are counted in Redis by {@link com.faisal.coupon.CouponLedger}.
+ */
+@Entity
+@Table(name = "coupons")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Coupon {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "code", nullable = false, unique = true, length = 64)
+    private String code;
+
+    @Column(name = "rate", precision = 9, scale = 6)
+    private BigDecimal rate;
+
+    @Column(name = "amount", precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "max_redemptions")
+    private Integer maxRedemptions;
+
+    @Column(name = "starts_at")
+    private Instant startsAt;
+
+    @Column(name = "ends_at")
+    private Instant endsAt;
+}
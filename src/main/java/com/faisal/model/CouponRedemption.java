@@ -0,0 +1,37 @@
+package com.faisal.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A coupon used on an order. Rows are written in batches by
+ * {@link com.faisal.coupon.CouponRedemptionWriter} some time after the order commits.
+ */
+@Entity
+@Table(name = "coupon_redemptions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CouponRedemption {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "coupon_id", nullable = false)
+    private Long couponId;
+
+    @Column(name = "order_id", nullable = false, unique = true)
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "redeemed_at", nullable = false)
+    private Instant redeemedAt;
+}
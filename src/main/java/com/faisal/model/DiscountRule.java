@@ -0,0 +1,56 @@
+package com.faisal.model;
+
+import com.faisal.enums.DiscountScope;
+import com.faisal.enums.Role;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A discount given on every order, or every order line, above {@code threshold}: {@code rate} of
+ * the subtotal or line total, {@code amount} off, or both. Rules without a role apply to every
+ * customer, and all rules that apply to an order add up. A rule with {@code startsAt} or
+ * {@code endsAt} is a promotion and only applies to orders placed from its start up to its end.
+ */
+@Entity
+@Table(name = "discount_rules")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiscountRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "role", length = 50)
+    private Role role;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", nullable = false, length = 20)
+    private DiscountScope scope;
+
+    @Column(name = "threshold", precision = 19, scale = 2)
+    private BigDecimal threshold;
+
+    @Column(name = "rate", precision = 9, scale = 6)
+    private BigDecimal rate;
+
+    @Column(name = "amount", precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "starts_at")
+    private Instant startsAt;
+
+    @Column(name = "ends_at")
+    private Instant endsAt;
+}
@@ -0,0 +1,32 @@
+package com.faisal.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A batch written back to Postgres from a Redis ledger. Rows are written with JDBC by
+ * {@link com.faisal.inventory.InventoryReconciler} and
+ * {@link com.faisal.coupon.CouponRedemptionWriter} in the batch's own transaction, so a batch
+ * drained again after it committed is recognised and skipped.
+ */
+@Entity
+@Table(name = "ledger_batches")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerBatch {
+
+    @Id
+    @Column(name = "batch_id", length = 36)
+    private String batchId;
+
+    @Column(name = "ledger", nullable = false, length = 32)
+    private String ledger;
+
+    @Column(name = "applied_at", nullable = false)
+    private Instant appliedAt;
+}
@@ -2,9 +2,11 @@ package com.faisal.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Entity
@@ -17,7 +19,8 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -31,11 +34,15 @@ public class Order {
     private Instant createdAt;
 
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "order_id", nullable = false)
+    @JoinColumn(name = "order_id", nullable = false, updatable = false)
+    @BatchSize(size = 100)
     private List<OrderItem> items;
 
     @PrePersist
     void onCreate() {
-        this.createdAt = Instant.now();
+        // The column's precision, so a cursor built from this entity matches the stored row.
+        if (createdAt == null) {
+            this.createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.faisal.pricing;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversions between {@link BigDecimal} amounts, used at the persistence and API boundary, and
+ * the {@code long} cents the pricing code works in. Discounts are worked out in millionths of a
+ * cent, so a rate with up to six decimals times an amount in cents is exact and is only rounded
+ * once, to whole cents, at the end.
+ */
+public final class Money {
+
+    public static final long MILLIONTHS_PER_CENT = 1_000_000L;
+
+    private Money() {}
+
+    /**
+     * @throws ArithmeticException if {@code amount} has fractions of a cent or does not fit in a long
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * A rate such as {@code 0.05} in millionths, so {@code 0.05} becomes {@code 50_000}.
+     *
+     * @throws ArithmeticException if {@code rate} has more than six decimals
+     */
+    public static long toPartsPerMillion(BigDecimal rate) {
+        return rate.movePointRight(6).longValueExact();
+    }
+
+    /** Millionths of a cent rounded half up to whole cents. */
+    public static long roundToCents(long millionths) {
+        return Math.floorDiv(millionths + MILLIONTHS_PER_CENT / 2, MILLIONTHS_PER_CENT);
+    }
+
+    public static BigDecimal fromMillionthsOfCent(long millionths) {
+        return BigDecimal.valueOf(millionths, 8);
+    }
+}
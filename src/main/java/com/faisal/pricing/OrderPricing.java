@@ -0,0 +1,100 @@
+package com.faisal.pricing;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Prices an order in {@code long} cents: every line total is computed once, the discount is
+ * worked out for the subtotal, capped at it and rounded half up to cents, and then split over the
+ * lines in proportion to their totals.
+ *
+ * <p>The split gives each line the whole cents of its exact share of the unrounded discount and
+ * hands out the cents left over one at a time, to the lines with the largest remainders first and
+ * to earlier lines on a tie (largest remainder method). The line discounts therefore always add
+ * up to the order discount, and the same order is always split the same way. Where rounding each
+ * line's share half up on its own would also add up, both give the same lines.
+ */
+public final class OrderPricing {
+
+    private OrderPricing() {}
+
+    /** The discount for an order, in millionths of a cent. */
+    @FunctionalInterface
+    public interface Discount {
+        long total(long subtotal, long[] lineTotals);
+    }
+
+    /**
+     * @throws ArithmeticException if a line total or the subtotal does not fit in a long
+     */
+    public static PricedOrder price(long[] unitPrices, int[] quantities, Discount discount) {
+        int lines = unitPrices.length;
+        long[] lineTotals = new long[lines];
+        long subtotal = 0;
+        for (int i = 0; i < lines; i++) {
+            lineTotals[i] = Math.multiplyExact(unitPrices[i], quantities[i]);
+            subtotal = Math.addExact(subtotal, lineTotals[i]);
+        }
+        if (subtotal <= 0) {
+            return new PricedOrder(subtotal, 0, lineTotals, new long[lines]);
+        }
+
+        long exact = Math.min(Math.max(discount.total(subtotal, lineTotals), 0),
+                Math.multiplyExact(subtotal, Money.MILLIONTHS_PER_CENT));
+        long cents = Money.roundToCents(exact);
+        return new PricedOrder(subtotal, cents, lineTotals,
+                allocate(cents, exact, lineTotals, Math.multiplyExact(subtotal, Money.MILLIONTHS_PER_CENT)));
+    }
+
+    /**
+     * Splits {@code cents} over {@code weights} by the largest remainder method, where the exact
+     * share of line {@code i} is {@code amount * weights[i] / divisor} cents and {@code cents} is
+     * the sum of the exact shares rounded to whole cents.
+     */
+    static long[] allocate(long cents, long amount, long[] weights, long divisor) {
+        int n = weights.length;
+        long[] shares = new long[n];
+        if (cents == 0) {
+            return shares;
+        }
+
+        long[] remainders = new long[n];
+        long left = cents;
+        for (int i = 0; i < n; i++) {
+            long product = weights[i] * amount;
+            if (Math.multiplyHigh(weights[i], amount) == 0 && product >= 0) {
+                shares[i] = product / divisor;
+                remainders[i] = product % divisor;
+            } else {
+                BigInteger[] division = BigInteger.valueOf(weights[i]).multiply(BigInteger.valueOf(amount))
+                        .divideAndRemainder(BigInteger.valueOf(divisor));
+                shares[i] = division[0].longValueExact();
+                remainders[i] = division[1].longValueExact();
+            }
+            left -= shares[i];
+        }
+
+        if (left == 0) {
+            return shares;
+        }
+
+        // The whole cents fall short of the rounded total by at most one cent per line. Those go to
+        // the lines with a remainder above the cutoff, then to the first lines exactly at it.
+        long[] sorted = remainders.clone();
+        Arrays.sort(sorted);
+        long cutoff = sorted[n - (int) left];
+        for (int i = 0; i < n; i++) {
+            if (remainders[i] > cutoff) {
+                shares[i]++;
+                left--;
+            }
+        }
+        for (int i = 0; left > 0; i++) {
+            if (remainders[i] == cutoff) {
+                shares[i]++;
+                left--;
+            }
+        }
+        return shares;
+    }
+}
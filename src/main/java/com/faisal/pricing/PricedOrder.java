@@ -0,0 +1,22 @@
+package com.faisal.pricing;
+
+/**
+ * An order priced by {@link OrderPricing}, in cents. {@code lineDiscounts} add up to
+ * {@code discount} exactly.
+ */
+public record PricedOrder(
+        long subtotal,
+        long discount,
+        long[] lineTotals,
+        long[] lineDiscounts
+) {
+
+    public long total() {
+        return subtotal - discount;
+    }
+
+    /** What line {@code i} costs after its share of the discount. */
+    public long lineTotalAfterDiscount(int i) {
+        return lineTotals[i] - lineDiscounts[i];
+    }
+}
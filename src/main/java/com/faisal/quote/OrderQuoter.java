@@ -0,0 +1,126 @@
+package com.faisal.quote;
+
+import com.faisal.coupon.CouponLedger;
+import com.faisal.coupon.CouponTerms;
+import com.faisal.discount.DiscountService;
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.dto.response.OrderItemResponse;
+import com.faisal.dto.response.OrderQuoteResponse;
+import com.faisal.enums.Role;
+import com.faisal.event.DiscountRulesChangedEvent;
+import com.faisal.event.ProductChangedEvent;
+import com.faisal.inventory.StockReserver;
+import com.faisal.pricing.Money;
+import com.faisal.pricing.OrderPricing;
+import com.faisal.pricing.PricedOrder;
+import com.faisal.service.ProductService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prices a cart the way {@code POST /orders} would, without placing it: unit prices come from the
+ * {@code productById} cache and discounts from the current rules, so a quote takes no lock, writes
+ * nothing and reserves no stock. Whether the stock is there is only known when the order is placed.
+ *
+ * <p>A coupon code is checked but not redeemed. Quotes are kept per role, cart and coupon for
+ * {@code app.orders.quote.ttl}, and dropped as soon as a product or the discount rules change on
+ * this node. A promotion that starts or ends in the meantime shows up in quotes at most that much
+ * later.
+ */
+@Component
+public class OrderQuoter {
+
+    private static final String CACHE_NAME = "orderQuotes";
+
+    private final ProductService productService;
+    private final DiscountService discountService;
+    private final CouponLedger couponLedger;
+    private final Cache<QuoteKey, OrderQuoteResponse> quotes;
+
+    public OrderQuoter(
+            ProductService productService,
+            DiscountService discountService,
+            CouponLedger couponLedger,
+            MeterRegistry meterRegistry,
+            @Value("${app.orders.quote.ttl:5s}") Duration ttl,
+            @Value("${app.orders.quote.maximum-size:10000}") long maximumSize
+    ) {
+        this.productService = productService;
+        this.discountService = discountService;
+        this.couponLedger = couponLedger;
+        this.quotes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, quotes, CACHE_NAME);
+    }
+
+    public OrderQuoteResponse quote(Role role, List<OrderItemRequest> items) {
+        return quote(role, items, null);
+    }
+
+    /**
+     * @throws com.faisal.exception.BadRequestException if a quantity is below 1, or the coupon is
+     *         unknown, not running or used up
+     * @throws com.faisal.exception.ResourceNotFoundException if a product does not exist
+     */
+    public OrderQuoteResponse quote(Role role, List<OrderItemRequest> items, String couponCode) {
+        StockReserver.quantitiesByProduct(items);
+        return quotes.get(new QuoteKey(role, List.copyOf(items), couponCode),
+                key -> price(key.role(), key.items(), key.couponCode()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        quotes.invalidateAll();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRulesChanged(DiscountRulesChangedEvent event) {
+        quotes.invalidateAll();
+    }
+
+    private OrderQuoteResponse price(Role role, List<OrderItemRequest> items, String couponCode) {
+        int lines = items.size();
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        long[] unitPrices = new long[lines];
+        int[] quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            OrderItemRequest item = items.get(i);
+            BigDecimal price = prices.computeIfAbsent(item.productId(), id -> productService.getById(id).price());
+            unitPrices[i] = Money.toCents(price);
+            quantities[i] = item.quantity();
+        }
+
+        Instant at = Instant.now();
+        CouponTerms coupon = couponCode == null ? null : couponLedger.check(couponCode, at);
+        PricedOrder priced = OrderPricing.price(unitPrices, quantities,
+                (subtotal, lineTotals) -> discountService.totalDiscount(role, at, coupon, subtotal, lineTotals));
+
+        List<OrderItemResponse> quotedItems = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            OrderItemRequest item = items.get(i);
+            quotedItems.add(new OrderItemResponse(item.productId(), item.quantity(), prices.get(item.productId())));
+        }
+        return new OrderQuoteResponse(Money.fromCents(priced.total()), Money.fromCents(priced.discount()), quotedItems);
+    }
+
+    /** Line order is part of the key: it decides how the discount is split. */
+    private record QuoteKey(Role role, List<OrderItemRequest> items, String couponCode) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.faisal.repository;
+
+import com.faisal.model.CouponRedemption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CouponRedemptionRepository extends JpaRepository<CouponRedemption, Long> {
+    long countByCouponId(Long couponId);
+
+    List<CouponRedemption> findAllByCouponId(Long couponId);
+}
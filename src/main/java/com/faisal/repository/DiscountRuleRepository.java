@@ -0,0 +1,18 @@
+package com.faisal.repository;
+
+import com.faisal.model.DiscountRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface DiscountRuleRepository extends JpaRepository<DiscountRule, Long> {
+    List<DiscountRule> findAllByOrderByIdAsc();
+
+    @Query("select r from DiscountRule r where r.endsAt is null or r.endsAt > :now order by r.id")
+    List<DiscountRule> findAllNotEndedBy(@Param("now") Instant now);
+}
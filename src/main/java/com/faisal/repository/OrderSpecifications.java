@@ -0,0 +1,20 @@
+package com.faisal.repository;
+
+import com.faisal.dto.OrderCursor;
+import com.faisal.model.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {}
+
+    public static Specification<Order> placedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+
+    /** Orders strictly after the cursor in newest-first (created_at, id) order. */
+    public static Specification<Order> before(OrderCursor cursor) {
+        return (root, query, cb) -> cb.isTrue(cb.function("keyset_before", Boolean.class,
+                root.get("createdAt"), root.get("id"), cb.literal(cursor.createdAt()), cb.literal(cursor.id())));
+    }
+}
@@ -0,0 +1,6 @@
+package com.faisal.repository;
+
+import java.math.BigDecimal;
+
+public record ProductPrice(Long id, BigDecimal price) {
+}
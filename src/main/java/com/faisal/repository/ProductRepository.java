@@ -5,11 +5,37 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>, ProductStockRepository {
 
     Page<Product> findByDeletedFalse(Pageable pageable);
 
-}
\ No newline at end of file
+    /**
+     * Atomically takes {@code quantity} units of a live product, but only if that much stock is left.
+     * The check and the decrement happen in one UPDATE, so concurrent callers can never oversell.
+     *
+     * @return number of rows updated: 1 if the stock was reserved, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity - :quantity, p.updatedAt = :now " +
+            "where p.id = :id and p.deleted = false and p.quantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") Instant now);
+
+    @Query("select p.price from Product p where p.id = :id")
+    Optional<BigDecimal> findPriceById(@Param("id") Long id);
+
+    @Query("select new com.faisal.repository.ProductPrice(p.id, p.price) from Product p where p.id in :ids")
+    List<ProductPrice> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+
+}
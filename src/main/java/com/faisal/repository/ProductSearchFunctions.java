@@ -0,0 +1,41 @@
+package com.faisal.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * SQL the criteria API cannot express, for {@link ProductSpecifications} and
+ * {@link OrderSpecifications}:
+ * <ul>
+ *     <li>PostgreSQL full-text {@code fts_match(name, query)} and {@code fts_rank(name, query)}.
+ *     The document expression matches {@code idx_products_search} from
+ *     {@code V9__product_search_name_only.sql}.</li>
+ *     <li>Row-value comparisons {@code keyset_after(column, id, value, lastId)} and
+ *     {@code keyset_before(...)}, i.e. {@code (column, id) > (value, lastId)}, which a
+ *     {@code (column, id)} b-tree can seek to directly.</li>
+ * </ul>
+ */
+public class ProductSearchFunctions implements FunctionContributor {
+
+    static final String DOCUMENT = "to_tsvector('english', coalesce(?1, ''))";
+    static final String QUERY = "websearch_to_tsquery('english', ?2)";
+    static final String MATCH = "(" + DOCUMENT + " @@ " + QUERY + ")";
+    static final String RANK = "ts_rank(" + DOCUMENT + ", " + QUERY + ")";
+    static final String KEYSET_AFTER = "((?1, ?2) > (?3, ?4))";
+    static final String KEYSET_BEFORE = "((?1, ?2) < (?3, ?4))";
+
+    @Override
+    public void contributeFunctions(FunctionContributions contributions) {
+        BasicTypeRegistry types = contributions.getTypeConfiguration().getBasicTypeRegistry();
+        contributions.getFunctionRegistry().registerPattern(
+                "fts_match", MATCH, types.resolve(StandardBasicTypes.BOOLEAN));
+        contributions.getFunctionRegistry().registerPattern(
+                "fts_rank", RANK, types.resolve(StandardBasicTypes.DOUBLE));
+        contributions.getFunctionRegistry().registerPattern(
+                "keyset_after", KEYSET_AFTER, types.resolve(StandardBasicTypes.BOOLEAN));
+        contributions.getFunctionRegistry().registerPattern(
+                "keyset_before", KEYSET_BEFORE, types.resolve(StandardBasicTypes.BOOLEAN));
+    }
+}
@@ -1,6 +1,8 @@
 package com.faisal.repository;
 
+import com.faisal.dto.ProductCursor;
 import com.faisal.model.Product;
+import jakarta.persistence.criteria.Expression;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
@@ -18,6 +20,27 @@ public final class ProductSpecifications {
         return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern);
     }
 
+    /**
+     * PostgreSQL only: full-text or substring match on the name, served by the GIN indexes from
+     * {@code V2__product_search_indexes.sql} and {@code V9__product_search_name_only.sql}. Unless
+     * the page request is sorted, results come back by relevance.
+     */
+    public static Specification<Product> nameMatches(String term) {
+        String text = term.trim();
+        String pattern = "%" + text.toLowerCase() + "%";
+        return (root, query, cb) -> {
+            Expression<String> name = root.get("name");
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                query.orderBy(
+                        cb.desc(cb.function("fts_rank", Double.class, name, cb.literal(text))),
+                        cb.asc(root.get("id")));
+            }
+            return cb.or(
+                    cb.isTrue(cb.function("fts_match", Boolean.class, name, cb.literal(text))),
+                    cb.like(cb.lower(name), pattern));
+        };
+    }
+
     public static Specification<Product> priceGte(BigDecimal min) {
         return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), min);
     }
@@ -32,4 +55,18 @@ public final class ProductSpecifications {
                         ? cb.greaterThan(root.get("quantity"), 0)
                         : cb.lessThanOrEqualTo(root.get("quantity"), 0);
     }
-}
\ No newline at end of file
+
+    /** Products strictly after the cursor in its (sort column, id) order. */
+    public static Specification<Product> after(ProductCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor.sortBy().equals("id")) {
+                return cursor.direction().isAscending()
+                        ? cb.greaterThan(root.get("id"), cursor.id())
+                        : cb.lessThan(root.get("id"), cursor.id());
+            }
+            String function = cursor.direction().isAscending() ? "keyset_after" : "keyset_before";
+            return cb.isTrue(cb.function(function, Boolean.class,
+                    root.get(cursor.sortBy()), root.get("id"), cb.literal(cursor.value()), cb.literal(cursor.id())));
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.faisal.repository;
+
+import java.util.SortedMap;
+
+public interface ProductStockRepository {
+
+    /**
+     * Decrements stock for every requested product in a single conditional UPDATE
+     * ({@code quantity >= requested}). Either every line is reserved or none is:
+     * when any line cannot be satisfied the statement is rolled back to a savepoint
+     * and the offending product ids are reported.
+     *
+     * The rows are locked with {@code SELECT ... ORDER BY id FOR UPDATE} before the UPDATE, so
+     * concurrent reservations always acquire their row locks in id order.
+     *
+     * @param quantities requested quantity per product id
+     */
+    StockReservationResult reserveStock(SortedMap<Long, Integer> quantities);
+}
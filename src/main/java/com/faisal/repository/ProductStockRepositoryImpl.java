@@ -0,0 +1,113 @@
+package com.faisal.repository;
+
+import com.faisal.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+
+import java.sql.Savepoint;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public StockReservationResult reserveStock(SortedMap<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return StockReservationResult.reserved();
+        }
+
+        // Bulk updates bypass the persistence context: flush pending changes first and drop
+        // managed products afterwards so nobody reads a stale quantity in this transaction.
+        entityManager.flush();
+
+        Session session = entityManager.unwrap(Session.class);
+        Savepoint savepoint = session.doReturningWork(connection -> connection.setSavepoint());
+
+        lockInIdOrder(quantities);
+        int updated = buildReservation(quantities).executeUpdate();
+        if (updated == quantities.size()) {
+            session.doWork(connection -> connection.releaseSavepoint(savepoint));
+            entityManager.clear();
+            return StockReservationResult.reserved();
+        }
+
+        // Undo the lines that did succeed so the diagnostic read below sees the pre-reservation stock.
+        session.doWork(connection -> connection.rollback(savepoint));
+        return diagnose(quantities);
+    }
+
+    /**
+     * An UPDATE locks rows in whatever order its plan visits them, so two orders sharing products
+     * could each hold a row the other waits for. Locking them first, sorted by id, makes every
+     * reservation take its locks in the same order. A single line has nothing to order.
+     */
+    private void lockInIdOrder(SortedMap<Long, Integer> quantities) {
+        if (quantities.size() < 2) {
+            return;
+        }
+        entityManager.createQuery("select p.id from Product p where p.id in :ids order by p.id", Long.class)
+                .setParameter("ids", quantities.keySet())
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    private jakarta.persistence.Query buildReservation(SortedMap<Long, Integer> quantities) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Product> update = cb.createCriteriaUpdate(Product.class);
+        Root<Product> root = update.from(Product.class);
+
+        CriteriaBuilder.SimpleCase<Long, Integer> requested = cb.selectCase(root.get("id"));
+        quantities.forEach(requested::when);
+        requested.otherwise(0);
+
+        Expression<Integer> quantity = root.get("quantity");
+        update.set(root.<Integer>get("quantity"), cb.diff(quantity, requested));
+        update.set(root.<Instant>get("updatedAt"), Instant.now());
+        update.where(
+                root.get("id").in(quantities.keySet()),
+                cb.isFalse(root.get("deleted")),
+                cb.greaterThanOrEqualTo(quantity, requested)
+        );
+
+        return entityManager.createQuery(update);
+    }
+
+    private StockReservationResult diagnose(SortedMap<Long, Integer> quantities) {
+        List<Object[]> rows = entityManager.createQuery(
+                        "select p.id, p.quantity from Product p where p.id in :ids and p.deleted = false",
+                        Object[].class)
+                .setParameter("ids", quantities.keySet())
+                .getResultList();
+
+        Map<Long, Integer> available = new HashMap<>();
+        for (Object[] row : rows) {
+            available.put((Long) row[0], (Integer) row[1]);
+        }
+
+        List<Long> missing = new ArrayList<>();
+        List<Long> insufficient = new ArrayList<>();
+        quantities.forEach((productId, requested) -> {
+            Integer stock = available.get(productId);
+            if (stock == null) {
+                missing.add(productId);
+            } else if (stock < requested) {
+                insufficient.add(productId);
+            }
+        });
+
+        return new StockReservationResult(missing, insufficient);
+    }
+}
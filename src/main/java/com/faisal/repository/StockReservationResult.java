@@ -0,0 +1,17 @@
+package com.faisal.repository;
+
+import java.util.List;
+
+public record StockReservationResult(
+        List<Long> missingProductIds,
+        List<Long> insufficientProductIds
+) {
+
+    public static StockReservationResult reserved() {
+        return new StockReservationResult(List.of(), List.of());
+    }
+
+    public boolean isReserved() {
+        return missingProductIds.isEmpty() && insufficientProductIds.isEmpty();
+    }
+}
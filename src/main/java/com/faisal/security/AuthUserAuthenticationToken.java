@@ -0,0 +1,37 @@
+package com.faisal.security;
+
+import com.faisal.dto.AuthUser;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * An authenticated {@link Jwt} whose principal is the {@link AuthUser} read from its claims once,
+ * when the token is verified, so {@link SecurityUtils#currentUser()} and the blacklist check use
+ * the decoded token instead of reading it again.
+ */
+public class AuthUserAuthenticationToken extends AbstractOAuth2TokenAuthenticationToken<Jwt> {
+
+    public AuthUserAuthenticationToken(Jwt jwt, AuthUser user, Collection<? extends GrantedAuthority> authorities) {
+        super(jwt, user, jwt, authorities);
+        setAuthenticated(true);
+    }
+
+    @Override
+    public AuthUser getPrincipal() {
+        return (AuthUser) super.getPrincipal();
+    }
+
+    @Override
+    public Map<String, Object> getTokenAttributes() {
+        return getToken().getClaims();
+    }
+
+    @Override
+    public String getName() {
+        return getToken().getSubject();
+    }
+}
@@ -0,0 +1,25 @@
+package com.faisal.security;
+
+import com.faisal.enums.Role;
+import lombok.Getter;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+/**
+ * The user {@link CustomUserDetailsService} loads for a login, carrying the id and role the token
+ * is issued with, so the login needs no second lookup once the password is checked.
+ */
+@Getter
+public class AuthUserDetails extends User {
+
+    private final Long userId;
+    private final Role role;
+
+    public AuthUserDetails(Long userId, String email, String password, Role role) {
+        super(email, password, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        this.userId = userId;
+        this.role = role;
+    }
+}
@@ -0,0 +1,95 @@
+package com.faisal.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the tokens {@code delegate} has verified, so a token presented again skips the
+ * signature check and claim parsing. An entry lives until its token's {@code exp} and is
+ * dropped once the token is revoked; a token without {@code exp} is never cached.
+ *
+ * <p>Entries are keyed by the token itself: the cached {@link Jwt} holds it anyway, so a digest
+ * would keep nothing less in memory.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private static final String CACHE_NAME = "verifiedTokens";
+
+    private final JwtDecoder delegate;
+    private final TokenRevocations tokenRevocations;
+    private final Cache<String, Jwt> verified;
+
+    private final Timer hits;
+    private final Timer misses;
+
+    public CachingJwtDecoder(
+            JwtDecoder delegate,
+            TokenRevocations tokenRevocations,
+            MeterRegistry meterRegistry,
+            long maximumSize
+    ) {
+        this.delegate = delegate;
+        this.tokenRevocations = tokenRevocations;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String token, Jwt jwt) -> untilExpiry(jwt)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, CACHE_NAME);
+
+        this.hits = decodeTimer(meterRegistry, "hit");
+        this.misses = decodeTimer(meterRegistry, "miss");
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long start = System.nanoTime();
+        Jwt jwt = verified.getIfPresent(token);
+        if (jwt != null && !isRevoked(jwt)) {
+            hits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return jwt;
+        }
+        if (jwt != null) {
+            verified.invalidate(token);
+        }
+
+        jwt = delegate.decode(token);
+        if (cacheable(jwt)) {
+            verified.put(token, jwt);
+        }
+        misses.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return jwt;
+    }
+
+    private boolean cacheable(Jwt jwt) {
+        return jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(Instant.now()) && !isRevoked(jwt);
+    }
+
+    private boolean isRevoked(Jwt jwt) {
+        String jti = jwt.getId();
+        return jti != null && !jti.isBlank() && tokenRevocations.isRevoked(jti);
+    }
+
+    private static Duration untilExpiry(Jwt jwt) {
+        Duration left = Duration.between(Instant.now(), jwt.getExpiresAt());
+        return left.isNegative() ? Duration.ZERO : left;
+    }
+
+    private static Timer decodeTimer(MeterRegistry meterRegistry, String cache) {
+        return Timer.builder("auth.jwt.decode")
+                .description("Time to turn a bearer token into a verified JWT")
+                .tag("cache", cache)
+                .register(meterRegistry);
+    }
+}
@@ -17,6 +17,9 @@ import java.util.UUID;
 @Service
 public class JwtService {
 
+    /** Claim holding the {@link TokenGenerations generation} of the user the token was issued to. */
+    public static final String GENERATION_CLAIM = "gen";
+
     private final SecretKey key;
     private final long expirationMinutes;
 
@@ -28,7 +31,7 @@ public class JwtService {
         this.expirationMinutes = expirationMinutes;
     }
 
-    public String generateToken(String subjectEmail, Role role,Long userId) {
+    public String generateToken(String subjectEmail, Role role, Long userId, long generation) {
         Instant now = Instant.now();
         Instant exp = now.plusSeconds(expirationMinutes * 60);
 
@@ -41,6 +44,7 @@ public class JwtService {
                 .setExpiration(Date.from(exp))
                 .claim("roles", List.of(role.name()))
                 .claim("userId", userId)
+                .claim(GENERATION_CLAIM, generation)
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -0,0 +1,85 @@
+package com.faisal.security;
+
+import com.faisal.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs logins, which spend most of their time in BCrypt, on a few threads of their own, so a
+ * burst of logins waits here instead of holding the servlet threads other requests need. At
+ * most {@code app.security.login.queue-capacity} logins wait; more are refused with 503.
+ */
+@Component
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer succeeded;
+    private final Timer failed;
+    private final Counter rejected;
+
+    public LoginExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${app.security.login.threads:4}") int threads,
+            @Value("${app.security.login.queue-capacity:100}") int queueCapacity
+    ) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "login-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.login.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Logins waiting for a login thread")
+                .register(meterRegistry);
+        this.succeeded = loginTimer(meterRegistry, "success");
+        this.failed = loginTimer(meterRegistry, "failure");
+        this.rejected = Counter.builder("auth.login.rejected")
+                .description("Logins refused because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code login} on a login thread.
+     *
+     * @throws ServiceUnavailableException if too many logins are already waiting
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> login) {
+        long start = System.nanoTime();
+        CompletableFuture<T> result;
+        try {
+            result = CompletableFuture.supplyAsync(login, executor);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many logins in progress, please retry shortly");
+        }
+        return result.whenComplete((value, error) ->
+                (error == null ? succeeded : failed).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    private static Timer loginTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.login")
+                .description("Time to answer POST /auth/login, including the wait for a login thread")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
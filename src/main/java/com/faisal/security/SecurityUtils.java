@@ -22,25 +22,34 @@ public class SecurityUtils {
 
         Object principal = auth.getPrincipal();
 
-        if (principal instanceof Jwt jwt) {
-            Long userId = readLongClaim(jwt, "userId");
-            String email = jwt.getSubject();
-            List<String> roles = jwt.getClaimAsStringList("roles");
-            if (roles == null || roles.isEmpty()) {
-                throw new BadRequestException("roles claim is missing or empty");
-            }
-            Role role = Role.valueOf(roles.get(0));
-
-            return new AuthUser(userId, role, email);
-        }
-
         if (principal instanceof AuthUser user) {
             return user;
         }
 
+        if (principal instanceof Jwt jwt) {
+            return fromJwt(jwt);
+        }
+
         throw new BadRequestException("Unsupported authentication principal: " + principal.getClass().getName());
     }
 
+    /**
+     * The user a token was issued to, from its {@code userId}, {@code roles} and subject claims.
+     *
+     * @throws BadRequestException if a claim is missing or malformed
+     */
+    public static AuthUser fromJwt(Jwt jwt) {
+        Long userId = readLongClaim(jwt, "userId");
+        String email = jwt.getSubject();
+        List<String> roles = jwt.getClaimAsStringList("roles");
+        if (roles == null || roles.isEmpty()) {
+            throw new BadRequestException("roles claim is missing or empty");
+        }
+        Role role = Role.valueOf(roles.get(0));
+
+        return new AuthUser(userId, role, email);
+    }
+
     private static Long readLongClaim(Jwt jwt, String claim) {
         Object raw = jwt.getClaims().get(claim);
         if (raw == null) {
@@ -0,0 +1,101 @@
+package com.faisal.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Token generation per user. Every token carries the generation of its user at the time it was
+ * issued, and is only accepted while that is still the user's generation, so moving a user to
+ * the next generation revokes all of their tokens at once without listing them.
+ *
+ * <p>Generations live in Redis under {@code jwt:generation:<userId>}, starting at 0 for a user
+ * who never had one. Each node keeps the generations it has read, so a request is checked without
+ * a Redis round trip; a change is published on {@value #CHANNEL} to the other nodes, and a
+ * generation is read again after {@code app.security.generations.ttl} in case a message was missed.
+ */
+@Slf4j
+@Component
+public class TokenGenerations implements MessageListener {
+
+    public static final String CHANNEL = "jwt:generations";
+
+    private static final String GENERATION_PREFIX = "jwt:generation:";
+    private static final String CACHE_NAME = "tokenGenerations";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<Long, Long> generations;
+
+    public TokenGenerations(
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.generations.ttl:10m}") Duration ttl,
+            @Value("${app.security.generations.maximum-size:100000}") long maximumSize
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, generations, CACHE_NAME);
+    }
+
+    /**
+     * The generation of {@code userId} as this node knows it, which may lag behind Redis until the
+     * change is published or the entry is read again.
+     */
+    public long current(Long userId) {
+        return generations.get(userId, this::read);
+    }
+
+    /**
+     * The generation a new token of {@code userId} is issued with. Read from Redis, so a token
+     * issued right after {@link #advance(Long)} on another node is not born revoked.
+     */
+    public long forIssuing(Long userId) {
+        return generations.asMap().merge(userId, read(userId), Math::max);
+    }
+
+    /** Whether a token of {@code userId} issued with {@code generation} has not been revoked since. */
+    public boolean isCurrent(Long userId, long generation) {
+        return generation >= current(userId);
+    }
+
+    /** Revokes every token issued to {@code userId} so far, on every node. */
+    public long advance(Long userId) {
+        Long generation = redisTemplate.opsForValue().increment(GENERATION_PREFIX + userId);
+        long next = generation == null ? current(userId) + 1 : generation;
+        generations.asMap().merge(userId, next, Math::max);
+        redisTemplate.convertAndSend(CHANNEL, userId + ":" + next);
+        log.info("Revoked all tokens of user id={} generation={}", userId, next);
+        return next;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        try {
+            generations.asMap().merge(Long.parseLong(body.substring(0, separator)),
+                    Long.parseLong(body.substring(separator + 1)), Math::max);
+        } catch (RuntimeException ex) {
+            log.warn("Ignoring malformed token generation message: {}", body);
+        }
+    }
+
+    private long read(Long userId) {
+        String generation = redisTemplate.opsForValue().get(GENERATION_PREFIX + userId);
+        return generation == null ? 0 : Long.parseLong(generation);
+    }
+}
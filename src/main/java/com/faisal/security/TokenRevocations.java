@@ -0,0 +1,137 @@
+package com.faisal.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revoked token ids. Redis holds the {@code jwt:blacklist:<jti>} keys until the tokens expire;
+ * every node also keeps the ids with their expiry in memory, so a request whose token was never
+ * revoked, nearly all of them, is checked without a Redis round trip. Only a local hit is
+ * confirmed in Redis.
+ *
+ * <p>A revocation is published on {@value #CHANNEL} for the other nodes. The local set is loaded
+ * from Redis once the application is ready, and reloaded every {@code app.security.revocations.resync-interval}
+ * to catch messages missed while the subscription was down, dropping expired ids as it goes.
+ * Until the first load, every check goes to Redis.
+ */
+@Slf4j
+@Component
+public class TokenRevocations implements MessageListener {
+
+    public static final String CHANNEL = "jwt:revocations";
+
+    private static final String BLACKLIST_PREFIX = "jwt:blacklist:";
+    private static final int SCAN_BATCH = 1_000;
+
+    private final StringRedisTemplate redisTemplate;
+
+    /** Revoked token id to the epoch millis its token expires at. */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    private final Counter redisChecks;
+
+    public TokenRevocations(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+
+        Gauge.builder("auth.revocations.local", revoked, Map::size)
+                .description("Revoked, unexpired token ids held in memory on this node")
+                .register(meterRegistry);
+        this.redisChecks = Counter.builder("auth.revocations.redis.checks")
+                .description("Token checks that had to ask Redis")
+                .register(meterRegistry);
+    }
+
+    /** Revokes the token {@code jti} until it expires at {@code expiresAt}, on every node. */
+    public void revoke(String jti, Instant expiresAt) {
+        Duration ttl = Duration.between(Instant.now(), expiresAt);
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        redisTemplate.opsForValue().set(BLACKLIST_PREFIX + jti, "1", ttl);
+        revoked.put(jti, expiresAt.toEpochMilli());
+        redisTemplate.convertAndSend(CHANNEL, expiresAt.toEpochMilli() + ":" + jti);
+        log.info("Revoked token jti={}", jti);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (loaded) {
+            Long expiresAt = revoked.get(jti);
+            if (expiresAt == null) {
+                return false;
+            }
+            if (expiresAt <= System.currentTimeMillis()) {
+                revoked.remove(jti, expiresAt);
+                return false;
+            }
+        }
+        redisChecks.increment();
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(BLACKLIST_PREFIX + jti))) {
+            return true;
+        }
+        revoked.remove(jti);
+        return false;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        try {
+            revoked.put(body.substring(separator + 1), Long.parseLong(body.substring(0, separator)));
+        } catch (RuntimeException ex) {
+            log.warn("Ignoring malformed token revocation message: {}", body);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            resync();
+        } catch (RuntimeException ex) {
+            log.warn("Could not load revoked tokens from Redis, checking every token there until the next resync", ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.revocations.resync-interval:5m}",
+            initialDelayString = "${app.security.revocations.resync-interval:5m}")
+    public void resync() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+
+        int found = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(BLACKLIST_PREFIX + "*").count(SCAN_BATCH).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                Long ttl = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+                if (ttl == null || ttl == -2) {
+                    continue;
+                }
+                // A key without a TTL (-1) stays revoked until it is deleted.
+                revoked.putIfAbsent(key.substring(BLACKLIST_PREFIX.length()), ttl < 0 ? Long.MAX_VALUE : now + ttl);
+                found++;
+            }
+        }
+        loaded = true;
+        log.debug("Loaded revoked tokens from Redis found={}, held={}", found, revoked.size());
+    }
+}
@@ -1,61 +1,58 @@
 package com.faisal.service;
 
 import com.faisal.dto.response.LoginResponse;
-import com.faisal.enums.Role;
 import com.faisal.exception.BadRequestException;
-import com.faisal.model.User;
-import com.faisal.repository.UserRepository;
+import com.faisal.security.AuthUserDetails;
 import com.faisal.security.JwtService;
+import com.faisal.security.TokenGenerations;
+import com.faisal.security.TokenRevocations;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.Date;
 
 @Service
 public class AuthService {
 
-    private static final String BLACKLIST_PREFIX = "jwt:blacklist:";
-
     private final AuthenticationManager authenticationManager;
-    private final UserRepository userRepository;
     private final JwtService jwtService;
-    private final StringRedisTemplate redisTemplate;
+    private final TokenRevocations tokenRevocations;
+    private final TokenGenerations tokenGenerations;
 
     private final SecretKey key;
 
     public AuthService(
             AuthenticationManager authenticationManager,
-            UserRepository userRepository,
             JwtService jwtService,
-            StringRedisTemplate redisTemplate,
+            TokenRevocations tokenRevocations,
+            TokenGenerations tokenGenerations,
             @Value("${security.jwt.secret}") String secret
     ) {
         this.authenticationManager = authenticationManager;
-        this.userRepository = userRepository;
         this.jwtService = jwtService;
-        this.redisTemplate = redisTemplate;
+        this.tokenRevocations = tokenRevocations;
+        this.tokenGenerations = tokenGenerations;
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
 
     public LoginResponse login(String email, String password) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(email, password));
-
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadRequestException("Invalid credentials"));
+        Authentication authentication =
+                authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(email, password));
 
-        Role role = user.getRole();
-        Long userId = user.getId();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthUserDetails user)) {
+            throw new BadRequestException("Invalid credentials");
+        }
 
-        return new LoginResponse(jwtService.generateToken(email, role,userId), "Bearer");
+        long generation = tokenGenerations.forIssuing(user.getUserId());
+        return new LoginResponse(jwtService.generateToken(email, user.getRole(), user.getUserId(), generation), "Bearer");
     }
 
     public void logout(String authorizationHeader) {
@@ -74,12 +71,12 @@ public class AuthService {
             throw new BadRequestException("Invalid token");
         }
 
-        long ttlMillis = exp.getTime() - System.currentTimeMillis();
-        if (ttlMillis <= 0) {
-            return;
-        }
+        tokenRevocations.revoke(jti, exp.toInstant());
+    }
 
-        redisTemplate.opsForValue().set(BLACKLIST_PREFIX + jti, "1", Duration.ofMillis(ttlMillis));
+    /** Revokes every token issued to {@code userId}, on every node, with one increment. */
+    public void logoutEverywhere(Long userId) {
+        tokenGenerations.advance(userId);
     }
 
     private String extractBearerToken(String header) {
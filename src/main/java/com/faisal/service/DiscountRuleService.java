@@ -0,0 +1,59 @@
+package com.faisal.service;
+
+import com.faisal.discount.DiscountPlan;
+import com.faisal.dto.request.DiscountRuleRequest;
+import com.faisal.dto.response.DiscountRuleResponse;
+import com.faisal.event.DiscountRulesChangedEvent;
+import com.faisal.exception.BadRequestException;
+import com.faisal.mapper.DiscountRuleMapper;
+import com.faisal.model.DiscountRule;
+import com.faisal.repository.DiscountRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DiscountRuleService {
+
+    private final DiscountRuleRepository discountRuleRepository;
+    private final DiscountRuleMapper discountRuleMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<DiscountRuleResponse> list() {
+        return discountRuleRepository.findAllByOrderByIdAsc().stream()
+                .map(discountRuleMapper::toResponse)
+                .toList();
+    }
+
+    /**
+     * Replaces every discount rule with {@code requests}. Orders placed on this node use the new
+     * rules as soon as the transaction commits.
+     *
+     * @throws BadRequestException if the rules do not compile
+     */
+    @Transactional
+    public List<DiscountRuleResponse> replaceAll(List<DiscountRuleRequest> requests) {
+        List<DiscountRule> rules = requests.stream()
+                .map(discountRuleMapper::fromRequest)
+                .toList();
+        try {
+            DiscountPlan.compile(rules);
+        } catch (IllegalArgumentException | ArithmeticException ex) {
+            throw new BadRequestException(ex.getMessage());
+        }
+
+        discountRuleRepository.deleteAllInBatch();
+        List<DiscountRule> saved = discountRuleRepository.saveAll(rules);
+        eventPublisher.publishEvent(new DiscountRulesChangedEvent(saved.size()));
+
+        log.info("Discount rules replaced rules={}", saved.size());
+        return saved.stream().map(discountRuleMapper::toResponse).toList();
+    }
+}
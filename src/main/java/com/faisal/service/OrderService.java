@@ -1,107 +1,197 @@
 package com.faisal.service;
 
+import com.faisal.coupon.CouponLedger;
+import com.faisal.coupon.CouponTerms;
 import com.faisal.dto.AuthUser;
+import com.faisal.dto.OrderCursor;
 import com.faisal.dto.request.OrderItemRequest;
 import com.faisal.discount.DiscountService;
+import com.faisal.dto.response.CursorPage;
 import com.faisal.dto.response.OrderResponse;
+import com.faisal.exception.BadRequestException;
+import com.faisal.exception.ResourceNotFoundException;
+import com.faisal.inventory.StockReserver;
 import com.faisal.mapper.OrderMapper;
 import com.faisal.model.Order;
 import com.faisal.model.OrderItem;
+import com.faisal.pricing.Money;
+import com.faisal.pricing.OrderPricing;
+import com.faisal.pricing.PricedOrder;
 import com.faisal.repository.OrderRepository;
+import com.faisal.repository.OrderSpecifications;
 import com.faisal.enums.Role;
 import com.faisal.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderService {
 
+    public static final String ORDER_BY_ID = "orderById";
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
     private final OrderRepository orderRepository;
     private final DiscountService discountService;
-    private final ProductService productService;
+    private final StockReserver stockReserver;
+    private final CouponLedger couponLedger;
     private final OrderMapper orderMapper;
+    private final CacheManager cacheManager;
 
     @Transactional
     public OrderResponse placeOrder(List<OrderItemRequest> itemRequests) {
+        return placeOrder(itemRequests, null);
+    }
+
+    @Transactional
+    public OrderResponse placeOrder(List<OrderItemRequest> itemRequests, String couponCode) {
+        return placeOrder(SecurityUtils.currentUser(), itemRequests, couponCode);
+    }
+
+    @Transactional
+    public OrderResponse placeOrder(AuthUser user, List<OrderItemRequest> itemRequests) {
+        return placeOrder(user, itemRequests, null);
+    }
+
+    /**
+     * Places an order on behalf of {@code user}, for callers that run outside the request's
+     * security context. A {@code couponCode} takes one redemption of the coupon, which is given
+     * back if the transaction rolls back.
+     */
+    @Transactional
+    public OrderResponse placeOrder(AuthUser user, List<OrderItemRequest> itemRequests, String couponCode) {
 
-        AuthUser user = SecurityUtils.currentUser();
         Long userId = user.userId();
         Role role = user.role();
 
-        List<OrderItem> items = new ArrayList<>();
+        Map<Long, BigDecimal> officialPrices = stockReserver.reserve(itemRequests);
 
-        for (OrderItemRequest req : itemRequests) {
-            BigDecimal officialPrice =
-                    productService.reserveStock(req.productId(), req.quantity());
+        int lines = itemRequests.size();
+        long[] unitPrices = new long[lines];
+        int[] quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            OrderItemRequest req = itemRequests.get(i);
+            unitPrices[i] = Money.toCents(officialPrices.get(req.productId()));
+            quantities[i] = req.quantity();
+        }
+
+        // Promotions and coupons are looked up at the time the order is stamped with.
+        Instant placedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        CouponTerms coupon = couponCode == null ? null : couponLedger.redeem(couponCode, placedAt);
+        PricedOrder priced = OrderPricing.price(unitPrices, quantities,
+                (subtotal, lineTotals) -> discountService.totalDiscount(role, placedAt, coupon, subtotal, lineTotals));
 
+        List<OrderItem> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            OrderItemRequest req = itemRequests.get(i);
             items.add(OrderItem.builder()
                     .productId(req.productId())
                     .quantity(req.quantity())
-                    .unitPrice(officialPrice)
+                    .unitPrice(officialPrices.get(req.productId()))
+                    .discountApplied(Money.fromCents(priced.lineDiscounts()[i]))
+                    .totalPrice(Money.fromCents(priced.lineTotalAfterDiscount(i)))
                     .build());
         }
 
-        BigDecimal subtotal = items.stream()
-                .map(i -> i.getUnitPrice().multiply(BigDecimal.valueOf(i.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
-
-        List<BigDecimal> lineTotals = items.stream()
-                .map(i -> i.getUnitPrice().multiply(BigDecimal.valueOf(i.getQuantity())))
-                .toList();
-
-        BigDecimal discountTotal =
-                discountService.totalDiscount(role, subtotal, lineTotals);
-
-        if (discountTotal == null) {
-            discountTotal = BigDecimal.ZERO;
-        }
-
-        if (discountTotal.compareTo(subtotal) > 0) {
-            discountTotal = subtotal;
-        }
-
-        for (OrderItem i : items) {
-            BigDecimal lineTotal = i.getUnitPrice()
-                    .multiply(BigDecimal.valueOf(i.getQuantity()))
-                    .setScale(2, RoundingMode.HALF_UP);
-
-            BigDecimal share = subtotal.signum() == 0
-                    ? BigDecimal.ZERO
-                    : lineTotal.divide(subtotal, 8, RoundingMode.HALF_UP);
-
-            BigDecimal lineDiscount =
-                    discountTotal.multiply(share).setScale(2, RoundingMode.HALF_UP);
-
-            i.setDiscountApplied(lineDiscount);
-            i.setTotalPrice(lineTotal.subtract(lineDiscount));
-        }
-
-        BigDecimal orderTotal = items.stream()
-                .map(OrderItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
+        BigDecimal orderTotal = Money.fromCents(priced.total());
 
         Order order = Order.builder()
                 .userId(userId)
                 .items(items)
                 .orderTotal(orderTotal)
+                .createdAt(placedAt)
                 .build();
 
         Order saved = orderRepository.save(order);
+        if (coupon != null) {
+            couponLedger.recordOnCommit(coupon, saved.getId(), userId, placedAt);
+        }
 
         log.info("Order placed id={} userId={} total={}",
                 saved.getId(), userId, orderTotal);
 
-        return orderMapper.toResponse(saved, discountTotal);
+        return orderMapper.toResponse(saved, Money.fromCents(priced.discount()));
+    }
+
+    /**
+     * An order with its items. Users only see their own orders; admins see any. Orders never
+     * change once placed, so they are read through the {@code orderById} cache and the owner is
+     * checked on every read, cached or not.
+     */
+    public OrderResponse getOrder(Long id) {
+        AuthUser user = SecurityUtils.currentUser();
+        OrderResponse order = cachedOrder(id);
+        if (user.role() != Role.ADMIN && !order.userId().equals(user.userId())) {
+            throw new ResourceNotFoundException("Order not found");
+        }
+        return order;
+    }
+
+    /**
+     * Orders newest first, {@code size} at a time, continuing after {@code cursor}. Users list
+     * their own orders; admins list everyone's, or one user's when {@code userId} is given. The
+     * items of a page are loaded in one batch.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponse> listOrders(Long userId, int size, String cursor) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        AuthUser user = SecurityUtils.currentUser();
+        Long owner = user.role() == Role.ADMIN ? userId : user.userId();
+
+        List<Specification<Order>> filters = new ArrayList<>();
+        if (owner != null) {
+            filters.add(OrderSpecifications.placedBy(owner));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            filters.add(OrderSpecifications.before(OrderCursor.decode(cursor)));
+        }
+
+        List<Order> orders = orderRepository.findBy(Specification.allOf(filters),
+                query -> query.sortBy(NEWEST_FIRST).limit(size + 1).all());
+        String nextCursor = null;
+        if (orders.size() > size) {
+            orders = orders.subList(0, size);
+            nextCursor = OrderCursor.after(orders.get(size - 1)).encode();
+        }
+        return new CursorPage<>(orders.stream().map(orderMapper::toResponse).toList(), nextCursor, null);
+    }
+
+    private OrderResponse cachedOrder(Long id) {
+        Cache cache = cacheManager.getCache(ORDER_BY_ID);
+        if (cache == null) {
+            return loadOrder(id);
+        }
+        try {
+            return cache.get(id, () -> loadOrder(id));
+        } catch (Cache.ValueRetrievalException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private OrderResponse loadOrder(Long id) {
+        return orderRepository.findWithItemsById(id)
+                .map(orderMapper::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
     }
-}
\ No newline at end of file
+}
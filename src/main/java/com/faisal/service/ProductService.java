@@ -1,33 +1,57 @@
 package com.faisal.service;
 
+import com.faisal.cache.ProductCacheInvalidator;
 import com.faisal.dto.CachedPage;
+import com.faisal.dto.ProductCursor;
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.event.ProductChangedEvent;
 import com.faisal.exception.BadRequestException;
 import com.faisal.exception.ResourceNotFoundException;
+import com.faisal.inventory.StockReserver;
 import com.faisal.dto.request.CreateProductRequest;
+import com.faisal.dto.response.CursorPage;
 import com.faisal.dto.response.ProductResponse;
 import com.faisal.mapper.ProductMapper;
 import com.faisal.model.Product;
+import com.faisal.repository.ProductPrice;
 import com.faisal.repository.ProductRepository;
 import com.faisal.repository.ProductSpecifications;
+import com.faisal.repository.StockReservationResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final int MAX_SCROLL_SIZE = 1_000;
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCacheInvalidator productCacheInvalidator;
+
+    /** PostgreSQL full-text/trigram name search; the LIKE fallback is kept for H2. */
+    @Value("${app.search.full-text:false}")
+    private boolean fullTextSearch;
 
     @CacheEvict(cacheNames = {"productsList", "productById","productsSearch"}, allEntries = true)
     public ProductResponse create(CreateProductRequest request) {
@@ -39,7 +63,8 @@ public class ProductService {
 
     @Cacheable(
             cacheNames = "productById",
-            key = "#id"
+            key = "#id",
+            sync = true
     )
     public ProductResponse getById(Long id) {
         Product product = productRepository.findById(id)
@@ -50,7 +75,8 @@ public class ProductService {
 
     @Cacheable(
             cacheNames = "productsList",
-            key = "#pageable.pageNumber + ':' + #pageable.pageSize + ':' + #pageable.sort.toString()"
+            key = "#pageable.pageNumber + ':' + #pageable.pageSize + ':' + #pageable.sort.toString()",
+            sync = true
     )
     public Page<ProductResponse> list(Pageable pageable) {
         return productRepository.findByDeletedFalse(pageable).map(productMapper::toResponse);
@@ -62,7 +88,8 @@ public class ProductService {
                     "(#minPrice == null ? '' : #minPrice.toPlainString()) + ':' + " +
                     "(#maxPrice == null ? '' : #maxPrice.toPlainString()) + ':' + " +
                     "(#available == null ? '' : #available.toString()) + ':' + " +
-                    "#pageable.pageNumber + ':' + #pageable.pageSize + ':' + #pageable.sort.toString()"
+                    "#pageable.pageNumber + ':' + #pageable.pageSize + ':' + #pageable.sort.toString()",
+            sync = true
     )
     public CachedPage<ProductResponse> searchCached(String name, BigDecimal minPrice, BigDecimal maxPrice, Boolean available, Pageable pageable) {
         Page<ProductResponse> page = search(name, minPrice, maxPrice, available, pageable);
@@ -70,6 +97,46 @@ public class ProductService {
     }
 
     public Page<ProductResponse> search(String name, BigDecimal minPrice, BigDecimal maxPrice, Boolean available, Pageable pageable) {
+        Specification<Product> spec = searchSpec(name, minPrice, maxPrice, available);
+        return productRepository.findAll(spec, pageable).map(productMapper::toResponse);
+    }
+
+    /**
+     * Keyset pagination over the same filters as {@link #search}: each page seeks past the
+     * cursor's (sort column, id) instead of using OFFSET, and no count query runs unless
+     * {@code withTotal} is set. A cursor carries its own sort, so {@code sortBy} and
+     * {@code direction} only apply to the first page; the filters must be repeated on every page.
+     */
+    public CursorPage<ProductResponse> scroll(String name, BigDecimal minPrice, BigDecimal maxPrice, Boolean available,
+                                              String sortBy, Sort.Direction direction, int size, String cursor,
+                                              boolean withTotal) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new BadRequestException("size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        ProductCursor position = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+        if (position != null) {
+            sortBy = position.sortBy();
+            direction = position.direction();
+        }
+        if (!ProductCursor.SORTABLE.contains(sortBy)) {
+            throw new BadRequestException("sortBy must be one of " + ProductCursor.SORTABLE);
+        }
+
+        Specification<Product> filter = searchSpec(name, minPrice, maxPrice, available);
+        Specification<Product> spec = position == null ? filter : filter.and(ProductSpecifications.after(position));
+        Sort sort = sortBy.equals("id") ? Sort.by(direction, "id") : Sort.by(direction, sortBy, "id");
+
+        List<Product> products = productRepository.findBy(spec, query -> query.sortBy(sort).limit(size + 1).all());
+        String nextCursor = null;
+        if (products.size() > size) {
+            products = products.subList(0, size);
+            nextCursor = ProductCursor.after(products.get(size - 1), sortBy, direction).encode();
+        }
+        Long total = withTotal ? productRepository.count(filter) : null;
+        return new CursorPage<>(products.stream().map(productMapper::toResponse).toList(), nextCursor, total);
+    }
+
+    private Specification<Product> searchSpec(String name, BigDecimal minPrice, BigDecimal maxPrice, Boolean available) {
         if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
             throw new BadRequestException("minPrice must be <= maxPrice");
         }
@@ -77,7 +144,9 @@ public class ProductService {
         Specification<Product> spec = ProductSpecifications.notDeleted();
 
         if (name != null && !name.isBlank()) {
-            spec = spec.and(ProductSpecifications.nameContainsIgnoreCase(name));
+            spec = spec.and(fullTextSearch
+                    ? ProductSpecifications.nameMatches(name)
+                    : ProductSpecifications.nameContainsIgnoreCase(name));
         }
         if (minPrice != null) {
             spec = spec.and(ProductSpecifications.priceGte(minPrice));
@@ -88,8 +157,7 @@ public class ProductService {
         if (available != null) {
             spec = spec.and(ProductSpecifications.available(available));
         }
-
-        return productRepository.findAll(spec, pageable).map(productMapper::toResponse);
+        return spec;
     }
 
     public Page<ProductResponse> searchForApi(String name, BigDecimal minPrice, BigDecimal maxPrice, Boolean available, Pageable pageable) {
@@ -105,6 +173,7 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
         productMapper.update(product, request);
         Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
         log.info("Updated product id={}", id);
         return productMapper.toResponse(saved);
     }
@@ -117,38 +186,65 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
         product.softDelete();
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
         log.info("Soft deleted product id={}", id);
     }
 
 
     @Transactional
-    @CacheEvict(cacheNames = {"productsList", "productById","productsSearch"}, allEntries = true)
     public BigDecimal reserveStock(Long productId, int quantity) {
         if (quantity <= 0) {
             throw new BadRequestException("Quantity must be at least 1");
         }
 
-        // First DB call: fetch the product to check existence, deletion status, and available stock.
-        // We need this because we cannot reduce stock for a product that doesn't exist or is deleted.
-        Product product = productRepository.findById(productId)
-                .filter(p -> !p.isDeleted())
-                .orElseThrow(() -> new ResourceNotFoundException("Product with ID " + productId + " not found"));
+        // Check and decrement in a single conditional UPDATE. No read-modify-write and no row lock
+        // held across a round-trip, so concurrent orders for the same product cannot oversell.
+        int updated = productRepository.decrementStock(productId, quantity, Instant.now());
 
-        if (product.getQuantity() < quantity) {
+        if (updated == 0) {
+            // Failure path only: find out whether the product is gone or just short on stock.
+            Product product = productRepository.findById(productId)
+                    .filter(p -> !p.isDeleted())
+                    .orElseThrow(() -> new ResourceNotFoundException("Product with ID " + productId + " not found"));
             throw new BadRequestException("Insufficient stock for product: " + product.getName());
         }
 
-        // Second DB call: update the stock by subtracting the requested quantity.
-        // This is done in a separate call (via save) to ensure that the quantity in the database reflects
-        // the reservation atomically. We cannot rely on the quantity in the OrderItemRequest because
-        // the request does not contain the actual price or stock details of the product.
-        product.setQuantity(product.getQuantity() - quantity);
-        productRepository.save(product);
+        BigDecimal price = productRepository.findPriceById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product with ID " + productId + " not found"));
+
+        productCacheInvalidator.stockChanged(List.of(productId));
+        log.info("Reserved stock productId={}, qty={}, price={}", productId, quantity, price);
+        return price;
+    }
+
+    /**
+     * Reserves stock for all lines of an order in one conditional statement and returns the
+     * official unit price per product id. Duplicate product lines are merged and lines are
+     * reserved in product id order. If any line cannot be satisfied nothing is reserved.
+     * Cached entries of the reserved products are evicted once the surrounding transaction commits.
+     */
+    @Transactional
+    public Map<Long, BigDecimal> reserveStock(List<OrderItemRequest> items) {
+        SortedMap<Long, Integer> quantities = StockReserver.quantitiesByProduct(items);
+
+        StockReservationResult result = productRepository.reserveStock(quantities);
+        if (!result.missingProductIds().isEmpty()) {
+            throw new ResourceNotFoundException("Products with IDs " + result.missingProductIds() + " not found");
+        }
+        if (!result.insufficientProductIds().isEmpty()) {
+            throw new BadRequestException("Insufficient stock for products: " + result.insufficientProductIds());
+        }
+
+        // Read back the prices while this transaction still holds the row locks taken above,
+        // so a concurrent price update cannot slip in between reservation and pricing.
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (ProductPrice price : productRepository.findPricesByIdIn(quantities.keySet())) {
+            prices.put(price.id(), price.price());
+        }
 
-        // Return the price of the product. This requires fetching it from the DB because
-        // during order booking, the price is not available in the OrderItemRequest.
-        log.info("Reserved stock productId={}, qty={}, price={}", productId, quantity, product.getPrice());
-        return product.getPrice();
+        productCacheInvalidator.stockChanged(quantities.keySet());
+        log.info("Reserved stock for {} products, lines={}", quantities.size(), items.size());
+        return prices;
     }
 
 }
\ No newline at end of file
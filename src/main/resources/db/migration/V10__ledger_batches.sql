@@ -0,0 +1,8 @@
+-- Batches written back from the Redis ledgers, recorded in the same transaction as the batch. A
+-- batch drained again after its commit (the writer died before completing it in Redis) is found
+-- here and skipped. Each ledger has one batch in flight at a time, so only its latest row is kept.
+CREATE TABLE ledger_batches (
+                                batch_id VARCHAR(36) PRIMARY KEY,
+                                ledger VARCHAR(32) NOT NULL,
+                                applied_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,10 @@
+-- Product name search. lower(name) LIKE '%term%' cannot use a b-tree, so:
+--  * a trigram GIN index serves substring matches on lower(name);
+--  * a GIN index on the name/description tsvector serves full-text matches. The expression must
+--    stay identical to the one rendered by ProductSearchFunctions, or the planner will not use it.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_products_name_trgm ON products USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX idx_products_search ON products
+    USING gin (to_tsvector('english', coalesce(name, '') || ' ' || coalesce(description, '')));
@@ -0,0 +1,4 @@
+-- Keyset pagination seeks on (sort column, id) among live products; id order uses the primary key.
+CREATE INDEX idx_products_name_id ON products (name, id) WHERE deleted = FALSE;
+
+CREATE INDEX idx_products_price_id ON products (price, id) WHERE deleted = FALSE;
@@ -0,0 +1,13 @@
+-- Orders and order items take ids from pooled sequences instead of IDENTITY so Hibernate can batch their inserts.
+-- Each nextval reserves a block of 50 ids ending at the returned value, so an existing table restarts 50 past its max id.
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE orders_seq INCREMENT BY 50;
+
+SELECT setval('orders_seq', MAX(id) + 50, false) FROM orders HAVING MAX(id) IS NOT NULL;
+
+ALTER TABLE order_item ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE order_item_seq INCREMENT BY 50;
+
+SELECT setval('order_item_seq', MAX(id) + 50, false) FROM order_item HAVING MAX(id) IS NOT NULL;
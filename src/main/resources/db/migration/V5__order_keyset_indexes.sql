@@ -0,0 +1,5 @@
+-- Order listings page newest first by (created_at, id): per user, and across all users for admins.
+DROP INDEX idx_orders_user_id;
+CREATE INDEX idx_orders_user_id ON orders (user_id, created_at DESC, id DESC);
+
+CREATE INDEX idx_orders_created_at_id ON orders (created_at DESC, id DESC);
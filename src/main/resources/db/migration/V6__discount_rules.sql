@@ -0,0 +1,19 @@
+-- Discount rules are data, compiled into an in-memory plan at startup and whenever they change.
+-- A rule applies to the order subtotal (ORDER) or to each line total (LINE) above its threshold;
+-- NULL role means every role, NULL threshold means always.
+CREATE TABLE discount_rules (
+                                id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                                name VARCHAR(255) NOT NULL,
+                                role VARCHAR(50),
+                                scope VARCHAR(20) NOT NULL,
+                                threshold NUMERIC(19, 2),
+                                rate NUMERIC(9, 6),
+                                amount NUMERIC(19, 2),
+                                CONSTRAINT chk_discount_rules_value CHECK (rate IS NOT NULL OR amount IS NOT NULL)
+);
+
+-- The rules the discount handlers used to hard-wire.
+INSERT INTO discount_rules (name, role, scope, threshold, rate, amount) VALUES
+                                                                           ('Premium customers', 'PREMIUM_USER', 'ORDER', NULL, 0.100000, NULL),
+                                                                           ('Orders above 500', NULL, 'ORDER', 500.00, 0.050000, NULL),
+                                                                           ('Lines above 1000', NULL, 'LINE', 1000.00, NULL, 50.00);
@@ -0,0 +1,5 @@
+-- Promotions are discount rules that only apply to orders placed from starts_at up to ends_at;
+-- NULL means open on that side, and rules with neither always apply.
+ALTER TABLE discount_rules ADD COLUMN starts_at TIMESTAMP;
+ALTER TABLE discount_rules ADD COLUMN ends_at TIMESTAMP;
+ALTER TABLE discount_rules ADD CONSTRAINT chk_discount_rules_window CHECK (starts_at IS NULL OR ends_at IS NULL OR ends_at > starts_at);
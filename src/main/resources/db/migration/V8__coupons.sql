@@ -0,0 +1,26 @@
+-- Coupon codes take rate of the subtotal, amount off, or both, from orders placed from starts_at
+-- up to ends_at (NULL means open on that side). NULL max_redemptions means unlimited.
+-- The redemptions left are counted in Redis; Postgres only receives the redemptions, in batches.
+CREATE TABLE coupons (
+                         id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                         code VARCHAR(64) NOT NULL UNIQUE,
+                         rate NUMERIC(9, 6),
+                         amount NUMERIC(19, 2),
+                         max_redemptions INTEGER,
+                         starts_at TIMESTAMP,
+                         ends_at TIMESTAMP,
+                         CONSTRAINT chk_coupons_value CHECK (rate IS NOT NULL OR amount IS NOT NULL),
+                         CONSTRAINT chk_coupons_max_redemptions CHECK (max_redemptions IS NULL OR max_redemptions >= 0),
+                         CONSTRAINT chk_coupons_window CHECK (starts_at IS NULL OR ends_at IS NULL OR ends_at > starts_at)
+);
+
+-- One coupon per order; order_id is unique so a batch written twice adds nothing.
+CREATE TABLE coupon_redemptions (
+                                    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                                    coupon_id BIGINT NOT NULL REFERENCES coupons (id),
+                                    order_id BIGINT NOT NULL UNIQUE REFERENCES orders (id) ON DELETE CASCADE,
+                                    user_id BIGINT NOT NULL,
+                                    redeemed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_coupon_redemptions_coupon_id ON coupon_redemptions (coupon_id);
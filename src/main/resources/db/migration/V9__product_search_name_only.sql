@@ -0,0 +1,7 @@
+-- Name search matches the name only: rebuild the full-text index of V2 on the name tsvector. The
+-- expression must stay identical to the one rendered by ProductSearchFunctions, or the planner
+-- will not use it.
+DROP INDEX idx_products_search;
+
+CREATE INDEX idx_products_search ON products
+    USING gin (to_tsvector('english', coalesce(name, '')));
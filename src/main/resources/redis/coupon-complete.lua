@@ -0,0 +1,15 @@
+-- Drops a written batch once Postgres has committed it, takes its redemptions off the pending
+-- counts and bumps the epoch so that concurrent seeds which counted before that commit retry.
+-- KEYS[1] writing list, KEYS[2] pending hash, KEYS[3] epoch, KEYS[4] lease, KEYS[5] batch id
+-- ARGV[1] run id, then a flat list of coupon id, redemptions written
+-- Returns 0 and leaves the batch and pending counts alone if the run's lease has expired.
+if redis.call('GET', KEYS[4]) ~= ARGV[1] then
+    return 0
+end
+for i = 2, #ARGV, 2 do
+    if redis.call('HINCRBY', KEYS[2], ARGV[i], -tonumber(ARGV[i + 1])) <= 0 then
+        redis.call('HDEL', KEYS[2], ARGV[i])
+    end
+end
+redis.call('DEL', KEYS[1], KEYS[4], KEYS[5])
+return redis.call('INCR', KEYS[3])
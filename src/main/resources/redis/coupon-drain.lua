@@ -0,0 +1,25 @@
+-- Moves the queued redemptions aside for the batch writer and returns them, after the batch id.
+-- A batch gets its id when it is moved aside and keeps it until completed, so Postgres can tell
+-- whether it already wrote a batch that is returned again.
+-- The run that drains a batch leases it; while the lease lasts other runs get nothing, so two
+-- nodes never write the same batch. A batch left over from a failed run is returned again, to
+-- the same run or, once its lease has expired, to any run.
+-- KEYS[1] redemptions list, KEYS[2] writing list, KEYS[3] lease, KEYS[4] batch id
+-- ARGV[1] run id, ARGV[2] lease millis, ARGV[3] id for a new batch
+local owner = redis.call('GET', KEYS[3])
+if owner and owner ~= ARGV[1] then
+    return {}
+end
+if redis.call('EXISTS', KEYS[2]) == 0 then
+    if redis.call('EXISTS', KEYS[1]) == 0 then
+        return {}
+    end
+    redis.call('RENAME', KEYS[1], KEYS[2])
+    redis.call('SET', KEYS[4], ARGV[3])
+else
+    redis.call('SET', KEYS[4], ARGV[3], 'NX')
+end
+redis.call('SET', KEYS[3], ARGV[1], 'PX', ARGV[2])
+local batch = redis.call('LRANGE', KEYS[2], 0, -1)
+table.insert(batch, 1, redis.call('GET', KEYS[4]))
+return batch
@@ -0,0 +1,9 @@
+-- Queues the redemption of a committed order for the batch writer.
+-- KEYS[1] redemptions list, KEYS[2] pending hash (coupon id -> redemptions not yet in Postgres),
+-- KEYS[3] in-flight hash
+-- ARGV[1] coupon id, ARGV[2] redemption (couponId:orderId:userId:redeemedAtMillis)
+if redis.call('HINCRBY', KEYS[3], ARGV[1], -1) <= 0 then
+    redis.call('HDEL', KEYS[3], ARGV[1])
+end
+redis.call('RPUSH', KEYS[1], ARGV[2])
+return redis.call('HINCRBY', KEYS[2], ARGV[1], 1)
@@ -0,0 +1,25 @@
+-- Checks a coupon and takes one of its redemptions, or only checks it when ARGV[2] is 0.
+-- KEYS[1] coupon hash ({id, rate, amount, starts, ends, remaining}; no remaining means unlimited),
+-- KEYS[2] in-flight hash (coupon id -> redemptions taken whose order has not committed yet)
+-- ARGV[1] now (epoch millis), ARGV[2] redemptions to take (0 or 1)
+-- Returns {'MISSING'}, {'INACTIVE'}, {'EXHAUSTED'} or {'OK', id, rate, amount}
+local coupon = redis.call('HMGET', KEYS[1], 'id', 'rate', 'amount', 'starts', 'ends', 'remaining')
+if not coupon[1] then
+    return {'MISSING'}
+end
+local now = tonumber(ARGV[1])
+if (coupon[4] ~= '' and now < tonumber(coupon[4])) or (coupon[5] ~= '' and now >= tonumber(coupon[5])) then
+    return {'INACTIVE'}
+end
+if coupon[6] then
+    if tonumber(coupon[6]) < 1 then
+        return {'EXHAUSTED'}
+    end
+    if ARGV[2] ~= '0' then
+        redis.call('HINCRBY', KEYS[1], 'remaining', -tonumber(ARGV[2]))
+    end
+end
+if ARGV[2] ~= '0' then
+    redis.call('HINCRBY', KEYS[2], coupon[1], tonumber(ARGV[2]))
+end
+return {'OK', coupon[1], coupon[2], coupon[3]}
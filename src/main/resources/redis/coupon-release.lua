@@ -0,0 +1,10 @@
+-- Gives back a redemption whose order transaction rolled back.
+-- KEYS[1] coupon hash, KEYS[2] in-flight hash
+-- ARGV[1] coupon id
+if redis.call('HINCRBY', KEYS[2], ARGV[1], -1) <= 0 then
+    redis.call('HDEL', KEYS[2], ARGV[1])
+end
+if redis.call('HEXISTS', KEYS[1], 'remaining') == 1 then
+    return redis.call('HINCRBY', KEYS[1], 'remaining', 1)
+end
+return 0
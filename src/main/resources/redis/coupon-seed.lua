@@ -0,0 +1,32 @@
+-- Loads a coupon into the ledger from its Postgres row and committed redemptions.
+-- KEYS[1] coupon hash, KEYS[2] pending hash, KEYS[3] epoch, KEYS[4] batch id, KEYS[5] writing list,
+-- KEYS[6] in-flight hash
+-- ARGV[1] coupon id, ARGV[2] max redemptions ('' for unlimited), ARGV[3] redemptions in Postgres,
+-- ARGV[4] rate (ppm), ARGV[5] amount (cents), ARGV[6] starts at, ARGV[7] ends at (epoch millis or ''),
+-- ARGV[8] epoch and ARGV[9] batch id ('' for none) seen before reading Postgres, ARGV[10] '1' if
+-- that read already saw the batch written
+-- Returns 1 if seeded, 0 if already present, -1 if a batch was drained or completed meanwhile
+-- (caller retries).
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+if (redis.call('GET', KEYS[3]) or '0') ~= ARGV[8] or (redis.call('GET', KEYS[4]) or '') ~= ARGV[9] then
+    return -1
+end
+redis.call('HSET', KEYS[1], 'id', ARGV[1], 'rate', ARGV[4], 'amount', ARGV[5],
+        'starts', ARGV[6], 'ends', ARGV[7])
+if ARGV[2] ~= '' then
+    local unwritten = tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0')
+            + tonumber(redis.call('HGET', KEYS[6], ARGV[1]) or '0')
+    if ARGV[10] == '1' then
+        -- The written batch is already in ARGV[3] but still pending until it is completed.
+        local prefix = ARGV[1] .. ':'
+        for _, entry in ipairs(redis.call('LRANGE', KEYS[5], 0, -1)) do
+            if string.sub(entry, 1, #prefix) == prefix then
+                unwritten = unwritten - 1
+            end
+        end
+    end
+    redis.call('HSET', KEYS[1], 'remaining', tonumber(ARGV[2]) - tonumber(ARGV[3]) - unwritten)
+end
+return 1
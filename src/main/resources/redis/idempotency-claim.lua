@@ -0,0 +1,10 @@
+-- Claims an idempotency key for one request, or returns what is already stored under it.
+-- KEYS[1] record hash
+-- ARGV[1] request fingerprint, ARGV[2] claim owner, ARGV[3] claim TTL in milliseconds
+-- Returns an empty list if claimed, otherwise {state, fingerprint, status, location, body} of the existing record.
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    redis.call('HSET', KEYS[1], 'state', 'pending', 'fingerprint', ARGV[1], 'owner', ARGV[2])
+    redis.call('PEXPIRE', KEYS[1], ARGV[3])
+    return {}
+end
+return redis.call('HMGET', KEYS[1], 'state', 'fingerprint', 'status', 'location', 'body')
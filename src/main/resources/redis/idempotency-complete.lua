@@ -0,0 +1,10 @@
+-- Stores the response of a claimed request so duplicates can replay it.
+-- KEYS[1] record hash
+-- ARGV[1] claim owner, ARGV[2] status, ARGV[3] location ('' if none), ARGV[4] body, ARGV[5] replay window in milliseconds
+-- Returns 1 if stored, 0 if the claim expired or belongs to another request.
+if redis.call('HGET', KEYS[1], 'owner') ~= ARGV[1] or redis.call('HGET', KEYS[1], 'state') ~= 'pending' then
+    return 0
+end
+redis.call('HSET', KEYS[1], 'state', 'done', 'status', ARGV[2], 'location', ARGV[3], 'body', ARGV[4])
+redis.call('PEXPIRE', KEYS[1], ARGV[5])
+return 1
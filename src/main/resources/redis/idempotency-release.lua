@@ -0,0 +1,8 @@
+-- Drops a claim whose request failed, so the client can retry with the same key.
+-- KEYS[1] record hash
+-- ARGV[1] claim owner
+-- Returns 1 if released, 0 if the claim expired or belongs to another request.
+if redis.call('HGET', KEYS[1], 'owner') ~= ARGV[1] or redis.call('HGET', KEYS[1], 'state') ~= 'pending' then
+    return 0
+end
+return redis.call('DEL', KEYS[1])
@@ -0,0 +1,10 @@
+-- Drops a reconciled batch once Postgres has committed it, and bumps the epoch so that
+-- concurrent seeds which read Postgres before that commit are rejected and retried.
+-- KEYS[1] reconciling hash, KEYS[2] epoch, KEYS[3] lease, KEYS[4] batch id
+-- ARGV[1] run id
+-- Returns 0 and leaves the batch alone if the run's lease has expired.
+if redis.call('GET', KEYS[3]) ~= ARGV[1] then
+    return 0
+end
+redis.call('DEL', KEYS[1], KEYS[3], KEYS[4])
+return redis.call('INCR', KEYS[2])
@@ -0,0 +1,17 @@
+-- Returns, per product, the quantity Postgres should hold once everything is reconciled:
+-- ledger stock + pending + reconciling, or false when the product is not in the ledger.
+-- KEYS[1..n] ledger hashes, KEYS[n+1] pending hash, KEYS[n+2] reconciling hash
+-- ARGV[1..n] product ids
+local n = #KEYS - 2
+local expected = {}
+for i = 1, n do
+    local stock = redis.call('HGET', KEYS[i], 'stock')
+    if stock then
+        expected[i] = tostring(tonumber(stock)
+                + tonumber(redis.call('HGET', KEYS[n + 1], ARGV[i]) or '0')
+                + tonumber(redis.call('HGET', KEYS[n + 2], ARGV[i]) or '0'))
+    else
+        expected[i] = false
+    end
+end
+return expected
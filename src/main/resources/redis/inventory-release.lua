@@ -0,0 +1,13 @@
+-- Gives back units of a reservation whose order transaction rolled back.
+-- KEYS[1..n]  ledger hash per product, KEYS[n+1] pending hash
+-- ARGV[1..n]  quantities, ARGV[n+1..2n] product ids
+-- The pending counter may go negative if the reservation was already reconciled;
+-- the next reconciliation then adds the units back to Postgres.
+local n = #KEYS - 1
+for i = 1, n do
+    if redis.call('EXISTS', KEYS[i]) == 1 then
+        redis.call('HINCRBY', KEYS[i], 'stock', tonumber(ARGV[i]))
+    end
+    redis.call('HINCRBY', KEYS[n + 1], ARGV[n + i], -tonumber(ARGV[i]))
+end
+return n
@@ -0,0 +1,34 @@
+-- Reserves every line of an order atomically.
+-- KEYS[1..n]  ledger hash per product ({stock, price})
+-- KEYS[n+1]   pending hash (product id -> units not yet written to Postgres)
+-- ARGV[1..n]  requested quantities, ARGV[n+1..2n] product ids
+-- Returns {'MISSING', ids...}, {'SHORT', ids...} or {'OK', prices...}
+local n = #KEYS - 1
+
+local missing = {'MISSING'}
+for i = 1, n do
+    if redis.call('EXISTS', KEYS[i]) == 0 then
+        missing[#missing + 1] = ARGV[n + i]
+    end
+end
+if #missing > 1 then
+    return missing
+end
+
+local short = {'SHORT'}
+for i = 1, n do
+    if tonumber(redis.call('HGET', KEYS[i], 'stock')) < tonumber(ARGV[i]) then
+        short[#short + 1] = ARGV[n + i]
+    end
+end
+if #short > 1 then
+    return short
+end
+
+local prices = {'OK'}
+for i = 1, n do
+    redis.call('HINCRBY', KEYS[i], 'stock', -tonumber(ARGV[i]))
+    redis.call('HINCRBY', KEYS[n + 1], ARGV[n + i], tonumber(ARGV[i]))
+    prices[#prices + 1] = redis.call('HGET', KEYS[i], 'price')
+end
+return prices
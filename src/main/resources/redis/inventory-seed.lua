@@ -0,0 +1,20 @@
+-- Loads a product into the ledger from its committed Postgres row.
+-- KEYS[1] ledger hash, KEYS[2] pending hash, KEYS[3] reconciling hash, KEYS[4] epoch,
+-- KEYS[5] batch id
+-- ARGV[1] product id, ARGV[2] committed quantity, ARGV[3] price, ARGV[4] epoch and ARGV[5] batch
+-- id ('' for none) seen before reading Postgres, ARGV[6] '1' if that read already saw the batch
+-- applied
+-- Returns 1 if seeded, 0 if already present, -1 if a batch was drained or completed meanwhile
+-- (caller retries).
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+if (redis.call('GET', KEYS[4]) or '0') ~= ARGV[4] or (redis.call('GET', KEYS[5]) or '') ~= ARGV[5] then
+    return -1
+end
+local inflight = tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0')
+if ARGV[6] ~= '1' then
+    inflight = inflight + tonumber(redis.call('HGET', KEYS[3], ARGV[1]) or '0')
+end
+redis.call('HSET', KEYS[1], 'stock', tonumber(ARGV[2]) - inflight, 'price', ARGV[3])
+return 1
@@ -0,0 +1,7 @@
+-- Gives up a lease taken by a drain script whose batch failed to commit, so the next run can
+-- retry it without waiting for the lease to expire.
+-- KEYS[1] lease, ARGV[1] run id
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,109 @@
+package com.faisal.benchmark;
+
+import com.faisal.cache.CacheCodec;
+import com.faisal.cache.CacheValueSerializers;
+import com.faisal.cache.ProductCacheProperties;
+import com.faisal.dto.CachedPage;
+import com.faisal.dto.response.ProductResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Encode/decode cost of the cache value codecs for a single product and a 20-item search page.
+ * Bytes per entry are printed before the run.
+ *
+ * <pre>
+ * ./mvnw -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.faisal.benchmark.CacheCodecBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    static final ProductResponse PRODUCT = product(1);
+
+    static final CachedPage<ProductResponse> PAGE = new CachedPage<>(
+            IntStream.range(1, 21).mapToObj(CacheCodecBenchmark::product).toList(), 0, 20, 340);
+
+    @Param({"json", "binary", "binary-lz4"})
+    public String codec;
+
+    private RedisSerializer<Object> serializer;
+    private byte[] productBytes;
+    private byte[] pageBytes;
+
+    @Setup
+    public void setUp() {
+        serializer = serializer(codec);
+        productBytes = serializer.serialize(PRODUCT);
+        pageBytes = serializer.serialize(PAGE);
+    }
+
+    @Benchmark
+    public byte[] encodeProduct() {
+        return serializer.serialize(PRODUCT);
+    }
+
+    @Benchmark
+    public Object decodeProduct() {
+        return serializer.deserialize(productBytes);
+    }
+
+    @Benchmark
+    public byte[] encodePage() {
+        return serializer.serialize(PAGE);
+    }
+
+    @Benchmark
+    public Object decodePage() {
+        return serializer.deserialize(pageBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (String codec : new String[]{"json", "binary", "binary-lz4"}) {
+            RedisSerializer<Object> serializer = serializer(codec);
+            System.out.printf("%-10s product=%4d bytes, page(20)=%5d bytes%n",
+                    codec, serializer.serialize(PRODUCT).length, serializer.serialize(PAGE).length);
+        }
+        new Runner(new OptionsBuilder().include(CacheCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static RedisSerializer<Object> serializer(String codec) {
+        CacheValueSerializers serializers = new CacheValueSerializers(new ProductCacheProperties());
+        return switch (codec) {
+            case "json" -> serializers.create(CacheCodec.JSON, null);
+            case "binary" -> serializers.create(CacheCodec.BINARY, null);
+            case "binary-lz4" -> serializers.create(CacheCodec.BINARY, DataSize.ofKilobytes(1));
+            default -> throw new IllegalArgumentException(codec);
+        };
+    }
+
+    private static ProductResponse product(int i) {
+        return new ProductResponse((long) i, "Wireless mouse " + i,
+                "Ergonomic 2.4 GHz wireless mouse with USB receiver and silent buttons",
+                new BigDecimal("24.99").add(BigDecimal.valueOf(i)), 100 + i);
+    }
+}
@@ -0,0 +1,150 @@
+package com.faisal.benchmark;
+
+import com.faisal.discount.DiscountPlan;
+import com.faisal.enums.DiscountScope;
+import com.faisal.enums.Role;
+import com.faisal.model.DiscountRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation per order for the discount of a premium customer's order of 1, 10 and 100
+ * lines with 1,000 rules, 300 of them promotions running for up to a day around the order:
+ * {@code BigDecimal} arithmetic over every rule in turn, as the handler chain did with its three
+ * rules, against the compiled {@link DiscountPlan}; and the time to compile the 1,000 rules.
+ *
+ * <pre>
+ * ./mvnw -q test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath com.faisal.benchmark.DiscountPlanBenchmark"
+ * </pre>
+ *
+ * <p>On a single-core VM with JDK 17, time and bytes allocated per order ({@code -prof gc}):
+ * <pre>
+ * lines  everyRule                  plan
+ *     1     10,725 ns,    26,960 B    294 ns, 0 B
+ *    10     35,731 ns,   128,200 B    582 ns, 0 B
+ *   100    224,583 ns, 1,013,560 B  3,919 ns, 0 B
+ * </pre>
+ * Several dozen of the promotions apply at the order's time, and each is applied one by one,
+ * so they account for most of the plan's time. Compiling the 1,000 rules takes about 1 ms and
+ * 360 KB, once per change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscountPlanBenchmark {
+
+    private static final int RULES = 1_000;
+    private static final int PROMOTIONS = 300;
+    private static final Instant AT = Instant.parse("2026-01-01T12:00:00Z");
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private List<DiscountRule> rules;
+    private DiscountPlan plan;
+    private long subtotal;
+    private long[] lineTotals;
+    private BigDecimal subtotalAmount;
+    private BigDecimal[] lineAmounts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rules = new ArrayList<>(RULES);
+        for (int i = 0; i < RULES; i++) {
+            rules.add(DiscountRule.builder()
+                    .name("Rule " + i)
+                    .role(random.nextBoolean() ? null : Role.values()[random.nextInt(Role.values().length)])
+                    .scope(random.nextInt(3) == 0 ? DiscountScope.LINE : DiscountScope.ORDER)
+                    .threshold(random.nextInt(5) == 0 ? null : BigDecimal.valueOf(random.nextInt(500_000), 2))
+                    .rate(BigDecimal.valueOf(random.nextInt(1_000), 6))
+                    .amount(random.nextBoolean() ? BigDecimal.valueOf(random.nextInt(1_000), 2) : null)
+                    .build());
+            if (i < PROMOTIONS) {
+                Instant start = AT.plusSeconds(random.nextInt(2 * 86_400) - 86_400);
+                rules.get(i).setStartsAt(start);
+                rules.get(i).setEndsAt(start.plusSeconds(1 + random.nextInt(86_400)));
+            }
+        }
+        plan = DiscountPlan.compile(rules);
+
+        lineTotals = new long[lines];
+        lineAmounts = new BigDecimal[lines];
+        for (int i = 0; i < lines; i++) {
+            lineTotals[i] = 100 + random.nextInt(200_000);
+            lineAmounts[i] = BigDecimal.valueOf(lineTotals[i], 2);
+            subtotal += lineTotals[i];
+        }
+        subtotalAmount = BigDecimal.valueOf(subtotal, 2);
+    }
+
+    @Benchmark
+    public BigDecimal everyRule() {
+        BigDecimal discount = BigDecimal.ZERO;
+        for (DiscountRule rule : rules) {
+            if (rule.getRole() != null && rule.getRole() != Role.PREMIUM_USER) {
+                continue;
+            }
+            if (rule.getStartsAt() != null && (rule.getStartsAt().isAfter(AT) || !rule.getEndsAt().isAfter(AT))) {
+                continue;
+            }
+            if (rule.getScope() == DiscountScope.ORDER) {
+                discount = discount.add(ruleDiscount(rule, subtotalAmount));
+            } else {
+                for (BigDecimal lineAmount : lineAmounts) {
+                    discount = discount.add(ruleDiscount(rule, lineAmount));
+                }
+            }
+        }
+        return discount;
+    }
+
+    @Benchmark
+    public long plan() {
+        return plan.discount(Role.PREMIUM_USER, AT, subtotal, lineTotals);
+    }
+
+    @Benchmark
+    public DiscountPlan compile() {
+        return DiscountPlan.compile(rules);
+    }
+
+    private static BigDecimal ruleDiscount(DiscountRule rule, BigDecimal total) {
+        if (rule.getThreshold() != null && total.compareTo(rule.getThreshold()) <= 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal discount = total.multiply(rule.getRate());
+        return rule.getAmount() == null ? discount : discount.add(rule.getAmount());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DiscountPlanBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,160 @@
+package com.faisal.benchmark;
+
+import com.faisal.discount.DiscountPlan;
+import com.faisal.enums.DiscountScope;
+import com.faisal.enums.Role;
+import com.faisal.model.DiscountRule;
+import com.faisal.pricing.Money;
+import com.faisal.pricing.OrderPricing;
+import com.faisal.pricing.PricedOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation per order for pricing a premium customer's order of 1, 10 and 100 lines:
+ * the {@code BigDecimal} pricing {@code OrderService} did before (discount chain, subtotal, and a
+ * share and rounding per line), the {@code long} cents kernel alone, and the kernel with the
+ * conversions {@code OrderService} does around it, from unit prices in and to line discounts,
+ * line totals and the order total out.
+ *
+ * <pre>
+ * ./mvnw -q test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath com.faisal.benchmark.OrderPricingBenchmark"
+ * </pre>
+ *
+ * <p>On a single-core VM with JDK 17, time and bytes allocated per order ({@code -prof gc}):
+ * <pre>
+ * lines  legacy             kernel           kernelAtBoundary
+ *     1     160 ns,    536 B     62 ns,  168 B     98 ns,    312 B
+ *    10   1,193 ns,  3,760 B    189 ns,  480 B    390 ns,  1,416 B
+ *   100  11,655 ns, 35,488 B  2,829 ns, 3,360 B  3,631 ns, 12,160 B
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderPricingBenchmark {
+
+    private static final BigDecimal HIGH_LINE_THRESHOLD = new BigDecimal("100.00");
+    private static final BigDecimal HIGH_LINE_AMOUNT = new BigDecimal("50.00");
+    private static final BigDecimal HIGH_VALUE_THRESHOLD = new BigDecimal("500.00");
+    private static final BigDecimal HIGH_VALUE_RATE = new BigDecimal("0.05");
+    private static final BigDecimal PREMIUM_RATE = new BigDecimal("0.10");
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private DiscountPlan discountPlan;
+    private BigDecimal[] prices;
+    private int[] quantities;
+    private long[] unitPrices;
+
+    @Setup
+    public void setUp() {
+        discountPlan = DiscountPlan.compile(List.of(
+                DiscountRule.builder().name("Premium customers").role(Role.PREMIUM_USER).scope(DiscountScope.ORDER)
+                        .rate(PREMIUM_RATE).build(),
+                DiscountRule.builder().name("High value orders").scope(DiscountScope.ORDER)
+                        .threshold(HIGH_VALUE_THRESHOLD).rate(HIGH_VALUE_RATE).build(),
+                DiscountRule.builder().name("High line items").scope(DiscountScope.LINE)
+                        .threshold(HIGH_LINE_THRESHOLD).amount(HIGH_LINE_AMOUNT).build()));
+
+        Random random = new Random(42);
+        prices = new BigDecimal[lines];
+        quantities = new int[lines];
+        unitPrices = new long[lines];
+        for (int i = 0; i < lines; i++) {
+            unitPrices[i] = 100 + random.nextInt(20_000);
+            prices[i] = BigDecimal.valueOf(unitPrices[i], 2);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        List<BigDecimal> lineTotals = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            lineTotals.add(prices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        BigDecimal subtotal = lineTotals.stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .setScale(2, RoundingMode.HALF_UP);
+
+        BigDecimal discount = subtotal.multiply(PREMIUM_RATE);
+        if (subtotal.compareTo(HIGH_VALUE_THRESHOLD) > 0) {
+            discount = discount.add(subtotal.multiply(HIGH_VALUE_RATE));
+        }
+        for (BigDecimal lineTotal : lineTotals) {
+            if (lineTotal.compareTo(HIGH_LINE_THRESHOLD) > 0) {
+                discount = discount.add(HIGH_LINE_AMOUNT);
+            }
+        }
+        if (discount.compareTo(subtotal) > 0) {
+            discount = subtotal;
+        }
+
+        BigDecimal orderTotal = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal lineTotal = prices[i].multiply(BigDecimal.valueOf(quantities[i])).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal share = lineTotal.divide(subtotal, 8, RoundingMode.HALF_UP);
+            BigDecimal lineDiscount = discount.multiply(share).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal lineAfterDiscount = lineTotal.subtract(lineDiscount);
+            blackhole.consume(lineDiscount);
+            orderTotal = orderTotal.add(lineAfterDiscount);
+        }
+        blackhole.consume(orderTotal.setScale(2, RoundingMode.HALF_UP));
+    }
+
+    @Benchmark
+    public PricedOrder kernel() {
+        return OrderPricing.price(unitPrices, quantities,
+                (subtotal, lineTotals) -> discountPlan.discount(Role.PREMIUM_USER, Instant.EPOCH, subtotal, lineTotals));
+    }
+
+    @Benchmark
+    public void kernelAtBoundary(Blackhole blackhole) {
+        long[] cents = new long[lines];
+        for (int i = 0; i < lines; i++) {
+            cents[i] = Money.toCents(prices[i]);
+        }
+        PricedOrder priced = OrderPricing.price(cents, quantities,
+                (subtotal, lineTotals) -> discountPlan.discount(Role.PREMIUM_USER, Instant.EPOCH, subtotal, lineTotals));
+        for (int i = 0; i < lines; i++) {
+            blackhole.consume(Money.fromCents(priced.lineDiscounts()[i]));
+            blackhole.consume(Money.fromCents(priced.lineTotalAfterDiscount(i)));
+        }
+        blackhole.consume(Money.fromCents(priced.total()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderPricingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
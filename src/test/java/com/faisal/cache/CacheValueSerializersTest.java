@@ -0,0 +1,151 @@
+package com.faisal.cache;
+
+import com.faisal.dto.CachedPage;
+import com.faisal.dto.response.OrderItemResponse;
+import com.faisal.dto.response.OrderResponse;
+import com.faisal.dto.response.ProductResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheValueSerializersTest {
+
+    private final CacheValueSerializers serializers = new CacheValueSerializers(new ProductCacheProperties());
+
+    private final ProductResponse product =
+            new ProductResponse(42L, "Laptop", "14\" ultrabook – 16 GB", new BigDecimal("1299.99"), 7);
+
+    @Test
+    void binary_shouldRoundTripProductWithNulls() {
+        RedisSerializer<Object> binary = serializers.create(CacheCodec.BINARY, null);
+        ProductResponse sparse = new ProductResponse(1L, "Pen", null, null, 0);
+
+        assertThat(binary.deserialize(binary.serialize(product))).isEqualTo(product);
+        assertThat(binary.deserialize(binary.serialize(sparse))).isEqualTo(sparse);
+    }
+
+    @Test
+    void binary_shouldRoundTripPages() {
+        RedisSerializer<Object> binary = serializers.create(CacheCodec.BINARY, null);
+        CachedPage<ProductResponse> cached = new CachedPage<>(List.of(product), 2, 10, 21);
+        Page<ProductResponse> page = new PageImpl<>(List.of(product),
+                PageRequest.of(1, 1, Sort.by(Sort.Order.desc("price"), Sort.Order.asc("name").ignoreCase())), 9);
+
+        assertThat(binary.deserialize(binary.serialize(cached))).isEqualTo(cached);
+
+        Page<?> decoded = (Page<?>) binary.deserialize(binary.serialize(page));
+        assertThat(decoded.getContent()).isEqualTo(page.getContent());
+        assertThat(decoded.getPageable()).isEqualTo(page.getPageable());
+        assertThat(decoded.getTotalElements()).isEqualTo(page.getTotalElements());
+    }
+
+    @Test
+    void binary_shouldBeSmallerThanJson() {
+        byte[] json = serializers.create(CacheCodec.JSON, null).serialize(product);
+        byte[] binary = serializers.create(CacheCodec.BINARY, null).serialize(product);
+
+        assertThat(binary.length).isLessThan(json.length / 2);
+    }
+
+    @Test
+    void binary_shouldFallBackToJsonForOtherValues() {
+        RedisSerializer<Object> binary = serializers.create(CacheCodec.BINARY, null);
+
+        assertThat(binary.deserialize(binary.serialize(NullValue.INSTANCE))).isInstanceOf(NullValue.class);
+        assertThat(binary.deserialize(binary.serialize(new ArrayList<>(List.of("a", "b"))))).isEqualTo(List.of("a", "b"));
+    }
+
+    @Test
+    void binary_shouldRoundTripOrdersAsJson() {
+        RedisSerializer<Object> binary = serializers.create(CacheCodec.BINARY, null);
+        OrderResponse order = new OrderResponse(7L, 3L, new BigDecimal("180.00"), new BigDecimal("20.00"),
+                Instant.parse("2026-01-02T03:04:05.123456Z"),
+                List.of(new OrderItemResponse(42L, 2, new BigDecimal("100.00"))));
+
+        assertThat(binary.deserialize(binary.serialize(order))).isEqualTo(order);
+    }
+
+    @Test
+    void compression_shouldOnlyApplyAboveThreshold() {
+        RedisSerializer<Object> plain = serializers.create(CacheCodec.BINARY, null);
+        RedisSerializer<Object> compressed = serializers.create(CacheCodec.BINARY, DataSize.ofBytes(256));
+        CachedPage<ProductResponse> page = new CachedPage<>(IntStream.range(0, 20)
+                .mapToObj(i -> new ProductResponse((long) i, "Product " + i, "Same description for all", BigDecimal.TEN, i))
+                .toList(), 0, 20, 20);
+
+        assertThat(compressed.serialize(product)).isEqualTo(plain.serialize(product));
+        assertThat(compressed.serialize(page)).hasSizeLessThan(plain.serialize(page).length);
+        assertThat(compressed.deserialize(compressed.serialize(page))).isEqualTo(page);
+    }
+
+    @Test
+    void values_ofAnotherCodec_shouldReadAsMisses() {
+        RedisSerializer<Object> json = serializers.create(CacheCodec.JSON, null);
+        RedisSerializer<Object> binary = serializers.create(CacheCodec.BINARY, null);
+        RedisSerializer<Object> compressed = serializers.create(CacheCodec.BINARY, DataSize.ofBytes(1));
+
+        assertThat(binary.deserialize(json.serialize(product))).isNull();
+        assertThat(json.deserialize(binary.serialize(product))).isNull();
+        assertThat(json.deserialize(compressed.serialize(product))).isNull();
+        assertThat(binary.deserialize(compressed.serialize(product))).isNull();
+    }
+
+    @Test
+    void compressed_withImplausibleLength_shouldReadAsMiss() {
+        RedisSerializer<Object> compressed = serializers.create(CacheCodec.BINARY, DataSize.ofBytes(1));
+        byte[] bytes = compressed.serialize(product);
+
+        ByteBuffer.wrap(bytes, 1, 4).putInt(Integer.MAX_VALUE);
+        assertThat(compressed.deserialize(bytes)).isNull();
+        ByteBuffer.wrap(bytes, 1, 4).putInt(-1);
+        assertThat(compressed.deserialize(bytes)).isNull();
+        ByteBuffer.wrap(bytes, 1, 4).putInt(bytes.length * 1_000);
+        assertThat(compressed.deserialize(bytes)).isNull();
+    }
+
+    @Test
+    void binary_withImplausibleLengths_shouldFailAsSerializationError() {
+        RedisSerializer<Object> binary = serializers.create(CacheCodec.BINARY, null);
+        byte[] page = binary.serialize(new CachedPage<>(List.of(product), 0, 20, 1));
+
+        // Element count of the page content, then the length of the first product's name.
+        assertThatThrownBy(() -> binary.deserialize(withVarLong(page, 3, 1, -1L)))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> binary.deserialize(withVarLong(page, 3, 1, 1L << 40)))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> binary.deserialize(withVarLong(page, 6, 1, -1L)))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> binary.deserialize(withVarLong(page, 6, 1, page.length)))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    /** Replaces the {@code width}-byte varint at {@code offset} with {@code value}. */
+    private static byte[] withVarLong(byte[] bytes, int offset, int width, long value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(bytes, 0, offset);
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+        out.write(bytes, offset + width, bytes.length - offset - width);
+        return out.toByteArray();
+    }
+}
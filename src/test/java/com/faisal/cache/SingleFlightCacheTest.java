@@ -0,0 +1,63 @@
+package com.faisal.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightCacheTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("products"),
+            Duration.ofMinutes(1), Duration.ZERO, Duration.ofMillis(100), Runnable::run);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void get_whileAnotherLoadIsRunning_shouldShareItsResult() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CompletableFuture<String> release = new CompletableFuture<>();
+        Future<String> leader = executor.submit(() -> cache.get("key", () -> {
+            loading.countDown();
+            return release.get(5, TimeUnit.SECONDS);
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> cache.get("key", () -> "own"));
+        release.complete("shared");
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("shared");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("shared");
+    }
+
+    @Test
+    void get_whenAnotherLoadHangs_shouldLoadItself() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> cache.get("key", () -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "slow";
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(cache.get("key", () -> "own")).isEqualTo("own");
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(cache.get("key", String.class)).isEqualTo("slow");
+    }
+}
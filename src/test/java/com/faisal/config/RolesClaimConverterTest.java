@@ -0,0 +1,66 @@
+package com.faisal.config;
+
+import com.faisal.dto.AuthUser;
+import com.faisal.enums.Role;
+import com.faisal.exception.BadRequestException;
+import com.faisal.security.AuthUserAuthenticationToken;
+import com.faisal.security.SecurityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RolesClaimConverterTest {
+
+    private final RolesClaimConverter converter = new RolesClaimConverter();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticate_shouldCarryUserFromClaims() {
+        Jwt jwt = jwt().claim("userId", 42L).claim("roles", List.of("PREMIUM_USER")).build();
+
+        AbstractAuthenticationToken authentication = converter.authenticate(jwt);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        assertThat(authentication).isInstanceOf(AuthUserAuthenticationToken.class);
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_PREMIUM_USER");
+        assertThat(((AuthUserAuthenticationToken) authentication).getToken()).isSameAs(jwt);
+        assertThat(SecurityUtils.currentUser()).isEqualTo(new AuthUser(42L, Role.PREMIUM_USER, "user@example.com"));
+    }
+
+    @Test
+    void authenticate_withoutUserId_shouldAuthenticateTokenOnly() {
+        Jwt jwt = jwt().claim("roles", List.of("USER")).build();
+
+        AbstractAuthenticationToken authentication = converter.authenticate(jwt);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        assertThat(authentication).isInstanceOf(JwtAuthenticationToken.class);
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+        assertThatThrownBy(SecurityUtils::currentUser)
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Missing claim: userId");
+    }
+
+    private static Jwt.Builder jwt() {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("user@example.com")
+                .jti("jti-1");
+    }
+}
@@ -0,0 +1,209 @@
+package com.faisal.discount;
+
+import com.faisal.enums.DiscountScope;
+import com.faisal.enums.Role;
+import com.faisal.model.DiscountRule;
+import com.faisal.pricing.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiscountPlanTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    @Test
+    void discount_shouldApplyOrderRulesStrictlyAboveTheirThreshold() {
+        DiscountPlan plan = DiscountPlan.compile(List.of(
+                rule(null, DiscountScope.ORDER, "500.00", "0.05", null)));
+
+        assertThat(plan.discount(Role.USER, NOW, 50000, new long[]{50000})).isZero();
+        assertThat(plan.discount(Role.USER, NOW, 50001, new long[]{50001})).isEqualTo(50001 * 50_000L);
+    }
+
+    @Test
+    void discount_roleRules_shouldOnlyApplyToThatRole() {
+        DiscountPlan plan = DiscountPlan.compile(List.of(
+                rule(Role.PREMIUM_USER, DiscountScope.ORDER, null, "0.10", null),
+                rule(null, DiscountScope.ORDER, null, null, "1.00")));
+
+        assertThat(plan.discount(Role.PREMIUM_USER, NOW, 10000, new long[]{10000})).isEqualTo(cents(1000 + 100));
+        assertThat(plan.discount(Role.USER, NOW, 10000, new long[]{10000})).isEqualTo(cents(100));
+        assertThat(plan.discount(null, NOW, 10000, new long[]{10000})).isEqualTo(cents(100));
+    }
+
+    @Test
+    void discount_lineRules_shouldApplyToEachLineAboveTheirThreshold() {
+        DiscountPlan plan = DiscountPlan.compile(List.of(
+                rule(null, DiscountScope.LINE, "100.00", "0.01", "5.00")));
+
+        // Only the 200.00 and 150.00 lines: 1% of each plus 5.00 each.
+        long discount = plan.discount(Role.USER, NOW, 40000, new long[]{20000, 15000, 5000});
+
+        assertThat(discount).isEqualTo(cents(200 + 150 + 500 + 500));
+    }
+
+    @Test
+    void discount_emptyOrFreeOrder_shouldBeZero() {
+        DiscountPlan plan = DiscountPlan.compile(List.of(rule(null, DiscountScope.ORDER, null, null, "5.00")));
+
+        assertThat(DiscountPlan.EMPTY.discount(Role.USER, NOW, 10000, new long[]{10000})).isZero();
+        assertThat(plan.discount(Role.USER, NOW, 0, new long[0])).isZero();
+    }
+
+    @Test
+    void discount_thousandRules_shouldMatchCheckingEveryRule() {
+        Random random = new Random(17);
+        List<DiscountRule> rules = randomRules(random, 1_000);
+        DiscountPlan plan = DiscountPlan.compile(rules);
+
+        for (int order = 0; order < 2_000; order++) {
+            long[] lineTotals = new long[1 + random.nextInt(10)];
+            long subtotal = 0;
+            for (int i = 0; i < lineTotals.length; i++) {
+                lineTotals[i] = 1 + random.nextInt(200_000);
+                subtotal += lineTotals[i];
+            }
+            Role role = random.nextInt(4) == 0 ? null : Role.values()[random.nextInt(Role.values().length)];
+            Instant at = NOW.plusSeconds(random.nextInt(2 * 86_400) - 86_400);
+
+            assertThat(plan.discount(role, at, subtotal, lineTotals)).isEqualTo(everyRule(rules, role, at, subtotal, lineTotals));
+        }
+    }
+
+    @Test
+    void discount_promotions_shouldOnlyApplyFromTheirStartUntilTheirEnd() {
+        DiscountRule promotion = rule(null, DiscountScope.ORDER, null, "0.20", null);
+        promotion.setStartsAt(NOW);
+        promotion.setEndsAt(NOW.plus(Duration.ofHours(1)));
+        DiscountRule launch = rule(null, DiscountScope.LINE, null, null, "1.00");
+        launch.setStartsAt(NOW.plus(Duration.ofMinutes(30)));
+        DiscountPlan plan = DiscountPlan.compile(List.of(promotion, launch, rule(null, DiscountScope.ORDER, null, null, "2.00")));
+
+        long[] lines = {5000, 5000};
+        assertThat(plan.discount(Role.USER, NOW.minusNanos(1000), 10000, lines)).isEqualTo(cents(200));
+        assertThat(plan.discount(Role.USER, NOW, 10000, lines)).isEqualTo(cents(200 + 2000));
+        assertThat(plan.discount(Role.USER, NOW.plus(Duration.ofMinutes(45)), 10000, lines)).isEqualTo(cents(200 + 2000 + 200));
+        assertThat(plan.discount(Role.USER, NOW.plus(Duration.ofHours(1)), 10000, lines)).isEqualTo(cents(200 + 200));
+    }
+
+    @Test
+    void discount_overlappingPromotions_shouldAllApply() {
+        List<DiscountRule> promotions = new ArrayList<>();
+        for (int hour = 0; hour < 500; hour++) {
+            DiscountRule promotion = rule(hour % 2 == 0 ? Role.PREMIUM_USER : null, DiscountScope.ORDER, null, null, "0.01");
+            promotion.setStartsAt(NOW.plus(Duration.ofHours(hour)));
+            promotion.setEndsAt(NOW.plus(Duration.ofHours(hour + 24)));
+            promotions.add(promotion);
+        }
+        DiscountPlan plan = DiscountPlan.compile(promotions);
+
+        // Hours 77 to 100 have started and not ended: 24 promotions, half of them for premium customers.
+        Instant at = NOW.plus(Duration.ofHours(100)).plusSeconds(1);
+        assertThat(plan.discount(Role.PREMIUM_USER, at, 10000, new long[]{10000})).isEqualTo(cents(24));
+        assertThat(plan.discount(Role.USER, at, 10000, new long[]{10000})).isEqualTo(cents(12));
+    }
+
+    @Test
+    void compile_invalidRules_shouldBeRejected() {
+        assertThatThrownBy(() -> DiscountPlan.compile(List.of(rule(null, DiscountScope.ORDER, null, "0.1234567", null))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("6 decimals");
+        assertThatThrownBy(() -> DiscountPlan.compile(List.of(rule(null, DiscountScope.ORDER, null, "1.5", null))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("between 0 and 1");
+        assertThatThrownBy(() -> DiscountPlan.compile(List.of(rule(null, DiscountScope.LINE, "10.001", null, "1.00"))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("threshold must be whole cents");
+        assertThatThrownBy(() -> DiscountPlan.compile(List.of(rule(null, DiscountScope.LINE, null, null, "-1.00"))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("amount cannot be negative");
+        assertThatThrownBy(() -> DiscountPlan.compile(List.of(rule(null, DiscountScope.ORDER, "10.00", null, null))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("rate or amount");
+        assertThatThrownBy(() -> DiscountPlan.compile(List.of(rule(null, null, null, "0.10", null))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("scope");
+
+        DiscountRule backwards = rule(null, DiscountScope.ORDER, null, "0.10", null);
+        backwards.setStartsAt(NOW);
+        backwards.setEndsAt(NOW);
+        assertThatThrownBy(() -> DiscountPlan.compile(List.of(backwards)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("end must be after start");
+    }
+
+    @Test
+    void hasSameRules_shouldCompareWhatRulesDoNotTheirNames() {
+        DiscountPlan plan = DiscountPlan.compile(List.of(rule(null, DiscountScope.ORDER, "500.00", "0.05", null)));
+
+        DiscountRule renamed = rule(null, DiscountScope.ORDER, "500.00", "0.050", null);
+        renamed.setName("Renamed");
+        assertThat(plan.hasSameRules(DiscountPlan.compile(List.of(renamed)))).isTrue();
+        assertThat(plan.hasSameRules(DiscountPlan.compile(List.of(rule(null, DiscountScope.ORDER, "400.00", "0.05", null))))).isFalse();
+        assertThat(plan.hasSameRules(DiscountPlan.EMPTY)).isFalse();
+    }
+
+    /**
+     * Rules over every role and both scopes, a fifth of them without a threshold and a third of
+     * them promotions running for up to a day around {@link #NOW}.
+     */
+    private static List<DiscountRule> randomRules(Random random, int count) {
+        List<DiscountRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Role role = random.nextBoolean() ? null : Role.values()[random.nextInt(Role.values().length)];
+            DiscountScope scope = random.nextInt(3) == 0 ? DiscountScope.LINE : DiscountScope.ORDER;
+            String threshold = random.nextInt(5) == 0 ? null : BigDecimal.valueOf(random.nextInt(500_000), 2).toPlainString();
+            String rate = random.nextBoolean() ? BigDecimal.valueOf(random.nextInt(1_000), 6).toPlainString() : null;
+            String amount = rate == null || random.nextBoolean() ? BigDecimal.valueOf(random.nextInt(1_000), 2).toPlainString() : null;
+            DiscountRule rule = rule(role, scope, threshold, rate, amount);
+            if (random.nextInt(3) == 0) {
+                Instant start = NOW.plusSeconds(random.nextInt(2 * 86_400) - 86_400);
+                rule.setStartsAt(random.nextInt(4) == 0 ? null : start);
+                rule.setEndsAt(random.nextInt(4) == 0 ? null : start.plusSeconds(1 + random.nextInt(86_400)));
+            }
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    /** The discount worked out one rule at a time, checking every rule against the order. */
+    private static long everyRule(List<DiscountRule> rules, Role role, Instant at, long subtotal, long[] lineTotals) {
+        long discount = 0;
+        for (DiscountRule rule : rules) {
+            if (rule.getRole() != null && rule.getRole() != role) {
+                continue;
+            }
+            if (rule.getStartsAt() != null && rule.getStartsAt().isAfter(at)
+                    || rule.getEndsAt() != null && !rule.getEndsAt().isAfter(at)) {
+                continue;
+            }
+            long threshold = rule.getThreshold() == null ? Long.MIN_VALUE : Money.toCents(rule.getThreshold());
+            long rate = rule.getRate() == null ? 0 : Money.toPartsPerMillion(rule.getRate());
+            long amount = rule.getAmount() == null ? 0 : Money.toCents(rule.getAmount()) * Money.MILLIONTHS_PER_CENT;
+            long[] totals = rule.getScope() == DiscountScope.ORDER ? new long[]{subtotal} : lineTotals;
+            for (long total : totals) {
+                if (total > threshold) {
+                    discount += total * rate + amount;
+                }
+            }
+        }
+        return discount;
+    }
+
+    private static DiscountRule rule(Role role, DiscountScope scope, String threshold, String rate, String amount) {
+        return DiscountRule.builder()
+                .name("rule")
+                .role(role)
+                .scope(scope)
+                .threshold(threshold == null ? null : new BigDecimal(threshold))
+                .rate(rate == null ? null : new BigDecimal(rate))
+                .amount(amount == null ? null : new BigDecimal(amount))
+                .build();
+    }
+
+    private static long cents(long cents) {
+        return cents * Money.MILLIONTHS_PER_CENT;
+    }
+}
@@ -1,62 +1,97 @@
 package com.faisal.discount;
 
+import com.faisal.coupon.CouponTerms;
+import com.faisal.enums.DiscountScope;
 import com.faisal.enums.Role;
+import com.faisal.model.DiscountRule;
+import com.faisal.pricing.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class DiscountServiceTest {
 
-    private List<DiscountHandler> handlers;
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    @Mock
+    private DiscountRules discountRules;
+
+    private List<DiscountRule> rules;
     private DiscountService discountService;
-    private DiscountProperties properties;
 
     @BeforeEach
     void setup() {
-        properties = new DiscountProperties();
-        
-        // Setup default properties for tests
-        properties.getHighLineItem().setThreshold(new BigDecimal("100.00"));
-        properties.getHighLineItem().setAmount(new BigDecimal("50.00"));
-        
-        properties.getHighValueOrder().setThreshold(new BigDecimal("500.00"));
-        properties.getHighValueOrder().setRate(new BigDecimal("0.05"));
-        
-        properties.getPremiumUser().setRate(new BigDecimal("0.10"));
-
-        handlers = new ArrayList<>();
-        discountService = new DiscountService(handlers);
+        rules = new ArrayList<>();
+        discountService = new DiscountService(discountRules);
     }
 
     @Test
     void totalDiscount_shouldApplyHighLineItemDiscount() {
-        // HighLineItemDiscountHandler has @Order(3)
-        // HighValueOrderDiscountHandler has @Order(2)
-        handlers.add(new HighValueOrderDiscountHandler(properties));
-        handlers.add(new HighLineItemDiscountHandler(properties));
+        rules.add(highValueOrder());
+        rules.add(highLineItem());
+        when(discountRules.plan()).thenReturn(DiscountPlan.compile(rules));
 
         // Subtotal = 150, one item = 150.
-        // HighValueOrderDiscountHandler: 150 < 500 -> 0
-        // HighLineItemDiscountHandler: 150 > 100 -> 50
-        BigDecimal result = discountService.totalDiscount(Role.USER, new BigDecimal("150.00"), List.of(new BigDecimal("150.00")));
-        assertThat(result).isEqualByComparingTo(new BigDecimal("50.00"));
+        // High value order: 150 < 500 -> 0
+        // High line item: 150 > 100 -> 50
+        assertThat(discountService.totalDiscount(Role.USER, NOW, 15_000L, new long[]{15_000L}))
+                .isEqualTo(5_000 * Money.MILLIONTHS_PER_CENT);
     }
 
     @Test
     void totalDiscount_shouldApplyMultipleHighLineItemDiscounts() {
-        handlers.add(new HighLineItemDiscountHandler(properties));
+        rules.add(highLineItem());
+        when(discountRules.plan()).thenReturn(DiscountPlan.compile(rules));
 
         // Subtotal = 250, items = 120, 130.
         // Both > 100 -> 50 + 50 = 100
-        BigDecimal result = discountService.totalDiscount(Role.USER, new BigDecimal("250.00"), List.of(new BigDecimal("120.00"), new BigDecimal("130.00")));
-        assertThat(result).isEqualByComparingTo(new BigDecimal("100.00"));
+        assertThat(discountService.totalDiscount(Role.USER, NOW, 25_000L, new long[]{12_000L, 13_000L}))
+                .isEqualTo(10_000 * Money.MILLIONTHS_PER_CENT);
+    }
+
+    @Test
+    void totalDiscount_shouldAddPremiumAndHighValueRates() {
+        rules.add(DiscountRule.builder().name("Premium").role(Role.PREMIUM_USER).scope(DiscountScope.ORDER)
+                .rate(new BigDecimal("0.10")).build());
+        rules.add(highValueOrder());
+        when(discountRules.plan()).thenReturn(DiscountPlan.compile(rules));
+
+        // Subtotal = 600 -> 10% + 5% = 90 for a premium user, 5% = 30 for anyone else.
+        assertThat(discountService.totalDiscount(Role.PREMIUM_USER, NOW, 60_000L, new long[]{60_000L}))
+                .isEqualTo(9_000 * Money.MILLIONTHS_PER_CENT);
+        assertThat(discountService.totalDiscount(Role.USER, NOW, 60_000L, new long[]{60_000L}))
+                .isEqualTo(3_000 * Money.MILLIONTHS_PER_CENT);
+    }
+
+    @Test
+    void totalDiscount_shouldAddCouponToRules() {
+        rules.add(highValueOrder());
+        when(discountRules.plan()).thenReturn(DiscountPlan.compile(rules));
+
+        // Subtotal = 600 -> 5% = 30 from the rules, 10% + 2.50 = 62.50 from the coupon.
+        CouponTerms coupon = new CouponTerms(1L, "SAVE10", 100_000, 250);
+        assertThat(discountService.totalDiscount(Role.USER, NOW, coupon, 60_000L, new long[]{60_000L}))
+                .isEqualTo(9_250 * Money.MILLIONTHS_PER_CENT);
+    }
+
+    private static DiscountRule highLineItem() {
+        return DiscountRule.builder().name("High line item").scope(DiscountScope.LINE)
+                .threshold(new BigDecimal("100.00")).amount(new BigDecimal("50.00")).build();
+    }
+
+    private static DiscountRule highValueOrder() {
+        return DiscountRule.builder().name("High value order").scope(DiscountScope.ORDER)
+                .threshold(new BigDecimal("500.00")).rate(new BigDecimal("0.05")).build();
     }
 }
@@ -0,0 +1,145 @@
+package com.faisal.export;
+
+import com.faisal.enums.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports {@code benchmark.export.rows} order items (10M by default, two per order) from
+ * PostgreSQL and checks that the live heap, sampled after a full GC every second, stays flat
+ * while they stream out.
+ *
+ * <p>Needs Docker, so it only runs with {@code -Dbenchmark.export=true}:
+ * {@code mvn test -Dtest=OrderExportBenchmarkTest -Dbenchmark.export=true}.
+ */
+@Slf4j
+@Testcontainers
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark.export", matches = "true")
+class OrderExportBenchmarkTest {
+
+    private static final long ROWS = Long.getLong("benchmark.export.rows", 10_000_000L);
+    private static final long MAX_HEAP_GROWTH = 32L * 1024 * 1024;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16"));
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        long orders = ROWS / 2;
+        jdbcTemplate.update("insert into orders (id, user_id, order_total, created_at) " +
+                "select g, g % 1000, 20.00, timestamp '2026-01-01' + g * interval '1 millisecond' " +
+                "from generate_series(1, ?) g", orders);
+        jdbcTemplate.update("insert into order_item (id, order_id, product_id, quantity, unit_price, discount_applied, total_price) " +
+                "select g, (g + 1) / 2, g % 500, 1, 10.00, 0.00, 10.00 from generate_series(1, ?) g", orders * 2);
+        jdbcTemplate.execute("analyze orders");
+        jdbcTemplate.execute("analyze order_item");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("truncate order_item, orders");
+    }
+
+    @Test
+    void export_shouldStreamWithFlatHeap() throws Exception {
+        for (ExportFormat format : ExportFormat.values()) {
+            OrderExporter exporter = new OrderExporter(dataSource, transactionManager, new ObjectMapper(), 1000);
+            CountingOutputStream out = new CountingOutputStream();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+            System.gc();
+            long baseline = memory.getHeapMemoryUsage().getUsed();
+            AtomicLong peak = new AtomicLong(baseline);
+            Thread sampler = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    System.gc();
+                    peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+            });
+
+            long start = System.nanoTime();
+            sampler.start();
+            try {
+                exporter.export(Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2027-01-01T00:00:00Z"), format)
+                        .writeTo(out);
+            } finally {
+                sampler.interrupt();
+                sampler.join();
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            log.info("{} export of {} rows: {} MB in {} ms, live heap {} MB -> peak {} MB", format, ROWS,
+                    out.bytes / (1024 * 1024), millis, baseline / (1024 * 1024), peak.get() / (1024 * 1024));
+            assertThat(out.lines).isEqualTo(format == ExportFormat.CSV ? ROWS + 1 : ROWS / 2);
+            assertThat(peak.get() - baseline).isLessThan(MAX_HEAP_GROWTH);
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -4,34 +4,49 @@ import com.faisal.dto.request.LoginRequest;
 import com.faisal.enums.Role;
 import com.faisal.model.User;
 import com.faisal.repository.UserRepository;
-import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+/**
+ * Logins run on their own threads, which cannot see a user saved in the rollback-only transaction
+ * of {@link BaseIntegrationTest}, so the class opts out of it.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 class AuthIntegrationTest extends BaseIntegrationTest {
 
+    private static final String EMAIL = "integration@test.com";
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    @BeforeEach
-    void setUp() {
-        userRepository.deleteAll();
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
     }
 
     @Test
     void fullAuthFlow_shouldWorkCorrectly() throws Exception {
         // 1. Setup: Create a user
-        String email = "integration@test.com";
+        String email = EMAIL;
         String password = "password123";
         userRepository.save(User.builder()
                 .name("Integration Test")
@@ -42,9 +57,11 @@ class AuthIntegrationTest extends BaseIntegrationTest {
 
         // 2. Login: Get Token
         LoginRequest loginRequest = new LoginRequest(email, password);
-        MvcResult loginResult = mockMvc.perform(post("/auth/login")
+        MvcResult loginStarted = mockMvc.perform(post("/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginRequest)))
+                .andReturn();
+        MvcResult loginResult = mockMvc.perform(asyncDispatch(loginStarted))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.token").exists())
@@ -75,6 +92,61 @@ class AuthIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.data.message").value("Token revoked"));
     }
 
+    @Test
+    void logoutAll_shouldRevokeEveryTokenOfTheUser() throws Exception {
+        userRepository.save(User.builder()
+                .name("Integration Test")
+                .email(EMAIL)
+                .password(passwordEncoder.encode("password123"))
+                .role(Role.USER)
+                .build());
+        String first = "Bearer " + login(EMAIL, "password123");
+        String second = "Bearer " + login(EMAIL, "password123");
+
+        mockMvc.perform(post("/auth/logout-all")
+                        .header("Authorization", first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value("Logged out everywhere"));
+
+        for (String authHeader : new String[]{first, second}) {
+            mockMvc.perform(get("/products")
+                            .header("Authorization", authHeader))
+                    .andExpect(status().isUnauthorized())
+                    .andExpect(jsonPath("$.data.message").value("Token revoked"));
+        }
+        mockMvc.perform(get("/products")
+                        .header("Authorization", "Bearer " + login(EMAIL, "password123")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void login_afterLogoutAllOnAnotherNode_shouldIssueTokenOfNewGeneration() throws Exception {
+        User user = userRepository.save(User.builder()
+                .name("Integration Test")
+                .email(EMAIL)
+                .password(passwordEncoder.encode("password123"))
+                .role(Role.USER)
+                .build());
+        String before = "Bearer " + login(EMAIL, "password123");
+
+        // Another node logged the user out everywhere; its message has not reached this node.
+        redisTemplate.opsForValue().increment("jwt:generation:" + user.getId());
+        String after = "Bearer " + login(EMAIL, "password123");
+
+        mockMvc.perform(get("/products")
+                        .header("Authorization", after))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/products")
+                        .header("Authorization", before))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logoutAll_withoutToken_shouldReturnUnauthorized() throws Exception {
+        mockMvc.perform(post("/auth/logout-all"))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     void accessProtectedResource_withoutToken_shouldReturnUnauthorized() throws Exception {
         mockMvc.perform(get("/products"))
@@ -84,10 +156,23 @@ class AuthIntegrationTest extends BaseIntegrationTest {
     @Test
     void login_withInvalidCredentials_shouldReturnBadRequest() throws Exception {
         LoginRequest loginRequest = new LoginRequest("nonexistent@test.com", "wrongpass");
-        mockMvc.perform(post("/auth/login")
+        MvcResult started = mockMvc.perform(post("/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginRequest)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.success").value(false));
     }
+
+    private String login(String email, String password) throws Exception {
+        MvcResult started = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest(email, password))))
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("data").get("token").asText();
+    }
 }
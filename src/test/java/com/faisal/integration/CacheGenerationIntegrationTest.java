@@ -0,0 +1,80 @@
+package com.faisal.integration;
+
+import com.faisal.cache.CacheGenerations;
+import com.faisal.cache.ProductCacheManager;
+import com.faisal.dto.request.CreateProductRequest;
+import com.faisal.model.Product;
+import com.faisal.repository.ProductRepository;
+import com.faisal.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheGenerationIntegrationTest extends BaseIntegrationTest {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCacheManager redisCacheManager;
+
+    @Autowired
+    private CacheGenerations cacheGenerations;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder()
+                .name("Generational").description("desc").price(BigDecimal.TEN).quantity(5).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteById(product.getId());
+    }
+
+    @Test
+    void evictAll_shouldMoveCacheToNewGenerationWithoutDeletingKeys() {
+        productService.searchCached("generational", null, null, null, FIRST_PAGE);
+        long generation = cacheGenerations.current(ProductCacheManager.PRODUCTS_SEARCH);
+        String oldKey = ProductCacheManager.PRODUCTS_SEARCH + "::" + generation + "::" + searchKey("generational");
+        assertThat(redisTemplate.hasKey(oldKey)).isTrue();
+
+        productService.update(product.getId(),
+                new CreateProductRequest("Generational", "changed", BigDecimal.ONE, 5));
+
+        assertThat(cacheGenerations.current(ProductCacheManager.PRODUCTS_SEARCH)).isEqualTo(generation + 1);
+        assertThat(redisCacheManager.getCache(ProductCacheManager.PRODUCTS_SEARCH).get(searchKey("generational")))
+                .isNull();
+        // The old entry is left to expire on its own.
+        assertThat(redisTemplate.hasKey(oldKey)).isTrue();
+        assertThat(redisTemplate.getExpire(oldKey)).isPositive();
+
+        assertThat(productService.searchCached("generational", null, null, null, FIRST_PAGE).content())
+                .singleElement()
+                .satisfies(p -> assertThat(p.price()).isEqualByComparingTo("1"));
+    }
+
+    private static String searchKey(String name) {
+        return name + "::::" + FIRST_PAGE.getPageNumber() + ":" + FIRST_PAGE.getPageSize() + ":" + FIRST_PAGE.getSort();
+    }
+}
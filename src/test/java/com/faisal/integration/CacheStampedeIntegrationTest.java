@@ -0,0 +1,149 @@
+package com.faisal.integration;
+
+import com.faisal.model.Product;
+import com.faisal.repository.ProductRepository;
+import com.faisal.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Short per-cache TTLs so entries expire within the test: {@code productById} without early
+ * refresh to provoke an expiry storm, {@code productsList} with a refresh window as long as its
+ * TTL so hot pages are reloaded before they expire.
+ */
+@Slf4j
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.cache.caches.productById.ttl=1s",
+        "app.cache.caches.productById.refresh-ahead=0s",
+        "app.cache.caches.productsList.ttl=2s",
+        "app.cache.caches.productsList.refresh-ahead=2s"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CacheStampedeIntegrationTest extends BaseIntegrationTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.delete(redisTemplate.keys("product*"));
+        for (int i = 0; i < 5; i++) {
+            products.add(productRepository.save(Product.builder()
+                    .name("Hot " + i)
+                    .price(BigDecimal.valueOf(10 + i))
+                    .quantity(100)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll(products);
+        products.clear();
+    }
+
+    @Test
+    void expiryStorm_shouldLoadEachKeyOnce() throws Exception {
+        products.forEach(product -> productService.getById(product.getId()));
+        Thread.sleep(1_200);
+
+        Statistics statistics = statistics();
+        long statementsBefore = statistics.getPrepareStatementCount();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                readers.add(executor.submit(() -> {
+                    List<Product> order = new ArrayList<>(products);
+                    Collections.shuffle(order);
+                    start.await();
+                    order.forEach(product -> productService.getById(product.getId()));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        log.info("Expiry storm: threads={}, keys={}, reads={}, statements={}",
+                THREADS, products.size(), THREADS * products.size(), statements);
+        assertThat(statements).isEqualTo(products.size());
+    }
+
+    @Test
+    void hotPage_shouldBeRefreshedBeforeItExpires() throws Exception {
+        PageRequest page = PageRequest.of(0, 10);
+        productService.list(page);
+        double missesBefore = listMisses();
+        long statementsBefore = statistics().getPrepareStatementCount();
+
+        // Read for longer than the 2s TTL; every read should still be a hit.
+        long deadline = System.nanoTime() + 3_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            assertThat(productService.list(page).getContent()).isNotEmpty();
+            Thread.sleep(20);
+        }
+
+        log.info("Hot page over 1.5 TTLs: misses={}, backgroundStatements={}",
+                listMisses() - missesBefore, statistics().getPrepareStatementCount() - statementsBefore);
+        assertThat(listMisses()).isEqualTo(missesBefore);
+        assertThat(statistics().getPrepareStatementCount()).isGreaterThan(statementsBefore);
+    }
+
+    private double listMisses() {
+        return meterRegistry.find("cache.gets").tags("cache", "productsList", "cache.level", "l2", "result", "miss")
+                .functionCounters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,336 @@
+package com.faisal.integration;
+
+import com.faisal.config.RolesClaimConverter;
+import com.faisal.coupon.CouponLedger;
+import com.faisal.coupon.CouponRedemptionWriter;
+import com.faisal.dto.AuthUser;
+import com.faisal.dto.request.CreateOrderRequest;
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.enums.Role;
+import com.faisal.exception.BadRequestException;
+import com.faisal.model.Coupon;
+import com.faisal.model.CouponRedemption;
+import com.faisal.model.Product;
+import com.faisal.model.User;
+import com.faisal.repository.CouponRedemptionRepository;
+import com.faisal.repository.CouponRepository;
+import com.faisal.repository.OrderRepository;
+import com.faisal.repository.ProductRepository;
+import com.faisal.repository.UserRepository;
+import com.faisal.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Redemptions are counted in Redis and written to Postgres after the order commits, so the class
+ * opts out of the rollback-only transaction of {@link BaseIntegrationTest}.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CouponIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private CouponLedger couponLedger;
+
+    @Autowired
+    private CouponRedemptionWriter redemptionWriter;
+
+    @MockitoSpyBean
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponRedemptionRepository redemptionRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoSpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    private User testUser;
+    private Product testProduct;
+    private Coupon twice;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.delete(redisTemplate.keys("{coupons}:*"));
+        testUser = userRepository.save(User.builder()
+                .name("Coupon customer")
+                .email("coupon-customer@example.com")
+                .role(Role.USER)
+                .build());
+        testProduct = productRepository.save(Product.builder()
+                .name("Gadget")
+                .price(BigDecimal.valueOf(100))
+                .quantity(100)
+                .build());
+        twice = couponRepository.save(Coupon.builder()
+                .code("TWICE")
+                .amount(new BigDecimal("5.00"))
+                .maxRedemptions(2)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        redemptionRepository.deleteAllInBatch();
+        orderRepository.deleteAll();
+        couponRepository.deleteAllInBatch();
+        productRepository.deleteById(testProduct.getId());
+        userRepository.deleteById(testUser.getId());
+    }
+
+    @Test
+    void placeOrder_withCoupon_shouldApplyItUntilUsedUp() throws Exception {
+        placeOrder("TWICE")
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.total_discount").value(5.0))
+                .andExpect(jsonPath("$.data.total").value(95.0));
+        placeOrder("TWICE").andExpect(status().isCreated());
+        placeOrder("TWICE").andExpect(status().isBadRequest());
+
+        assertThat(redemptionRepository.count()).isZero();
+        redemptionWriter.write();
+
+        List<CouponRedemption> redemptions = redemptionRepository.findAllByCouponId(twice.getId());
+        assertThat(redemptions).hasSize(2)
+                .allSatisfy(redemption -> assertThat(redemption.getUserId()).isEqualTo(testUser.getId()));
+        assertThat(orderRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void placeOrder_whenTransactionRollsBack_shouldReleaseRedemption() {
+        AuthUser user = new AuthUser(testUser.getId(), Role.USER, testUser.getEmail());
+        List<OrderItemRequest> items = List.of(new OrderItemRequest(testProduct.getId(), 1));
+        transactionTemplate.executeWithoutResult(status -> {
+            orderService.placeOrder(user, items, "TWICE");
+            status.setRollbackOnly();
+        });
+
+        orderService.placeOrder(user, items, "TWICE");
+        orderService.placeOrder(user, items, "TWICE");
+        assertThatThrownBy(() -> orderService.placeOrder(user, items, "TWICE"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Coupon TWICE has no redemptions left");
+
+        redemptionWriter.write();
+        assertThat(redemptionRepository.countByCouponId(twice.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void placeOrder_withUnknownOrEndedCoupon_shouldReturnBadRequest() throws Exception {
+        Instant now = Instant.now();
+        couponRepository.save(Coupon.builder()
+                .code("ENDED")
+                .rate(new BigDecimal("0.50"))
+                .startsAt(now.minus(Duration.ofDays(2)))
+                .endsAt(now.minus(Duration.ofDays(1)))
+                .build());
+
+        placeOrder("NOPE").andExpect(status().isBadRequest());
+        placeOrder("ENDED").andExpect(status().isBadRequest());
+
+        assertThat(orderRepository.count()).isZero();
+    }
+
+    @Test
+    void redeem_concurrently_shouldNeverExceedMaxRedemptions() throws Exception {
+        Coupon limited = couponRepository.save(Coupon.builder()
+                .code("FIRST500")
+                .rate(new BigDecimal("0.10"))
+                .maxRedemptions(500)
+                .build());
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                attempts.add(pool.submit(() -> {
+                    try {
+                        couponLedger.redeem(limited.getCode(), Instant.now());
+                        return true;
+                    } catch (BadRequestException ex) {
+                        return false;
+                    }
+                }));
+            }
+            int redeemed = 0;
+            for (Future<Boolean> attempt : attempts) {
+                redeemed += attempt.get() ? 1 : 0;
+            }
+            assertThat(redeemed).isEqualTo(500);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void write_whileAnotherRunWritesTheBatch_shouldKeepPendingCounts() throws Exception {
+        AuthUser user = new AuthUser(testUser.getId(), Role.USER, testUser.getEmail());
+        List<OrderItemRequest> items = List.of(new OrderItemRequest(testProduct.getId(), 1));
+        orderService.placeOrder(user, items, "TWICE");
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (Thread.currentThread().getName().equals("write-a")) {
+                writing.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return invocation.callRealMethod();
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        Thread first = new Thread(redemptionWriter::write, "write-a");
+        first.start();
+        assertThat(writing.await(10, TimeUnit.SECONDS)).isTrue();
+
+        orderService.placeOrder(user, items, "TWICE");
+        redemptionWriter.write();
+        release.countDown();
+        first.join(10_000);
+
+        // Loaded again, the coupon must still count the redemption that is not written yet.
+        redisTemplate.delete("{coupons}:coupon:TWICE");
+        assertThatThrownBy(() -> couponLedger.check("TWICE", Instant.now()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Coupon TWICE has no redemptions left");
+
+        redemptionWriter.write();
+        assertThat(redemptionRepository.countByCouponId(twice.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void check_afterBatchCommittedButNotCompleted_shouldCountItOnce() {
+        AuthUser user = new AuthUser(testUser.getId(), Role.USER, testUser.getEmail());
+        List<OrderItemRequest> items = List.of(new OrderItemRequest(testProduct.getId(), 1));
+        orderService.placeOrder(user, items, "TWICE");
+
+        // The run commits but loses its lease before completing, as after a long pause.
+        AtomicBoolean first = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            Object result = invocation.callRealMethod();
+            if (first.getAndSet(false)) {
+                redisTemplate.delete("{coupons}:writing:lease");
+            }
+            return result;
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        redemptionWriter.write();
+        assertThat(redemptionRepository.countByCouponId(twice.getId())).isEqualTo(1);
+
+        redisTemplate.delete("{coupons}:coupon:TWICE");
+        orderService.placeOrder(user, items, "TWICE");
+        assertThatThrownBy(() -> couponLedger.check("TWICE", Instant.now()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Coupon TWICE has no redemptions left");
+
+        redemptionWriter.write();
+        redemptionWriter.write();
+        assertThat(redemptionRepository.countByCouponId(twice.getId())).isEqualTo(2);
+        assertThat(redisTemplate.opsForHash().entries("{coupons}:pending")).isEmpty();
+    }
+
+    @Test
+    void placeOrder_whenCouponKeyIsDeletedMidOrder_shouldStillCountItsRedemption() {
+        AuthUser user = new AuthUser(testUser.getId(), Role.USER, testUser.getEmail());
+        List<OrderItemRequest> items = List.of(new OrderItemRequest(testProduct.getId(), 1));
+        transactionTemplate.executeWithoutResult(status -> {
+            orderService.placeOrder(user, items, "TWICE");
+            redisTemplate.delete("{coupons}:coupon:TWICE");
+            couponLedger.check("TWICE", Instant.now());
+        });
+
+        orderService.placeOrder(user, items, "TWICE");
+        assertThatThrownBy(() -> orderService.placeOrder(user, items, "TWICE"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Coupon TWICE has no redemptions left");
+        assertThat(redisTemplate.opsForHash().entries("{coupons}:inflight")).isEmpty();
+    }
+
+    @Test
+    void placeOrder_whenCouponCannotBeLoaded_shouldReturnServiceUnavailable() throws Exception {
+        doAnswer(invocation -> {
+            redisTemplate.opsForValue().increment("{coupons}:epoch");
+            return Optional.of(twice);
+        }).when(couponRepository).findByCode("TWICE");
+
+        placeOrder("TWICE")
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        assertThat(orderRepository.count()).isZero();
+    }
+
+    private ResultActions placeOrder(String couponCode) throws Exception {
+        CreateOrderRequest orderRequest = new CreateOrderRequest(
+                List.of(new OrderItemRequest(testProduct.getId(), 1)), couponCode);
+        return mockMvc.perform(post("/orders")
+                .with(user(testUser.getId()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(orderRequest)));
+    }
+
+    private static RequestPostProcessor user(Long userId) {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .authorities(Objects.requireNonNull(new RolesClaimConverter().convert(
+                        Jwt.withTokenValue("token")
+                                .header("alg", "none")
+                                .claim("roles", List.of("USER"))
+                                .build()
+                )))
+                .jwt(jwt -> jwt
+                        .claim("userId", userId)
+                        .claim("roles", List.of("USER"))
+                );
+    }
+}
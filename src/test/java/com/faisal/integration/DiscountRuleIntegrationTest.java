@@ -0,0 +1,185 @@
+package com.faisal.integration;
+
+import com.faisal.config.RolesClaimConverter;
+import com.faisal.discount.DiscountRules;
+import com.faisal.dto.request.CreateOrderRequest;
+import com.faisal.dto.request.DiscountRuleRequest;
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.dto.request.ReplaceDiscountRulesRequest;
+import com.faisal.enums.DiscountScope;
+import com.faisal.enums.Role;
+import com.faisal.model.Product;
+import com.faisal.model.User;
+import com.faisal.repository.DiscountRuleRepository;
+import com.faisal.repository.OrderRepository;
+import com.faisal.repository.ProductRepository;
+import com.faisal.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The plan is swapped after the new rules commit, so the class opts out of the rollback-only
+ * transaction of {@link BaseIntegrationTest}.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DiscountRuleIntegrationTest extends BaseIntegrationTest {
+
+    private static final List<DiscountRuleRequest> RULES = List.of(
+            new DiscountRuleRequest("Premium customers", Role.PREMIUM_USER, DiscountScope.ORDER,
+                    null, new BigDecimal("0.10"), null, null, null),
+            new DiscountRuleRequest("Lines above 100", null, DiscountScope.LINE,
+                    new BigDecimal("100.00"), null, new BigDecimal("5.00"), null, null));
+
+    @Autowired
+    private DiscountRuleRepository discountRuleRepository;
+
+    @Autowired
+    private DiscountRules discountRules;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+    private Product testProduct;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.save(User.builder()
+                .name("Premium customer")
+                .email("premium-customer@example.com")
+                .role(Role.PREMIUM_USER)
+                .build());
+
+        testProduct = productRepository.save(Product.builder()
+                .name("Gadget")
+                .description("Cool gadget")
+                .price(BigDecimal.valueOf(100))
+                .quantity(10)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        productRepository.deleteById(testProduct.getId());
+        userRepository.deleteById(testUser.getId());
+        discountRuleRepository.deleteAllInBatch();
+        discountRules.refresh();
+    }
+
+    @Test
+    void replaceRules_shouldPriceNextOrderWithNewRules() throws Exception {
+        replaceRules(RULES, user("ADMIN", 99L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].rate").value(0.10));
+
+        assertThat(discountRules.plan().size()).isEqualTo(2);
+
+        // 10% of 200.00 plus 5.00 for the 200.00 line
+        CreateOrderRequest orderRequest = new CreateOrderRequest(List.of(new OrderItemRequest(testProduct.getId(), 2)));
+        mockMvc.perform(post("/orders")
+                        .with(user("PREMIUM_USER", testUser.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.total_discount").value(25.0))
+                .andExpect(jsonPath("$.data.total").value(175.0));
+
+        mockMvc.perform(get("/discount-rules").with(user("ADMIN", 99L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[1].name").value("Lines above 100"));
+    }
+
+    @Test
+    void replaceRules_promotions_shouldOnlyPriceOrdersWhileRunning() throws Exception {
+        Instant now = Instant.now();
+        replaceRules(List.of(
+                new DiscountRuleRequest("Running sale", null, DiscountScope.ORDER, null, new BigDecimal("0.10"), null,
+                        now.minus(Duration.ofHours(1)), now.plus(Duration.ofHours(1))),
+                new DiscountRuleRequest("Ended sale", null, DiscountScope.ORDER, null, new BigDecimal("0.50"), null,
+                        now.minus(Duration.ofHours(2)), now.minus(Duration.ofHours(1)))), user("ADMIN", 99L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].starts_at").isNotEmpty());
+
+        // The ended sale is kept in the table but left out of the plan.
+        assertThat(discountRuleRepository.findAll()).hasSize(2);
+        assertThat(discountRules.plan().size()).isEqualTo(1);
+
+        CreateOrderRequest orderRequest = new CreateOrderRequest(List.of(new OrderItemRequest(testProduct.getId(), 2)));
+        mockMvc.perform(post("/orders")
+                        .with(user("USER", testUser.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.total_discount").value(20.0));
+    }
+
+    @Test
+    void replaceRules_ruleWithoutRateOrAmount_shouldReturnBadRequest() throws Exception {
+        replaceRules(RULES, user("ADMIN", 99L)).andExpect(status().isOk());
+
+        replaceRules(List.of(new DiscountRuleRequest("Nothing off", null, DiscountScope.ORDER,
+                new BigDecimal("10.00"), null, null, null, null)), user("ADMIN", 99L))
+                .andExpect(status().isBadRequest());
+
+        assertThat(discountRuleRepository.findAll()).hasSize(2);
+        assertThat(discountRules.plan().size()).isEqualTo(2);
+    }
+
+    @Test
+    void replaceRules_asUser_shouldBeForbidden() throws Exception {
+        replaceRules(RULES, user("USER", testUser.getId())).andExpect(status().isForbidden());
+
+        assertThat(discountRuleRepository.findAll()).isEmpty();
+    }
+
+    private ResultActions replaceRules(List<DiscountRuleRequest> rules, RequestPostProcessor user) throws Exception {
+        return mockMvc.perform(put("/discount-rules")
+                .with(user)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ReplaceDiscountRulesRequest(rules))));
+    }
+
+    private static RequestPostProcessor user(String role, Long userId) {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .authorities(Objects.requireNonNull(new RolesClaimConverter().convert(
+                        Jwt.withTokenValue("token")
+                                .header("alg", "none")
+                                .claim("roles", List.of(role))
+                                .build()
+                )))
+                .jwt(jwt -> jwt
+                        .claim("userId", userId)
+                        .claim("roles", List.of(role))
+                );
+    }
+}
@@ -0,0 +1,190 @@
+package com.faisal.integration;
+
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.exception.BadRequestException;
+import com.faisal.exception.ServiceUnavailableException;
+import com.faisal.inventory.InventoryReconciler;
+import com.faisal.inventory.RedisInventoryLedger;
+import com.faisal.model.Product;
+import com.faisal.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+@TestPropertySource(properties = {
+        "app.inventory.mode=redis",
+        "app.inventory.reconcile-interval=1h"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryLedgerIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private RedisInventoryLedger ledger;
+
+    @Autowired
+    private InventoryReconciler reconciler;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoSpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    private Product widget;
+    private Product gizmo;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.delete(redisTemplate.keys("{inventory}:*"));
+        widget = productRepository.save(Product.builder().name("Widget").price(BigDecimal.valueOf(20)).quantity(10).build());
+        gizmo = productRepository.save(Product.builder().name("Gizmo").price(BigDecimal.valueOf(5)).quantity(1).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllById(List.of(widget.getId(), gizmo.getId()));
+    }
+
+    @Test
+    void reserve_shouldTakeStockInRedisAndReconcileIntoPostgres() {
+        Map<Long, BigDecimal> prices = transactionTemplate.execute(status -> ledger.reserve(List.of(
+                new OrderItemRequest(widget.getId(), 3),
+                new OrderItemRequest(widget.getId(), 2)
+        )));
+
+        assertThat(prices).containsOnlyKeys(widget.getId());
+        assertThat(prices.get(widget.getId())).isEqualByComparingTo("20");
+        assertThat(quantityOf(widget)).isEqualTo(10);
+
+        reconciler.reconcile();
+
+        assertThat(quantityOf(widget)).isEqualTo(5);
+    }
+
+    @Test
+    void reserve_withShortLine_shouldReserveNothing() {
+        assertThatThrownBy(() -> transactionTemplate.execute(status -> ledger.reserve(List.of(
+                new OrderItemRequest(widget.getId(), 4),
+                new OrderItemRequest(gizmo.getId(), 2)
+        )))).isInstanceOf(BadRequestException.class)
+                .hasMessage("Insufficient stock for products: [" + gizmo.getId() + "]");
+
+        // All 10 widgets are still available.
+        transactionTemplate.execute(status -> ledger.reserve(List.of(new OrderItemRequest(widget.getId(), 10))));
+        reconciler.reconcile();
+        assertThat(quantityOf(widget)).isZero();
+    }
+
+    @Test
+    void reserve_whenOrderTransactionRollsBack_shouldReleaseUnits() {
+        transactionTemplate.executeWithoutResult(status -> {
+            ledger.reserve(List.of(new OrderItemRequest(widget.getId(), 7)));
+            status.setRollbackOnly();
+        });
+
+        reconciler.reconcile();
+        assertThat(quantityOf(widget)).isEqualTo(10);
+
+        transactionTemplate.execute(status -> ledger.reserve(List.of(new OrderItemRequest(widget.getId(), 10))));
+    }
+
+    @Test
+    void reconcile_whileAnotherRunWritesTheBatch_shouldNotApplyItAgain() throws Exception {
+        transactionTemplate.execute(status -> ledger.reserve(List.of(new OrderItemRequest(widget.getId(), 3))));
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (Thread.currentThread().getName().equals("reconcile-a")) {
+                writing.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return invocation.callRealMethod();
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        Thread first = new Thread(reconciler::reconcile, "reconcile-a");
+        first.start();
+        assertThat(writing.await(10, TimeUnit.SECONDS)).isTrue();
+
+        reconciler.reconcile();
+        release.countDown();
+        first.join(10_000);
+
+        assertThat(quantityOf(widget)).isEqualTo(7);
+        reconciler.reconcile();
+        assertThat(quantityOf(widget)).isEqualTo(7);
+    }
+
+    @Test
+    void reconcile_whenBatchCommittedButNotCompleted_shouldNotApplyItTwiceOrSeedItTwice() {
+        transactionTemplate.execute(status -> ledger.reserve(List.of(new OrderItemRequest(widget.getId(), 3))));
+
+        // The run commits but loses its lease before completing, as after a long pause.
+        AtomicBoolean first = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            Object result = invocation.callRealMethod();
+            if (first.getAndSet(false)) {
+                redisTemplate.delete("{inventory}:reconciling:lease");
+            }
+            return result;
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        reconciler.reconcile();
+        assertThat(quantityOf(widget)).isEqualTo(7);
+
+        redisTemplate.delete("{inventory}:product:" + widget.getId());
+        transactionTemplate.execute(status -> ledger.reserve(List.of(new OrderItemRequest(widget.getId(), 1))));
+        assertThat(redisTemplate.<String, String>opsForHash().get("{inventory}:product:" + widget.getId(), "stock"))
+                .isEqualTo("6");
+
+        reconciler.reconcile();
+        assertThat(quantityOf(widget)).isEqualTo(7);
+        reconciler.reconcile();
+        assertThat(quantityOf(widget)).isEqualTo(6);
+    }
+
+    @Test
+    void reserve_whenLedgerCannotBeLoaded_shouldAskToRetry() {
+        doAnswer(invocation -> {
+            redisTemplate.opsForValue().increment("{inventory}:epoch");
+            return invocation.callRealMethod();
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+
+        assertThatThrownBy(() -> transactionTemplate.execute(status -> ledger.reserve(List.of(
+                new OrderItemRequest(widget.getId(), 1)
+        )))).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    private int quantityOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getQuantity();
+    }
+}
@@ -0,0 +1,165 @@
+package com.faisal.integration;
+
+import com.faisal.config.RolesClaimConverter;
+import com.faisal.model.Order;
+import com.faisal.model.OrderItem;
+import com.faisal.repository.OrderRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The export streams on an async thread in its own transaction, so the orders it reads must be
+ * committed and the class opts out of the rollback-only transaction of {@link BaseIntegrationTest}.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderExportIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Instant from;
+    private Instant to;
+    private List<Order> orders;
+
+    @BeforeEach
+    void setUp() {
+        from = Instant.now().minus(1, ChronoUnit.HOURS);
+        to = Instant.now().plus(1, ChronoUnit.HOURS);
+        orders = new ArrayList<>();
+        orders.add(orderRepository.save(order(1L, 1)));
+        orders.add(orderRepository.save(order(2L, 3)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void export_ndjson_shouldWriteOneLinePerOrder() throws Exception {
+        String body = export("ndjson", from, to, "application/x-ndjson");
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(first.get("order_id").asLong()).isEqualTo(orders.get(0).getId());
+        assertThat(first.get("user_id").asLong()).isEqualTo(1L);
+        assertThat(first.get("items")).hasSize(1);
+        assertThat(second.get("order_id").asLong()).isEqualTo(orders.get(1).getId());
+        assertThat(second.get("total").decimalValue()).isEqualByComparingTo("30.00");
+        assertThat(second.get("items")).hasSize(3);
+        assertThat(second.get("items").get(0).get("unit_price").decimalValue()).isEqualByComparingTo("10.00");
+        assertThat(Instant.parse(second.get("created_at").asText())).isEqualTo(orders.get(1).getCreatedAt());
+    }
+
+    @Test
+    void export_csv_shouldWriteOneRowPerItem() throws Exception {
+        String body = export("csv", from, to, "text/csv");
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(5);
+        assertThat(lines[0]).isEqualTo(
+                "order_id,user_id,created_at,order_total,product_id,quantity,unit_price,discount_applied,total_price");
+        assertThat(lines[1]).isEqualTo(orders.get(0).getId() + ",1," + orders.get(0).getCreatedAt()
+                + ",10.00,1,1,10.00,0.00,10.00");
+        assertThat(lines).filteredOn(line -> line.startsWith(orders.get(1).getId() + ",")).hasSize(3);
+    }
+
+    @Test
+    void export_outsideRange_shouldOnlyWriteHeader() throws Exception {
+        String body = export("csv", to, to.plus(1, ChronoUnit.HOURS), "text/csv");
+
+        assertThat(body.split("\n")).hasSize(1);
+    }
+
+    @Test
+    void export_invalidRange_shouldFail() throws Exception {
+        mockMvc.perform(get("/orders/export")
+                        .param("from", to.toString())
+                        .param("to", from.toString())
+                        .with(user("ADMIN")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void export_asUser_shouldBeForbidden() throws Exception {
+        mockMvc.perform(get("/orders/export")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .with(user("USER")))
+                .andExpect(status().isForbidden());
+    }
+
+    private String export(String format, Instant from, Instant to, String contentType) throws Exception {
+        MvcResult started = mockMvc.perform(get("/orders/export")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .param("format", format)
+                        .with(user("ADMIN")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(contentType))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"orders." + format + "\""))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private static Order order(Long userId, int lines) {
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 1; i <= lines; i++) {
+            items.add(OrderItem.builder()
+                    .productId((long) i)
+                    .quantity(1)
+                    .unitPrice(new BigDecimal("10.00"))
+                    .discountApplied(new BigDecimal("0.00"))
+                    .totalPrice(new BigDecimal("10.00"))
+                    .build());
+        }
+        return Order.builder()
+                .userId(userId)
+                .orderTotal(new BigDecimal("10.00").multiply(BigDecimal.valueOf(lines)))
+                .items(items)
+                .build();
+    }
+
+    private static RequestPostProcessor user(String role) {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .authorities(Objects.requireNonNull(new RolesClaimConverter().convert(
+                        Jwt.withTokenValue("token")
+                                .header("alg", "none")
+                                .claim("roles", List.of(role))
+                                .build()
+                )))
+                .jwt(jwt -> jwt
+                        .claim("userId", 99L)
+                        .claim("roles", List.of(role))
+                );
+    }
+}
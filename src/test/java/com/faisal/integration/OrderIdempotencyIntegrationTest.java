@@ -0,0 +1,177 @@
+package com.faisal.integration;
+
+import com.faisal.config.RolesClaimConverter;
+import com.faisal.dto.request.CreateOrderRequest;
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.enums.Role;
+import com.faisal.model.Product;
+import com.faisal.model.User;
+import com.faisal.repository.OrderRepository;
+import com.faisal.repository.ProductRepository;
+import com.faisal.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Duplicate requests are sent from several threads, so orders commit on their own and the class
+ * opts out of the rollback-only transaction of {@link BaseIntegrationTest}.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderIdempotencyIntegrationTest extends BaseIntegrationTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+    private Product testProduct;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.save(User.builder()
+                .name("Retrying customer")
+                .email("retrying-customer@example.com")
+                .role(Role.USER)
+                .build());
+
+        testProduct = productRepository.save(Product.builder()
+                .name("Gadget")
+                .description("Cool gadget")
+                .price(BigDecimal.valueOf(100))
+                .quantity(10)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        productRepository.deleteById(testProduct.getId());
+        userRepository.deleteById(testUser.getId());
+    }
+
+    @Test
+    void placeOrder_retriedWithSameKey_shouldReplayFirstResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        MockHttpServletResponse first = placeOrder(key, 2)
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "false"))
+                .andReturn().getResponse();
+        MockHttpServletResponse retry = placeOrder(key, 2)
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn().getResponse();
+
+        assertThat(retry.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+        assertThat(orderRepository.findAll()).hasSize(1);
+        assertThat(productRepository.findById(testProduct.getId()).orElseThrow().getQuantity()).isEqualTo(8);
+    }
+
+    @Test
+    void placeOrder_sameKeyDifferentBody_shouldReturnBadRequest() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        placeOrder(key, 2).andExpect(status().isCreated());
+        placeOrder(key, 3).andExpect(status().isBadRequest());
+
+        assertThat(orderRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    void placeOrder_failedRequest_shouldReleaseKey() throws Exception {
+        String key = UUID.randomUUID().toString();
+        productRepository.save(withQuantity(0));
+
+        placeOrder(key, 2).andExpect(status().isBadRequest());
+        productRepository.save(withQuantity(10));
+        placeOrder(key, 2).andExpect(status().isCreated());
+
+        assertThat(orderRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    void placeOrder_concurrentDuplicates_shouldPlaceOneOrder() throws Exception {
+        String key = UUID.randomUUID().toString();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<byte[]>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return placeOrder(key, 1)
+                        .andExpect(status().isCreated())
+                        .andReturn().getResponse().getContentAsByteArray();
+            }));
+        }
+        start.countDown();
+
+        byte[] body = futures.get(0).get(30, TimeUnit.SECONDS);
+        for (Future<byte[]> future : futures) {
+            assertThat(future.get(30, TimeUnit.SECONDS)).isEqualTo(body);
+        }
+        pool.shutdown();
+
+        assertThat(orderRepository.findAll()).hasSize(1);
+        assertThat(productRepository.findById(testProduct.getId()).orElseThrow().getQuantity()).isEqualTo(9);
+    }
+
+    private Product withQuantity(int quantity) {
+        Product product = productRepository.findById(testProduct.getId()).orElseThrow();
+        product.setQuantity(quantity);
+        return product;
+    }
+
+    private ResultActions placeOrder(String key, int quantity) throws Exception {
+        CreateOrderRequest orderRequest = new CreateOrderRequest(List.of(new OrderItemRequest(testProduct.getId(), quantity)));
+
+        return mockMvc.perform(post("/orders")
+                .with(SecurityMockMvcRequestPostProcessors.jwt()
+                        .authorities(Objects.requireNonNull(new RolesClaimConverter().convert(
+                                Jwt.withTokenValue("token")
+                                        .header("alg", "none")
+                                        .claim("roles", List.of("USER"))
+                                        .build()
+                        )))
+                        .jwt(jwt -> jwt
+                                .claim("userId", testUser.getId())
+                                .claim("roles", List.of("USER"))
+                        )
+                )
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(orderRequest)));
+    }
+}
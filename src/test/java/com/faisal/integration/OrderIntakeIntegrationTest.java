@@ -0,0 +1,186 @@
+package com.faisal.integration;
+
+import com.faisal.config.RolesClaimConverter;
+import com.faisal.dto.request.CreateOrderRequest;
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.enums.Role;
+import com.faisal.exception.ServiceUnavailableException;
+import com.faisal.model.Product;
+import com.faisal.model.User;
+import com.faisal.repository.OrderRepository;
+import com.faisal.repository.ProductRepository;
+import com.faisal.repository.UserRepository;
+import com.faisal.service.OrderService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Orders queued by the async intake are placed by its writer threads and commit on their own,
+ * so the class opts out of the rollback-only transaction of {@link BaseIntegrationTest}.
+ */
+@TestPropertySource(properties = "app.orders.intake.mode=async")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderIntakeIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoSpyBean
+    private OrderService orderService;
+
+    private User testUser;
+    private Product testProduct;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.save(User.builder()
+                .name("Customer")
+                .email("queued-customer@example.com")
+                .role(Role.USER)
+                .build());
+
+        testProduct = productRepository.save(Product.builder()
+                .name("Gadget")
+                .description("Cool gadget")
+                .price(BigDecimal.valueOf(100))
+                .quantity(10)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        productRepository.deleteById(testProduct.getId());
+        userRepository.deleteById(testUser.getId());
+    }
+
+    @Test
+    void placeOrder_async_shouldAcceptAndPlaceInBackground() throws Exception {
+        String token = submit(2);
+
+        JsonNode status = awaitOutcome(token, testUser.getId());
+
+        assertThat(status.get("status").asText()).isEqualTo("PLACED");
+        assertThat(status.get("order").get("total").decimalValue()).isEqualByComparingTo("200");
+        assertThat(orderRepository.findAll()).hasSize(1);
+        assertThat(productRepository.findById(testProduct.getId()).orElseThrow().getQuantity()).isEqualTo(8);
+    }
+
+    @Test
+    void placeOrder_async_shouldFailOnlyTheOrderThatIsShort() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int quantity : List.of(4, 20, 4)) {
+            tokens.add(submit(quantity));
+        }
+
+        List<String> outcomes = new ArrayList<>();
+        for (String token : tokens) {
+            outcomes.add(awaitOutcome(token, testUser.getId()).get("status").asText());
+        }
+
+        assertThat(outcomes).containsExactly("PLACED", "FAILED", "PLACED");
+        assertThat(orderRepository.findAll()).hasSize(2);
+        assertThat(productRepository.findById(testProduct.getId()).orElseThrow().getQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void placeOrder_async_whenLedgerIsBusy_shouldQueueTheOrderAgain() throws Exception {
+        AtomicBoolean busy = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (busy.getAndSet(false)) {
+                throw new ServiceUnavailableException("Stock is being reconciled, please retry shortly");
+            }
+            return invocation.callRealMethod();
+        }).when(orderService).placeOrder(any(), anyList(), any());
+
+        String token = submit(2);
+
+        assertThat(awaitOutcome(token, testUser.getId()).get("status").asText()).isEqualTo("PLACED");
+        assertThat(busy).isFalse();
+        assertThat(orderRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    void orderStatus_ofAnotherUser_shouldReturnNotFound() throws Exception {
+        String token = submit(1);
+
+        mockMvc.perform(get("/orders/{token}/status", token).with(user(testUser.getId() + 1)))
+                .andExpect(status().isNotFound());
+        awaitOutcome(token, testUser.getId());
+    }
+
+    private String submit(int quantity) throws Exception {
+        CreateOrderRequest orderRequest = new CreateOrderRequest(List.of(new OrderItemRequest(testProduct.getId(), quantity)));
+
+        String body = mockMvc.perform(post("/orders")
+                        .with(user(testUser.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.data.status").value("QUEUED"))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("data").get("token").asText();
+    }
+
+    private JsonNode awaitOutcome(String token, Long userId) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String body = mockMvc.perform(get("/orders/{token}/status", token).with(user(userId)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode status = objectMapper.readTree(body).get("data");
+            if (!"QUEUED".equals(status.get("status").asText())) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Order " + token + " was not written in time");
+    }
+
+    private static RequestPostProcessor user(Long userId) {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .authorities(Objects.requireNonNull(new RolesClaimConverter().convert(
+                        Jwt.withTokenValue("token")
+                                .header("alg", "none")
+                                .claim("roles", List.of("USER"))
+                                .build()
+                )))
+                .jwt(jwt -> jwt
+                        .claim("userId", userId)
+                        .claim("roles", List.of("USER"))
+                );
+    }
+}
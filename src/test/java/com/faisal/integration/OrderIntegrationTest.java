@@ -2,25 +2,35 @@ package com.faisal.integration;
 
 import com.faisal.config.RolesClaimConverter;
 import com.faisal.dto.request.CreateOrderRequest;
+import com.faisal.discount.DiscountRules;
 import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.enums.DiscountScope;
 import com.faisal.enums.Role;
+import com.faisal.model.DiscountRule;
 import com.faisal.model.Product;
 import com.faisal.model.User;
+import com.faisal.repository.DiscountRuleRepository;
 import com.faisal.repository.OrderRepository;
 import com.faisal.repository.ProductRepository;
 import com.faisal.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -36,6 +46,12 @@ class OrderIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private DiscountRuleRepository discountRuleRepository;
+
+    @Autowired
+    private DiscountRules discountRules;
+
     private User testUser;
     private Product testProduct;
 
@@ -59,6 +75,13 @@ class OrderIntegrationTest extends BaseIntegrationTest {
                 .build());
     }
 
+    @AfterEach
+    void tearDown() {
+        // The plan outlives the rolled back transaction, so put back the one without the test's rules
+        discountRuleRepository.deleteAllInBatch();
+        discountRules.refresh();
+    }
+
     @Test
     void placeOrder_shouldSucceed() throws Exception {
         OrderItemRequest itemRequest = new OrderItemRequest(testProduct.getId(), 2);
@@ -92,6 +115,14 @@ class OrderIntegrationTest extends BaseIntegrationTest {
 
     @Test
     void placeOrder_shouldSucceed_applyDiscountForPremiumUser() throws Exception {
+        discountRuleRepository.save(DiscountRule.builder()
+                .name("Premium customers")
+                .role(Role.PREMIUM_USER)
+                .scope(DiscountScope.ORDER)
+                .rate(new BigDecimal("0.10"))
+                .build());
+        discountRules.refresh();
+
         OrderItemRequest itemRequest = new OrderItemRequest(testProduct.getId(), 2);
         CreateOrderRequest orderRequest = new CreateOrderRequest(List.of(itemRequest));
 
@@ -145,4 +176,135 @@ class OrderIntegrationTest extends BaseIntegrationTest {
                         .content(objectMapper.writeValueAsString(orderRequest)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void quoteOrder_shouldPriceWithoutReservingStock() throws Exception {
+        CreateOrderRequest orderRequest = new CreateOrderRequest(List.of(new OrderItemRequest(testProduct.getId(), 20)));
+
+        mockMvc.perform(post("/orders/quote")
+                        .with(user(testUser.getId(), "USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(2000.0))
+                .andExpect(jsonPath("$.data.total_discount").value(0.0))
+                .andExpect(jsonPath("$.data.items[0].product_id").value(testProduct.getId()))
+                .andExpect(jsonPath("$.data.items[0].unit_price").value(100.0));
+
+        assertThat(orderRepository.findAll()).isEmpty();
+        assertThat(productRepository.findById(testProduct.getId()).orElseThrow().getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void getOrder_ownOrder_shouldReturnItems() throws Exception {
+        long orderId = placeOrder(testUser.getId(), 2);
+
+        mockMvc.perform(get("/orders/{id}", orderId).with(user(testUser.getId(), "USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.order_id").value(orderId))
+                .andExpect(jsonPath("$.data.total").value(200.0))
+                .andExpect(jsonPath("$.data.total_discount").value(0.0))
+                .andExpect(jsonPath("$.data.items[0].product_id").value(testProduct.getId()))
+                .andExpect(jsonPath("$.data.items[0].quantity").value(2));
+    }
+
+    @Test
+    void getOrder_ofAnotherUser_shouldOnlyBeVisibleToAdmin() throws Exception {
+        long orderId = placeOrder(testUser.getId(), 1);
+
+        mockMvc.perform(get("/orders/{id}", orderId).with(user(testUser.getId(), "USER")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/orders/{id}", orderId).with(user(testUser.getId() + 1, "USER")))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/orders/{id}", orderId).with(user(testUser.getId() + 1, "ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.user_id").value(testUser.getId()));
+    }
+
+    @Test
+    void getOrder_unknownId_shouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/orders/{id}", Long.MAX_VALUE).with(user(testUser.getId(), "USER")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void listOrders_shouldPageNewestFirst() throws Exception {
+        List<Long> placed = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            placed.add(placeOrder(testUser.getId(), 1));
+        }
+        placeOrder(testUser.getId() + 1, 1);
+
+        List<Long> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/orders").param("size", "2").with(user(testUser.getId(), "USER"));
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).get("data");
+            page.get("content").forEach(order -> {
+                listed.add(order.get("order_id").asLong());
+                assertThat(order.get("items")).hasSize(1);
+            });
+            cursor = page.get("next_cursor").isNull() ? null : page.get("next_cursor").asText();
+        } while (cursor != null);
+
+        Collections.reverse(placed);
+        assertThat(listed).containsExactlyElementsOf(placed);
+    }
+
+    @Test
+    void listOrders_admin_shouldSeeAllOrFilterByUser() throws Exception {
+        placeOrder(testUser.getId(), 1);
+        placeOrder(testUser.getId() + 1, 1);
+
+        mockMvc.perform(get("/orders").with(user(testUser.getId() + 2, "ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(2));
+        mockMvc.perform(get("/orders").param("user_id", testUser.getId().toString())
+                        .with(user(testUser.getId() + 2, "ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(1))
+                .andExpect(jsonPath("$.data.content[0].user_id").value(testUser.getId()));
+        mockMvc.perform(get("/orders").param("user_id", testUser.getId().toString())
+                        .with(user(testUser.getId() + 1, "USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(1))
+                .andExpect(jsonPath("$.data.content[0].user_id").value(testUser.getId() + 1));
+    }
+
+    @Test
+    void listOrders_invalidCursor_shouldFail() throws Exception {
+        mockMvc.perform(get("/orders").param("cursor", "not-a-cursor").with(user(testUser.getId(), "USER")))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long placeOrder(Long userId, int quantity) throws Exception {
+        CreateOrderRequest orderRequest = new CreateOrderRequest(List.of(new OrderItemRequest(testProduct.getId(), quantity)));
+
+        String body = mockMvc.perform(post("/orders")
+                        .with(user(userId, "USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("data").get("order_id").asLong();
+    }
+
+    private static RequestPostProcessor user(Long userId, String role) {
+        return SecurityMockMvcRequestPostProcessors.jwt()
+                .authorities(Objects.requireNonNull(new RolesClaimConverter().convert(
+                        Jwt.withTokenValue("token")
+                                .header("alg", "none")
+                                .claim("roles", List.of(role))
+                                .build()
+                )))
+                .jwt(jwt -> jwt
+                        .claim("userId", userId)
+                        .claim("roles", List.of(role))
+                );
+    }
 }
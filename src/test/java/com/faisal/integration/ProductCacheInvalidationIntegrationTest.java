@@ -0,0 +1,161 @@
+package com.faisal.integration;
+
+import com.faisal.cache.ProductCacheManager;
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.model.Product;
+import com.faisal.repository.ProductRepository;
+import com.faisal.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reservations commit on their own so the after-commit eviction actually runs; the class opts
+ * out of the rollback-only transaction that {@link BaseIntegrationTest} wraps tests in.
+ */
+@Slf4j
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductCacheInvalidationIntegrationTest extends BaseIntegrationTest {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCacheManager cacheManager;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.delete(redisTemplate.keys("product*"));
+        for (int i = 0; i < 20; i++) {
+            products.add(productRepository.save(Product.builder()
+                    .name("Cached " + (char) ('a' + i))
+                    .price(BigDecimal.valueOf(10 + i))
+                    .quantity(1_000)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll(products);
+        products.clear();
+    }
+
+    @Test
+    void reserveStock_shouldEvictOnlyTouchedProductsAfterCommit() {
+        Product touched = products.get(0);
+        Product untouched = products.get(1);
+
+        productService.getById(touched.getId());
+        productService.getById(untouched.getId());
+        productService.searchCached(touched.getName(), null, null, null, FIRST_PAGE);
+        productService.searchCached(untouched.getName(), null, null, null, FIRST_PAGE);
+
+        productService.reserveStock(List.of(new OrderItemRequest(touched.getId(), 2)));
+
+        Cache byId = cacheManager.getCache(ProductCacheManager.PRODUCT_BY_ID);
+        Cache search = cacheManager.getCache(ProductCacheManager.PRODUCTS_SEARCH);
+        assertThat(byId.get(touched.getId())).isNull();
+        assertThat(byId.get(untouched.getId())).isNotNull();
+        assertThat(search.get(searchKey(touched.getName()))).isNull();
+        assertThat(search.get(searchKey(untouched.getName()))).isNotNull();
+
+        assertThat(productService.getById(touched.getId()).quantity()).isEqualTo(998);
+    }
+
+    @Test
+    void reserveStock_whenTransactionRollsBack_shouldKeepCacheEntries() {
+        Product product = products.get(0);
+        productService.getById(product.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.reserveStock(List.of(new OrderItemRequest(product.getId(), 1)));
+            status.setRollbackOnly();
+        });
+
+        assertThat(cacheManager.getCache(ProductCacheManager.PRODUCT_BY_ID).get(product.getId())).isNotNull();
+    }
+
+    /**
+     * Mixed read/order traffic: every round reads a few products and a search page, then places
+     * a one-line order. Logs the resulting hit ratio and reservation latency.
+     */
+    @Test
+    void mixedTraffic_shouldKeepProductCacheWarm() {
+        Random random = new Random(42);
+        int rounds = 200;
+        double hitsBefore = hits();
+        double missesBefore = gets("l2", "miss");
+        long reserveNanos = 0;
+
+        for (int round = 0; round < rounds; round++) {
+            for (int read = 0; read < 5; read++) {
+                productService.getById(products.get(random.nextInt(products.size())).getId());
+            }
+            productService.searchCached("cached", null, null, null, PageRequest.of(random.nextInt(2), 10));
+
+            Product ordered = products.get(random.nextInt(products.size()));
+            long start = System.nanoTime();
+            productService.reserveStock(List.of(new OrderItemRequest(ordered.getId(), 1)));
+            reserveNanos += System.nanoTime() - start;
+        }
+
+        double hits = hits() - hitsBefore;
+        double misses = gets("l2", "miss") - missesBefore;
+        double hitRatio = hits / (hits + misses);
+        log.info("Product cache under mixed traffic: rounds={}, hitRatio={}, avgReserveMicros={}",
+                rounds, String.format("%.3f", hitRatio), TimeUnit.NANOSECONDS.toMicros(reserveNanos / rounds));
+
+        assertThat(hitRatio).isGreaterThan(0.5);
+    }
+
+    /** L1 misses fall through to L2, so only L2 misses are misses of the cache as a whole. */
+    private double hits() {
+        return gets("l1", "hit") + gets("l2", "hit");
+    }
+
+    private double gets(String level, String result) {
+        return meterRegistry.find("cache.gets").tag("cache.level", level).tag("result", result).functionCounters().stream()
+                .filter(counter -> counter.getId().getTag("cache").startsWith("product"))
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private static String searchKey(String name) {
+        return name.trim().toLowerCase() + "::::" + FIRST_PAGE.getPageNumber() + ":" + FIRST_PAGE.getPageSize()
+                + ":" + FIRST_PAGE.getSort();
+    }
+}
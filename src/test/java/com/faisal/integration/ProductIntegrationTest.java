@@ -3,6 +3,7 @@ package com.faisal.integration;
 import com.faisal.dto.request.CreateProductRequest;
 import com.faisal.model.Product;
 import com.faisal.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +11,8 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
@@ -86,6 +89,55 @@ class ProductIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.data.content[0].name").value("Apple"));
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void scrollProducts_shouldWalkEveryMatchOnceInKeysetOrder() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            // Repeated prices so the id tiebreaker matters.
+            productRepository.save(Product.builder().name("Item " + i).price(BigDecimal.valueOf(10 + i % 3)).quantity(1).build());
+        }
+        productRepository.save(Product.builder().name("Other").price(BigDecimal.ONE).quantity(1).build());
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/products/scroll").param("name", "item").param("size", "3");
+            request = cursor == null ? request.param("sort_by", "price").param("direction", "DESC") : request.param("cursor", cursor);
+            JsonNode data = objectMapper.readTree(mockMvc.perform(request)
+                            .andExpect(status().isOk())
+                            .andExpect(jsonPath("$.data.total_elements").doesNotExist())
+                            .andReturn().getResponse().getContentAsString())
+                    .get("data");
+            data.get("content").forEach(product -> names.add(product.get("name").asText()));
+            cursor = data.get("next_cursor").isNull() ? null : data.get("next_cursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(names).containsExactly("Item 5", "Item 2", "Item 4", "Item 1", "Item 6", "Item 3", "Item 0");
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void scrollProducts_withTotal_shouldCountAllMatches() throws Exception {
+        productRepository.save(Product.builder().name("Apple").price(BigDecimal.valueOf(10)).quantity(100).build());
+        productRepository.save(Product.builder().name("Banana").price(BigDecimal.valueOf(5)).quantity(200).build());
+
+        mockMvc.perform(get("/products/scroll").param("size", "1").param("with_total", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content", hasSize(1)))
+                .andExpect(jsonPath("$.data.total_elements").value(2))
+                .andExpect(jsonPath("$.data.next_cursor").isNotEmpty());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void scrollProducts_withInvalidCursor_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/products/scroll").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void updateProduct_asAdmin_shouldSucceed() throws Exception {
@@ -0,0 +1,103 @@
+package com.faisal.integration;
+
+import com.faisal.exception.BadRequestException;
+import com.faisal.model.Product;
+import com.faisal.repository.ProductRepository;
+import com.faisal.service.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers a single product from many threads. Each reservation commits on its own, so the
+ * class opts out of the rollback-only transaction that {@link BaseIntegrationTest} wraps tests in.
+ */
+@Slf4j
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductStockConcurrencyIntegrationTest extends BaseIntegrationTest {
+
+    private static final int INITIAL_STOCK = 200;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder()
+                .name("Hot SKU")
+                .description("Flash sale item")
+                .price(BigDecimal.valueOf(25))
+                .quantity(INITIAL_STOCK)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteById(product.getId());
+    }
+
+    @Test
+    void reserveStock_underContention_shouldNeverOversell() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        productService.reserveStock(product.getId(), 1);
+                        reserved.incrementAndGet();
+                    } catch (BadRequestException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long tookNanos = System.nanoTime() - startNanos;
+        pool.shutdown();
+
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        log.info("Stock contention: {} attempts from {} threads in {} ms ({} reservations/s), reserved={}, rejected={}",
+                attempts, THREADS, TimeUnit.NANOSECONDS.toMillis(tookNanos),
+                (long) (attempts / (tookNanos / 1_000_000_000.0)), reserved.get(), rejected.get());
+
+        Product after = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(reserved.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(rejected.get()).isEqualTo(attempts - INITIAL_STOCK);
+        assertThat(after.getQuantity()).isZero();
+    }
+}
@@ -0,0 +1,130 @@
+package com.faisal.integration;
+
+import com.faisal.cache.ProductCacheManager;
+import com.faisal.cache.ProductCacheProperties;
+import com.faisal.model.Product;
+import com.faisal.repository.ProductRepository;
+import com.faisal.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "app.cache.caches.productsSearch.l1.enabled=false",
+        "management.endpoints.web.exposure.include=health,metrics"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TwoLevelCacheIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCacheManager redisCacheManager;
+
+    @Autowired
+    private ProductCacheProperties cacheProperties;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.delete(redisTemplate.keys("product*"));
+        product = productRepository.save(Product.builder().name("Layered").price(BigDecimal.TEN).quantity(5).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteById(product.getId());
+    }
+
+    @Test
+    void getById_shouldServeRepeatedReadsFromL1() {
+        productService.getById(product.getId());
+        double l1Hits = gets("productById", "l1", "hit");
+        double l2Gets = gets("productById", "l2", "hit") + gets("productById", "l2", "miss");
+
+        productService.getById(product.getId());
+        productService.getById(product.getId());
+
+        assertThat(gets("productById", "l1", "hit")).isEqualTo(l1Hits + 2);
+        assertThat(gets("productById", "l2", "hit") + gets("productById", "l2", "miss")).isEqualTo(l2Gets);
+    }
+
+    @Test
+    void invalidationFromAnotherNode_shouldDropL1Entry() {
+        productService.getById(product.getId());
+
+        // Another node changed the product: its Redis entry is gone and it announces the eviction.
+        redisCacheManager.getCache(ProductCacheManager.PRODUCT_BY_ID).evict(product.getId());
+        redisTemplate.convertAndSend(cacheProperties.getInvalidationChannel(),
+                "{\"origin\":\"other-node\",\"cacheName\":\"productById\",\"key\":\"" + product.getId() + "\"}");
+
+        double l2Misses = gets("productById", "l2", "miss");
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            productService.getById(product.getId());
+            assertThat(gets("productById", "l2", "miss")).isGreaterThan(l2Misses);
+        });
+    }
+
+    @Test
+    void cacheWithL1Disabled_shouldGoStraightToRedis() {
+        productService.searchCached("layered", null, null, null, PageRequest.of(0, 10));
+
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "productsSearch").tag("cache.level", "l1").meters())
+                .isEmpty();
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "productsSearch").tag("cache.level", "l2").meters())
+                .isNotEmpty();
+    }
+
+    @Test
+    void metricsEndpoint_anonymously_shouldRequireLogin() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/cache.gets")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void metricsEndpoint_asUser_shouldBeForbidden() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/cache.gets")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void metricsEndpoint_asAdmin_shouldShowCacheMetrics() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/cache.gets")).andExpect(status().isOk());
+    }
+
+    private double gets(String cache, String level, String result) {
+        return meterRegistry.find("cache.gets")
+                .tag("cache", cache).tag("cache.level", level).tag("result", result)
+                .functionCounters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+}
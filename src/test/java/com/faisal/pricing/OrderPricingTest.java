@@ -0,0 +1,245 @@
+package com.faisal.pricing;
+
+import com.faisal.discount.DiscountPlan;
+import com.faisal.enums.DiscountScope;
+import com.faisal.enums.Role;
+import com.faisal.model.DiscountRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the kernel against the {@code BigDecimal} pricing {@code OrderService} did before it,
+ * kept here as {@link #legacy}: the subtotal, line totals and the order discount rounded to cents
+ * are always the same, and the line discounts are the same wherever the old ones added up to the
+ * order discount, apart from lines whose exact share ends in exactly half a cent.
+ */
+class OrderPricingTest {
+
+    private static final BigDecimal HIGH_LINE_THRESHOLD = new BigDecimal("100.00");
+    private static final BigDecimal HIGH_LINE_AMOUNT = new BigDecimal("50.00");
+    private static final BigDecimal HIGH_VALUE_THRESHOLD = new BigDecimal("500.00");
+    private static final BigDecimal HIGH_VALUE_RATE = new BigDecimal("0.05");
+    private static final BigDecimal PREMIUM_RATE = new BigDecimal("0.10");
+
+    private DiscountPlan discountPlan;
+
+    @BeforeEach
+    void setup() {
+        discountPlan = DiscountPlan.compile(List.of(
+                DiscountRule.builder().name("Premium customers").role(Role.PREMIUM_USER).scope(DiscountScope.ORDER)
+                        .rate(PREMIUM_RATE).build(),
+                DiscountRule.builder().name("High value orders").scope(DiscountScope.ORDER)
+                        .threshold(HIGH_VALUE_THRESHOLD).rate(HIGH_VALUE_RATE).build(),
+                DiscountRule.builder().name("High line items").scope(DiscountScope.LINE)
+                        .threshold(HIGH_LINE_THRESHOLD).amount(HIGH_LINE_AMOUNT).build()));
+    }
+
+    /* ---------------- GOLDEN ORDERS ---------------- */
+
+    @Test
+    void price_premiumSingleLine_shouldMatchLegacy() {
+        PricedOrder priced = price(Role.PREMIUM_USER, new long[]{5000}, new int[]{2});
+
+        assertThat(priced.subtotal()).isEqualTo(10000);
+        assertThat(priced.discount()).isEqualTo(1000);
+        assertThat(priced.lineDiscounts()).containsExactly(1000);
+        assertThat(priced.total()).isEqualTo(9000);
+        assertMatchesLegacy(Role.PREMIUM_USER, new long[]{5000}, new int[]{2});
+    }
+
+    @Test
+    void price_allDiscountsTogether_shouldMatchLegacy() {
+        // 600.00 subtotal: 10% premium + 5% high value + 50.00 for the line above 100.00.
+        PricedOrder priced = price(Role.PREMIUM_USER, new long[]{25000, 1000}, new int[]{2, 10});
+
+        assertThat(priced.discount()).isEqualTo(14000);
+        assertThat(priced.lineDiscounts()).containsExactly(11667, 2333);
+        assertThat(priced.total()).isEqualTo(46000);
+        assertMatchesLegacy(Role.PREMIUM_USER, new long[]{25000, 1000}, new int[]{2, 10});
+    }
+
+    @Test
+    void price_linesThatRoundedAwayACent_shouldNowAddUpToTheDiscount() {
+        // 10% of 99.99 is 9.999, rounded to 10.00. Each line's 3.333 used to round to 3.33 on its
+        // own, so the lines gave away 9.99 and the order total came to 90.00.
+        PricedOrder priced = price(Role.PREMIUM_USER, new long[]{3333, 3333, 3333}, new int[]{1, 1, 1});
+        Legacy legacy = legacy(Role.PREMIUM_USER, new long[]{3333, 3333, 3333}, new int[]{1, 1, 1});
+
+        assertThat(legacy.lineDiscounts()).containsExactly(333, 333, 333);
+        assertThat(priced.discount()).isEqualTo(legacy.discount()).isEqualTo(1000);
+        assertThat(priced.lineDiscounts()).containsExactly(334, 333, 333);
+        assertThat(priced.total()).isEqualTo(8999);
+    }
+
+    @Test
+    void price_shareOfExactlyHalfACent_shouldGoToTheEarlierLine() {
+        // 10% of 148.10 is 14.81, split 8.625 / 6.185. The old 8-digit share rounded the first
+        // down and the second up; the kernel gives the tied cent to the first line.
+        PricedOrder priced = price(Role.PREMIUM_USER, new long[]{1725, 1237}, new int[]{5, 5});
+        Legacy legacy = legacy(Role.PREMIUM_USER, new long[]{1725, 1237}, new int[]{5, 5});
+
+        assertThat(legacy.lineDiscounts()).containsExactly(862, 619);
+        assertThat(priced.lineDiscounts()).containsExactly(863, 618);
+        assertThat(priced.discount()).isEqualTo(legacy.discount()).isEqualTo(1481);
+    }
+
+    @Test
+    void price_discountAboveSubtotal_shouldBeCapped() {
+        PricedOrder priced = OrderPricing.price(new long[]{5000}, new int[]{1}, (subtotal, lines) -> 2 * subtotal * Money.MILLIONTHS_PER_CENT);
+
+        assertThat(priced.discount()).isEqualTo(5000);
+        assertThat(priced.lineDiscounts()).containsExactly(5000);
+        assertThat(priced.total()).isZero();
+    }
+
+    @Test
+    void price_negativeDiscount_shouldBeIgnored() {
+        PricedOrder priced = OrderPricing.price(new long[]{5000, 100}, new int[]{1, 3}, (subtotal, lines) -> -1);
+
+        assertThat(priced.discount()).isZero();
+        assertThat(priced.lineDiscounts()).containsExactly(0, 0);
+        assertThat(priced.total()).isEqualTo(5300);
+    }
+
+    @Test
+    void price_emptyOrFreeOrder_shouldNotAskForADiscount() {
+        OrderPricing.Discount failing = (subtotal, lines) -> {
+            throw new AssertionError("discount asked for a free order");
+        };
+
+        assertThat(OrderPricing.price(new long[0], new int[0], failing).total()).isZero();
+        assertThat(OrderPricing.price(new long[]{0, 0}, new int[]{1, 4}, failing).lineDiscounts()).containsExactly(0, 0);
+    }
+
+    @Test
+    void price_lineTotalOverflowingALong_shouldThrow() {
+        assertThatThrownBy(() -> OrderPricing.price(new long[]{Long.MAX_VALUE / 2}, new int[]{3}, (subtotal, lines) -> 0))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    /* ---------------- AGAINST THE LEGACY PRICING ---------------- */
+
+    @Test
+    void price_randomOrders_shouldMatchLegacyRounding() {
+        Random random = new Random(20240611L);
+        for (int order = 0; order < 20_000; order++) {
+            int lines = 1 + random.nextInt(8);
+            long[] unitPrices = new long[lines];
+            int[] quantities = new int[lines];
+            for (int i = 0; i < lines; i++) {
+                unitPrices[i] = 1 + random.nextInt(random.nextBoolean() ? 5_000 : 50_000);
+                quantities[i] = 1 + random.nextInt(5);
+            }
+            Role role = random.nextBoolean() ? Role.PREMIUM_USER : Role.USER;
+
+            assertMatchesLegacy(role, unitPrices, quantities);
+        }
+    }
+
+    /* ---------------- ALLOCATION ---------------- */
+
+    @Test
+    void allocate_leftoverCents_shouldGoToLargestRemaindersThenEarlierLines() {
+        // 10 cents over 1:1:1 is 3.33 each; the one cent left goes to the first line.
+        assertThat(OrderPricing.allocate(10, 10, new long[]{1, 1, 1}, 3)).containsExactly(4, 3, 3);
+        // 10 cents over 1:2:2 is 2, 4, 4; nothing left over.
+        assertThat(OrderPricing.allocate(10, 10, new long[]{1, 2, 2}, 5)).containsExactly(2, 4, 4);
+        // 7 cents over 5:3:2 is 3.5, 2.1, 1.4; the cent left goes to the .5.
+        assertThat(OrderPricing.allocate(7, 7, new long[]{5, 3, 2}, 10)).containsExactly(4, 2, 1);
+    }
+
+    @Test
+    void allocate_sharesAboveALong_shouldBeExact() {
+        // 5 cents over three equal lines whose weight times the amount does not fit in a long.
+        long weight = Long.MAX_VALUE / 3;
+        long[] shares = OrderPricing.allocate(5, 5, new long[]{weight, weight, weight}, 3 * weight);
+
+        assertThat(shares).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    void allocate_nothing_shouldGiveEveryLineZero() {
+        assertThat(OrderPricing.allocate(0, 0, new long[]{100, 200}, 300)).containsExactly(0, 0);
+    }
+
+    private PricedOrder price(Role role, long[] unitPrices, int[] quantities) {
+        return OrderPricing.price(unitPrices, quantities,
+                (subtotal, lineTotals) -> discountPlan.discount(role, Instant.EPOCH, subtotal, lineTotals));
+    }
+
+    private void assertMatchesLegacy(Role role, long[] unitPrices, int[] quantities) {
+        PricedOrder priced = price(role, unitPrices, quantities);
+        Legacy legacy = legacy(role, unitPrices, quantities);
+        String order = role + " " + Arrays.toString(unitPrices) + " x " + Arrays.toString(quantities);
+
+        assertThat(priced.subtotal()).as(order).isEqualTo(legacy.subtotal());
+        assertThat(priced.lineTotals()).as(order).containsExactly(legacy.lineTotals());
+        assertThat(priced.discount()).as(order).isEqualTo(legacy.discount());
+        assertThat(Arrays.stream(priced.lineDiscounts()).sum()).as(order).isEqualTo(priced.discount());
+        for (int i = 0; i < unitPrices.length; i++) {
+            assertThat(priced.lineDiscounts()[i]).as(order).isBetween(legacy.lineDiscounts()[i] - 1, legacy.lineDiscounts()[i] + 1);
+        }
+        if (Arrays.stream(legacy.lineDiscounts()).sum() == legacy.discount() && !legacy.halfCentShare()) {
+            assertThat(priced.lineDiscounts()).as(order).containsExactly(legacy.lineDiscounts());
+        }
+    }
+
+    /**
+     * How {@code OrderService} priced an order before the kernel: the discount chain in
+     * {@code BigDecimal}, capped at the subtotal, and each line's discount rounded on its own from
+     * an 8-digit share of the unrounded discount.
+     */
+    private static Legacy legacy(Role role, long[] unitPrices, int[] quantities) {
+        BigDecimal[] lineTotals = new BigDecimal[unitPrices.length];
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < unitPrices.length; i++) {
+            lineTotals[i] = BigDecimal.valueOf(unitPrices[i], 2).multiply(BigDecimal.valueOf(quantities[i]));
+            subtotal = subtotal.add(lineTotals[i]);
+        }
+        subtotal = subtotal.setScale(2, RoundingMode.HALF_UP);
+
+        BigDecimal discount = BigDecimal.ZERO;
+        if (role == Role.PREMIUM_USER) {
+            discount = discount.add(subtotal.multiply(PREMIUM_RATE));
+        }
+        if (subtotal.compareTo(HIGH_VALUE_THRESHOLD) > 0) {
+            discount = discount.add(subtotal.multiply(HIGH_VALUE_RATE));
+        }
+        for (BigDecimal lineTotal : lineTotals) {
+            if (lineTotal.compareTo(HIGH_LINE_THRESHOLD) > 0) {
+                discount = discount.add(HIGH_LINE_AMOUNT);
+            }
+        }
+        if (discount.compareTo(subtotal) > 0) {
+            discount = subtotal;
+        }
+
+        long[] lineCents = new long[unitPrices.length];
+        long[] lineDiscounts = new long[unitPrices.length];
+        boolean halfCentShare = false;
+        for (int i = 0; i < unitPrices.length; i++) {
+            BigDecimal lineTotal = lineTotals[i].setScale(2, RoundingMode.HALF_UP);
+            BigDecimal share = lineTotal.divide(subtotal, 8, RoundingMode.HALF_UP);
+            lineCents[i] = Money.toCents(lineTotal);
+            lineDiscounts[i] = Money.toCents(discount.multiply(share).setScale(2, RoundingMode.HALF_UP));
+            // The exact share, discount * lineTotal / subtotal, in cents ends in .5.
+            BigDecimal exactCents = discount.multiply(lineTotal).movePointRight(2);
+            halfCentShare |= exactCents.remainder(subtotal).multiply(BigDecimal.valueOf(2)).compareTo(subtotal) == 0;
+        }
+
+        return new Legacy(Money.toCents(subtotal), Money.toCents(discount.setScale(2, RoundingMode.HALF_UP)),
+                lineCents, lineDiscounts, halfCentShare);
+    }
+
+    private record Legacy(long subtotal, long discount, long[] lineTotals, long[] lineDiscounts, boolean halfCentShare) {}
+}
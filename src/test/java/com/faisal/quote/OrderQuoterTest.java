@@ -0,0 +1,127 @@
+package com.faisal.quote;
+
+import com.faisal.coupon.CouponLedger;
+import com.faisal.coupon.CouponTerms;
+import com.faisal.discount.DiscountService;
+import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.dto.response.OrderQuoteResponse;
+import com.faisal.dto.response.ProductResponse;
+import com.faisal.enums.Role;
+import com.faisal.event.DiscountRulesChangedEvent;
+import com.faisal.exception.BadRequestException;
+import com.faisal.pricing.Money;
+import com.faisal.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderQuoterTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private DiscountService discountService;
+
+    @Mock
+    private CouponLedger couponLedger;
+
+    private OrderQuoter orderQuoter;
+
+    @BeforeEach
+    void setup() {
+        orderQuoter = new OrderQuoter(productService, discountService, couponLedger, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void quote_shouldPriceItemsFromProductsWithDiscount() {
+        when(productService.getById(1L)).thenReturn(product(1L, "100.00"));
+        when(productService.getById(2L)).thenReturn(product(2L, "50.00"));
+        // 10% of 250.00
+        when(discountService.totalDiscount(eq(Role.PREMIUM_USER), any(Instant.class), isNull(), eq(25_000L), any(long[].class)))
+                .thenReturn(2_500 * Money.MILLIONTHS_PER_CENT);
+
+        OrderQuoteResponse quote = orderQuoter.quote(Role.PREMIUM_USER,
+                List.of(new OrderItemRequest(1L, 2), new OrderItemRequest(2L, 1)));
+
+        assertThat(quote.total()).isEqualByComparingTo("225.00");
+        assertThat(quote.totalDiscount()).isEqualByComparingTo("25.00");
+        assertThat(quote.items()).hasSize(2);
+        assertThat(quote.items().get(0).unitPrice()).isEqualByComparingTo("100.00");
+        assertThat(quote.items().get(1).quantity()).isEqualTo(1);
+    }
+
+    @Test
+    void quote_sameItemsAndRole_shouldBeRemembered() {
+        when(productService.getById(1L)).thenReturn(product(1L, "100.00"));
+        when(discountService.totalDiscount(any(), any(Instant.class), isNull(), anyLong(), any(long[].class))).thenReturn(0L);
+        List<OrderItemRequest> items = List.of(new OrderItemRequest(1L, 2));
+
+        OrderQuoteResponse first = orderQuoter.quote(Role.USER, items);
+        OrderQuoteResponse second = orderQuoter.quote(Role.USER, List.of(new OrderItemRequest(1L, 2)));
+        orderQuoter.quote(Role.PREMIUM_USER, items);
+
+        assertThat(second).isSameAs(first);
+        verify(productService, times(2)).getById(1L);
+    }
+
+    @Test
+    void quote_afterRulesChanged_shouldPriceAgain() {
+        when(productService.getById(1L)).thenReturn(product(1L, "100.00"));
+        when(discountService.totalDiscount(any(), any(Instant.class), isNull(), anyLong(), any(long[].class))).thenReturn(0L);
+        List<OrderItemRequest> items = List.of(new OrderItemRequest(1L, 2));
+
+        orderQuoter.quote(Role.USER, items);
+        orderQuoter.onRulesChanged(new DiscountRulesChangedEvent(1));
+        orderQuoter.quote(Role.USER, items);
+
+        verify(productService, times(2)).getById(1L);
+    }
+
+    @Test
+    void quote_withCoupon_shouldCheckButNotRedeemIt() {
+        CouponTerms coupon = new CouponTerms(7L, "SAVE5", 0, 500);
+        when(productService.getById(1L)).thenReturn(product(1L, "100.00"));
+        when(couponLedger.check(eq("SAVE5"), any(Instant.class))).thenReturn(coupon);
+        when(discountService.totalDiscount(eq(Role.USER), any(Instant.class), eq(coupon), eq(20_000L), any(long[].class)))
+                .thenReturn(coupon.discount(20_000L));
+
+        OrderQuoteResponse quote = orderQuoter.quote(Role.USER, List.of(new OrderItemRequest(1L, 2)), "SAVE5");
+
+        assertThat(quote.total()).isEqualByComparingTo("195.00");
+        verify(couponLedger, never()).redeem(any(), any());
+    }
+
+    @Test
+    void quote_zeroQuantity_shouldThrowBadRequest() {
+        assertThatThrownBy(() -> orderQuoter.quote(Role.USER, List.of(new OrderItemRequest(1L, 0))))
+                .isInstanceOf(BadRequestException.class);
+
+        verifyNoInteractions(productService, discountService, couponLedger);
+    }
+
+    private static ProductResponse product(Long id, String price) {
+        return new ProductResponse(id, "Product " + id, null, new BigDecimal(price), 10);
+    }
+}
@@ -0,0 +1,130 @@
+package com.faisal.repository;
+
+import com.faisal.model.Order;
+import com.faisal.model.OrderItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statements and commit latency per order for 1-, 10- and 100-line orders, saved through
+ * {@link OrderRepository} against PostgreSQL with the dev profile's JDBC batching, and again with
+ * batching turned off for the session (one INSERT per row, as with the old IDENTITY ids).
+ *
+ * <p>Needs Docker, so it only runs with {@code -Dbenchmark.orders=true}:
+ * {@code mvn test -Dtest=OrderInsertBenchmarkTest -Dbenchmark.orders=true}.
+ */
+@Slf4j
+@Testcontainers
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark.orders", matches = "true")
+class OrderInsertBenchmarkTest {
+
+    private static final int ORDERS = 200;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16"));
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void batchedInserts_shouldNeedFewerStatementsPerOrder() {
+        for (int lines : List.of(1, 10, 100)) {
+            Result unbatched = run(lines, false);
+            Result batched = run(lines, true);
+
+            log.info("{}-line orders: unbatched {} statements, {} us; batched {} statements, {} us",
+                    lines, unbatched.statements(), unbatched.micros(), batched.statements(), batched.micros());
+
+            // One order INSERT, one batch per 50 items, and a share of the pooled sequence calls.
+            assertThat(batched.statements()).isLessThanOrEqualTo(2 + 2 * Math.ceil(lines / 50.0));
+            if (lines > 1) {
+                assertThat(batched.statements()).isLessThan(unbatched.statements());
+            }
+        }
+    }
+
+    /** Average statements and median latency per order, after one warm-up pass. */
+    private Result run(int lines, boolean batched) {
+        save(lines, batched);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long[] micros = new long[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            long start = System.nanoTime();
+            save(lines, batched);
+            micros[i] = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        }
+        Arrays.sort(micros);
+        return new Result((double) statistics.getPrepareStatementCount() / ORDERS, micros[ORDERS / 2]);
+    }
+
+    private void save(int lines, boolean batched) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!batched) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+            }
+            orderRepository.save(order(lines));
+        });
+    }
+
+    private static Order order(int lines) {
+        List<OrderItem> items = IntStream.rangeClosed(1, lines)
+                .mapToObj(i -> OrderItem.builder()
+                        .productId((long) i)
+                        .quantity(1)
+                        .unitPrice(BigDecimal.TEN)
+                        .discountApplied(BigDecimal.ZERO)
+                        .totalPrice(BigDecimal.TEN)
+                        .build())
+                .collect(Collectors.toCollection(ArrayList::new));
+        return Order.builder()
+                .userId(1L)
+                .orderTotal(BigDecimal.TEN.multiply(BigDecimal.valueOf(lines)))
+                .items(items)
+                .build();
+    }
+
+    private record Result(double statements, long micros) {}
+}
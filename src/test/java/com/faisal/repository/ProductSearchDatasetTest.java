@@ -0,0 +1,207 @@
+package com.faisal.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Generates 1M products in PostgreSQL and compares name search latency (page + count query)
+ * before the V2 indexes could be used and after, for a common and a rare term.
+ *
+ * <p>Slow and needs Docker, so it only runs with {@code -Dbenchmark.search=true}:
+ * {@code mvn test -Dtest=ProductSearchDatasetTest -Dbenchmark.search=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark.search", matches = "true")
+class ProductSearchDatasetTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int RUNS = 5;
+
+    private static final String NAME = "name";
+
+    private static final String LIKE_WHERE = "deleted = false and lower(name) like ?";
+    private static final String FULL_TEXT_WHERE = "deleted = false and ("
+            + render(ProductSearchFunctions.MATCH) + " or lower(name) like ?)";
+
+    private static PostgreSQLContainer<?> postgres;
+    private static Connection connection;
+
+    @BeforeAll
+    static void generateDataset() throws SQLException {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16"));
+        postgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    insert into products (name, description, price, quantity, deleted, created_at, updated_at)
+                    select (array['Wireless','Organic','Vintage','Compact','Ergonomic','Smart','Rugged','Premium'])[1 + i % 8]
+                               || ' ' || (array['Keyboard','Coffee','Lamp','Backpack','Headphones','Chair','Bottle','Camera','Jacket','Watch'])[1 + (i / 8) % 10]
+                               || ' ' || substr(md5(i::text), 1, 8),
+                           'Item ' || i || ' for ' || (array['office','travel','kitchen','outdoor','gaming'])[1 + i % 5] || ' use',
+                           round((random() * 500)::numeric, 2),
+                           (random() * 100)::int,
+                           i % 50 = 0,
+                           now(),
+                           now()
+                    from generate_series(1, %d) i
+                    """.formatted(PRODUCTS));
+            statement.execute("analyze products");
+        }
+        log.info("Generated {} products in {} ms", PRODUCTS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Test
+    void nameSearch_shouldUseIndexesAndBeatSequentialScan() throws SQLException {
+        for (String term : List.of("headphones", substringOfHash(123_457))) {
+            String pattern = "%" + term + "%";
+
+            long before = timed(() -> withoutIndexes(() -> page(LIKE_WHERE, "id", pattern) + count(LIKE_WHERE, pattern)));
+            long like = timed(() -> page(LIKE_WHERE, "id", pattern) + count(LIKE_WHERE, pattern));
+            long fullText = timed(() -> page(FULL_TEXT_WHERE, render(ProductSearchFunctions.RANK) + " desc, id", term, pattern, term)
+                    + count(FULL_TEXT_WHERE, term, pattern));
+
+            log.info("Name search over {} products, term='{}': sequentialScan={} us, trigram={} us, fullText={} us",
+                    PRODUCTS, term, before, like, fullText);
+
+            assertThat(explain("select count(*) from products where " + LIKE_WHERE, pattern))
+                    .contains("idx_products_name_trgm");
+            assertThat(explain("select count(*) from products where " + FULL_TEXT_WHERE, term, pattern))
+                    .contains("idx_products_search")
+                    .contains("idx_products_name_trgm");
+        }
+    }
+
+    @Test
+    void nameSearch_shouldNotMatchDescriptionOnly() throws SQLException {
+        // Every fifth description mentions the kitchen, no name does.
+        assertThat(count("deleted = false and description like ?", "%kitchen%")).isPositive();
+        assertThat(count(FULL_TEXT_WHERE, "kitchen", "%kitchen%")).isZero();
+    }
+
+    @Test
+    void rareTerm_shouldBeFasterWithTrigramIndex() throws SQLException {
+        String pattern = "%" + substringOfHash(987_651) + "%";
+
+        long before = timed(() -> withoutIndexes(() -> count(LIKE_WHERE, pattern)));
+        long after = timed(() -> count(LIKE_WHERE, pattern));
+
+        assertThat(after).isLessThan(before);
+    }
+
+    /** GIN indexes are only read through bitmap scans, so this plans the query as it was before V2. */
+    private static int withoutIndexes(SqlAction action) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("set enable_bitmapscan = off");
+            try {
+                return action.run();
+            } finally {
+                statement.execute("reset enable_bitmapscan");
+            }
+        }
+    }
+
+    /** Six hex characters out of the middle of one product's name: matches very few rows. */
+    private static String substringOfHash(int i) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select substr(md5(?::text), 2, 6)")) {
+            statement.setInt(1, i);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    private static int page(String where, String orderBy, String... params) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = query("select id, name, price from products where " + where + " order by " + orderBy + " limit 10", params)) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static int count(String where, String... params) throws SQLException {
+        try (ResultSet rs = query("select count(*) from products where " + where, params)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static String explain(String sql, String... params) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (ResultSet rs = query("explain " + sql, params)) {
+            while (rs.next()) {
+                plan.add(rs.getString(1));
+            }
+        }
+        return String.join("\n", plan);
+    }
+
+    private static ResultSet query(String sql, String... params) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statement.closeOnCompletion();
+        for (int i = 0; i < params.length; i++) {
+            statement.setString(i + 1, params[i]);
+        }
+        return statement.executeQuery();
+    }
+
+    /** Median wall time in microseconds, after one warm-up run. */
+    private static long timed(SqlAction action) throws SQLException {
+        action.run();
+        long[] micros = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            action.run();
+            micros[i] = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        }
+        Arrays.sort(micros);
+        return micros[RUNS / 2];
+    }
+
+    /** Renders a {@link ProductSearchFunctions} pattern against the products columns. */
+    private static String render(String pattern) {
+        return pattern.replace("?1", NAME).replace("?2", "?");
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        int run() throws SQLException;
+    }
+}
@@ -0,0 +1,83 @@
+package com.faisal.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+    @Mock
+    private JwtDecoder delegate;
+
+    @Mock
+    private TokenRevocations tokenRevocations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        decoder = new CachingJwtDecoder(delegate, tokenRevocations, meterRegistry, 100);
+    }
+
+    @Test
+    void decode_sameToken_shouldVerifyOnce() {
+        Jwt jwt = jwt("jti-1", Instant.now().plus(Duration.ofMinutes(10)));
+        when(delegate.decode("token")).thenReturn(jwt);
+
+        assertThat(decoder.decode("token")).isSameAs(jwt);
+        assertThat(decoder.decode("token")).isSameAs(jwt);
+
+        verify(delegate, times(1)).decode("token");
+        assertThat(meterRegistry.get("auth.jwt.decode").tag("cache", "hit").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.jwt.decode").tag("cache", "miss").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void decode_revokedToken_shouldVerifyAgain() {
+        Jwt jwt = jwt("jti-1", Instant.now().plus(Duration.ofMinutes(10)));
+        when(delegate.decode("token")).thenReturn(jwt);
+        when(tokenRevocations.isRevoked("jti-1")).thenReturn(false, true);
+
+        decoder.decode("token");
+        decoder.decode("token");
+        decoder.decode("token");
+
+        verify(delegate, times(3)).decode("token");
+    }
+
+    @Test
+    void decode_expiredToken_shouldNotBeCached() {
+        Jwt jwt = jwt("jti-1", Instant.now().minusSeconds(1));
+        when(delegate.decode("token")).thenReturn(jwt);
+
+        decoder.decode("token");
+        decoder.decode("token");
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    private static Jwt jwt(String jti, Instant expiresAt) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .jti(jti)
+                .issuedAt(expiresAt.minus(Duration.ofHours(1)))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
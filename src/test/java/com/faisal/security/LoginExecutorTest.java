@@ -0,0 +1,67 @@
+package com.faisal.security;
+
+import com.faisal.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginExecutor loginExecutor;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginExecutor = new LoginExecutor(meterRegistry, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loginExecutor.stop();
+    }
+
+    @Test
+    void submit_shouldRunLoginOnLoginThreadAndTimeIt() {
+        String thread = loginExecutor.submit(() -> Thread.currentThread().getName()).join();
+
+        assertThat(thread).startsWith("login-");
+        assertThat(meterRegistry.get("auth.login").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_whenQueueIsFull_shouldRefuseWithServiceUnavailable() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = loginExecutor.submit(() -> {
+            running.countDown();
+            await(release);
+            return true;
+        });
+        running.await();
+        CompletableFuture<Boolean> queued = loginExecutor.submit(() -> true);
+
+        assertThatThrownBy(() -> loginExecutor.submit(() -> true))
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        release.countDown();
+        assertThat(busy.join()).isTrue();
+        assertThat(queued.join()).isTrue();
+        assertThat(meterRegistry.get("auth.login.rejected").counter().count()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.faisal.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenGenerationsTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private TokenGenerations generations;
+
+    @BeforeEach
+    void setup() {
+        generations = new TokenGenerations(redisTemplate, new SimpleMeterRegistry(), Duration.ofMinutes(10), 100);
+    }
+
+    @Test
+    void isCurrent_shouldReadEachUsersGenerationFromRedisOnce() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("jwt:generation:7")).thenReturn("2");
+
+        assertThat(generations.isCurrent(7L, 2)).isTrue();
+        assertThat(generations.isCurrent(7L, 1)).isFalse();
+        assertThat(generations.current(8L)).isZero();
+
+        verify(valueOperations, times(1)).get("jwt:generation:7");
+    }
+
+    @Test
+    void advance_shouldIncrementInRedisAndPublish() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.increment("jwt:generation:7")).thenReturn(1L);
+
+        assertThat(generations.advance(7L)).isEqualTo(1);
+
+        assertThat(generations.isCurrent(7L, 0)).isFalse();
+        verify(redisTemplate).convertAndSend(TokenGenerations.CHANNEL, "7:1");
+    }
+
+    @Test
+    void forIssuing_withStaleCache_shouldReadRedis() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("jwt:generation:7")).thenReturn("0", "2");
+        assertThat(generations.current(7L)).isZero();
+
+        // Another node advanced the user and its message has not arrived.
+        assertThat(generations.forIssuing(7L)).isEqualTo(2);
+        assertThat(generations.isCurrent(7L, 2)).isTrue();
+    }
+
+    @Test
+    void onMessage_shouldNeverMoveGenerationBack() {
+        generations.onMessage(message("7:3"), null);
+        generations.onMessage(message("7:2"), null);
+
+        assertThat(generations.current(7L)).isEqualTo(3);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(TokenGenerations.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
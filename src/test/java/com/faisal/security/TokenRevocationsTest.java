@@ -0,0 +1,97 @@
+package com.faisal.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationsTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private Cursor<String> keys;
+
+    private TokenRevocations revocations;
+
+    @BeforeEach
+    void setup() {
+        revocations = new TokenRevocations(redisTemplate, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void isRevoked_beforeLoad_shouldAskRedis() {
+        when(redisTemplate.hasKey("jwt:blacklist:jti-1")).thenReturn(true);
+
+        assertThat(revocations.isRevoked("jti-1")).isTrue();
+    }
+
+    @Test
+    void isRevoked_afterLoad_shouldOnlyAskRedisForKnownIds() {
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(keys);
+        when(keys.hasNext()).thenReturn(true, false);
+        when(keys.next()).thenReturn("jwt:blacklist:jti-1");
+        when(redisTemplate.getExpire("jwt:blacklist:jti-1", TimeUnit.MILLISECONDS)).thenReturn(60_000L);
+        when(redisTemplate.hasKey("jwt:blacklist:jti-1")).thenReturn(true);
+        revocations.resync();
+
+        assertThat(revocations.isRevoked("jti-1")).isTrue();
+        assertThat(revocations.isRevoked("jti-2")).isFalse();
+        verify(redisTemplate, never()).hasKey("jwt:blacklist:jti-2");
+    }
+
+    @Test
+    void revoke_shouldBlacklistInRedisAndPublish() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(10));
+
+        revocations.revoke("jti-1", expiresAt);
+
+        verify(valueOperations).set(eq("jwt:blacklist:jti-1"), eq("1"), any(Duration.class));
+        verify(redisTemplate).convertAndSend(TokenRevocations.CHANNEL, expiresAt.toEpochMilli() + ":jti-1");
+    }
+
+    @Test
+    void onMessage_shouldRevokeLocallyUntilExpiry() {
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(keys);
+        revocations.resync();
+        long now = System.currentTimeMillis();
+
+        revocations.onMessage(message((now + 60_000) + ":jti-1"), null);
+        revocations.onMessage(message((now - 1) + ":jti-2"), null);
+        when(redisTemplate.hasKey("jwt:blacklist:jti-1")).thenReturn(true);
+
+        assertThat(revocations.isRevoked("jti-1")).isTrue();
+        assertThat(revocations.isRevoked("jti-2")).isFalse();
+        verify(redisTemplate, never()).hasKey("jwt:blacklist:jti-2");
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(TokenRevocations.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
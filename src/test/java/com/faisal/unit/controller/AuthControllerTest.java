@@ -4,6 +4,8 @@ import com.faisal.controller.AuthController;
 import com.faisal.config.JwtBlacklistFilter;
 import com.faisal.dto.request.LoginRequest;
 import com.faisal.dto.response.LoginResponse;
+import com.faisal.exception.ServiceUnavailableException;
+import com.faisal.security.LoginExecutor;
 import com.faisal.service.AuthService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -13,9 +15,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -33,6 +41,9 @@ class AuthControllerTest {
     @MockitoBean
     private AuthService authService;
 
+    @MockitoBean
+    private LoginExecutor loginExecutor;
+
     @MockitoBean
     private JwtBlacklistFilter jwtBlacklistFilter;
 
@@ -47,10 +58,15 @@ class AuthControllerTest {
 
         when(authService.login(request.email(), request.password()))
                 .thenReturn(response);
+        when(loginExecutor.submit(any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(0).get()));
 
-        mockMvc.perform(post("/auth/login")
+        MvcResult started = mockMvc.perform(post("/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.token").value("jwt-token"))
@@ -68,6 +84,19 @@ class AuthControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void login_shouldReturn503_whenTooManyLoginsAreWaiting() throws Exception {
+        LoginRequest request = new LoginRequest("test@mail.com", "password");
+        when(loginExecutor.submit(any()))
+                .thenThrow(new ServiceUnavailableException("Too many logins in progress, please retry shortly"));
+
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
     @Test
     void logout_shouldReturn200_whenHeaderIsPresent() throws Exception {
         String authHeader = "Bearer some-token";
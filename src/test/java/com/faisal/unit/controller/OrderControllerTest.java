@@ -1,19 +1,30 @@
 package com.faisal.unit.controller;
 
 import com.faisal.controller.OrderController;
+import com.faisal.dto.AuthUser;
 import com.faisal.dto.request.CreateOrderRequest;
 import com.faisal.dto.request.OrderItemRequest;
+import com.faisal.dto.response.OrderItemResponse;
+import com.faisal.dto.response.OrderQuoteResponse;
 import com.faisal.dto.response.OrderResponse;
 import com.faisal.enums.Role;
+import com.faisal.intake.OrderIntake;
+import com.faisal.quote.OrderQuoter;
+import com.faisal.security.SecurityUtils;
 import com.faisal.service.OrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,6 +34,8 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +48,15 @@ class OrderControllerTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private ObjectProvider<OrderIntake> orderIntake;
+
+    @Mock
+    private OrderQuoter orderQuoter;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private OrderController orderController;
 
@@ -66,7 +88,8 @@ class OrderControllerTest {
         );
 
         when(orderService.placeOrder(
-                request.items()
+                request.items(),
+                null
         )).thenReturn(response);
 
         mockMvc.perform(post("/orders")
@@ -77,4 +100,33 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.data.order_id").value(10L))
                 .andExpect(jsonPath("$.data.user_id").value(5L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void quoteOrder_shouldReturn200WithCallersRole() throws Exception {
+        CreateOrderRequest request = new CreateOrderRequest(
+                List.of(new OrderItemRequest(1L, 2))
+        );
+        OrderQuoteResponse quote = new OrderQuoteResponse(
+                BigDecimal.valueOf(180),
+                BigDecimal.valueOf(20),
+                List.of(new OrderItemResponse(1L, 2, BigDecimal.valueOf(100)))
+        );
+
+        try (MockedStatic<SecurityUtils> securityUtils = mockStatic(SecurityUtils.class)) {
+            securityUtils.when(SecurityUtils::currentUser)
+                    .thenReturn(new AuthUser(5L, Role.PREMIUM_USER, "premium@example.com"));
+            when(orderQuoter.quote(Role.PREMIUM_USER, request.items(), null)).thenReturn(quote);
+
+            mockMvc.perform(post("/orders/quote")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.total").value(180))
+                    .andExpect(jsonPath("$.data.total_discount").value(20))
+                    .andExpect(jsonPath("$.data.items[0].unit_price").value(100));
+        }
+
+        assertThat(meterRegistry.get("orders.quote").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.placement").timer().count()).isZero();
+    }
+}
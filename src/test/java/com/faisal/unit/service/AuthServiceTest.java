@@ -3,9 +3,10 @@ package com.faisal.unit.service;
 import com.faisal.dto.response.LoginResponse;
 import com.faisal.enums.Role;
 import com.faisal.exception.BadRequestException;
-import com.faisal.model.User;
-import com.faisal.repository.UserRepository;
+import com.faisal.security.AuthUserDetails;
 import com.faisal.security.JwtService;
+import com.faisal.security.TokenGenerations;
+import com.faisal.security.TokenRevocations;
 import com.faisal.service.AuthService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -16,16 +17,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
-import java.util.Optional;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -38,13 +37,11 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
     @Mock
-    private UserRepository userRepository;
-    @Mock
     private JwtService jwtService;
     @Mock
-    private StringRedisTemplate redisTemplate;
+    private TokenRevocations tokenRevocations;
     @Mock
-    private ValueOperations<String, String> valueOperations;
+    private TokenGenerations tokenGenerations;
 
     private AuthService authService;
     private final String secret = "v9y$B&E)H@McQfTjWmZq4t7w!z%C*F-JaNdRgUkXp2s5u8x/A?D(G+KbPeShVkYp";
@@ -52,7 +49,7 @@ class AuthServiceTest {
 
     @BeforeEach
     void setUp() {
-        authService = new AuthService(authenticationManager, userRepository, jwtService, redisTemplate, secret);
+        authService = new AuthService(authenticationManager, jwtService, tokenRevocations, tokenGenerations, secret);
         key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
 
@@ -62,12 +59,11 @@ class AuthServiceTest {
         String password = "password";
         String token = "jwt-token";
 
-        User user = mock(User.class);
-        when(user.getRole()).thenReturn(Role.USER);
-        when(user.getId()).thenReturn(1L);
-
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(jwtService.generateToken(email, Role.USER, 1L)).thenReturn(token);
+        AuthUserDetails user = new AuthUserDetails(1L, email, "hash", Role.USER);
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+        when(tokenGenerations.forIssuing(1L)).thenReturn(3L);
+        when(jwtService.generateToken(email, Role.USER, 1L, 3L)).thenReturn(token);
 
         LoginResponse response = authService.login(email, password);
 
@@ -81,10 +77,11 @@ class AuthServiceTest {
 
 
     @Test
-    void login_shouldThrowException_whenUserNotFound() {
+    void login_shouldThrowException_whenPrincipalIsNotAuthUser() {
         String email = "test@example.com";
         String password = "password";
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated(email, null, List.of()));
 
         assertThatThrownBy(() -> authService.login(email, password))
                 .isInstanceOf(BadRequestException.class)
@@ -103,11 +100,17 @@ class AuthServiceTest {
                 .compact();
         String header = "Bearer " + token;
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-
         authService.logout(header);
 
-        verify(valueOperations).set(eq("jwt:blacklist:" + jti), eq("1"), any(Duration.class));
+        verify(tokenRevocations).revoke(eq(jti), any(Instant.class));
+    }
+
+    @Test
+    void logoutEverywhere_shouldAdvanceUsersGeneration() {
+        authService.logoutEverywhere(1L);
+
+        verify(tokenGenerations).advance(1L);
+        verifyNoInteractions(tokenRevocations);
     }
 
     @Test
@@ -147,6 +150,6 @@ class AuthServiceTest {
         assertThatThrownBy(() -> authService.logout(header))
                 .isInstanceOf(io.jsonwebtoken.ExpiredJwtException.class);
 
-        verify(redisTemplate, never()).opsForValue();
+        verifyNoInteractions(tokenRevocations);
     }
 }
@@ -1,24 +1,29 @@
 package com.faisal.unit.service;
 
+import com.faisal.coupon.CouponLedger;
+import com.faisal.coupon.CouponTerms;
 import com.faisal.discount.DiscountService;
 import com.faisal.dto.AuthUser;
 import com.faisal.security.SecurityUtils;
 import com.faisal.dto.request.OrderItemRequest;
 import com.faisal.dto.response.OrderResponse;
 import com.faisal.enums.Role;
+import com.faisal.inventory.StockReserver;
 import com.faisal.mapper.OrderMapper;
 import com.faisal.model.Order;
 import com.faisal.model.OrderItem;
+import com.faisal.pricing.Money;
 import com.faisal.repository.OrderRepository;
 import com.faisal.service.OrderService;
-import com.faisal.service.ProductService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,7 +38,10 @@ class OrderServiceTest {
     private DiscountService discountService;
 
     @Mock
-    private ProductService productService;
+    private StockReserver stockReserver;
+
+    @Mock
+    private CouponLedger couponLedger;
 
     @Mock
     private OrderMapper orderMapper;
@@ -52,20 +60,18 @@ class OrderServiceTest {
             OrderItemRequest item1 = new OrderItemRequest(101L, 2);
             OrderItemRequest item2 = new OrderItemRequest(102L, 1);
 
-            when(productService.reserveStock(101L, 2))
-                    .thenReturn(BigDecimal.valueOf(50)); // 100
-            when(productService.reserveStock(102L, 1))
-                    .thenReturn(BigDecimal.valueOf(100)); // 100
+            when(stockReserver.reserve(anyList()))
+                    .thenReturn(Map.of(101L, BigDecimal.valueOf(50), 102L, BigDecimal.valueOf(100)));
 
             // subtotal = 200
-            when(discountService.totalDiscount(eq(Role.USER), any(BigDecimal.class), anyList()))
-                    .thenReturn(BigDecimal.ZERO);
+            when(discountService.totalDiscount(eq(Role.USER), any(Instant.class), isNull(), eq(20_000L), any(long[].class)))
+                    .thenReturn(0L);
 
             Order savedOrder = mock(Order.class);
             OrderResponse response = mock(OrderResponse.class);
 
             when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-            when(orderMapper.toResponse(eq(savedOrder), eq(BigDecimal.ZERO)))
+            when(orderMapper.toResponse(eq(savedOrder), argThat(bd -> bd.signum() == 0)))
                     .thenReturn(response);
 
             OrderResponse result = orderService.placeOrder(
@@ -74,8 +80,7 @@ class OrderServiceTest {
 
             assertThat(result).isSameAs(response);
 
-            verify(productService).reserveStock(101L, 2);
-            verify(productService).reserveStock(102L, 1);
+            verify(stockReserver).reserve(List.of(item1, item2));
             verify(orderRepository).save(any(Order.class));
         }
     }
@@ -89,14 +94,16 @@ class OrderServiceTest {
             OrderItemRequest item = new OrderItemRequest(201L, 2);
 
             // unit price 50 → subtotal 100
-            when(productService.reserveStock(201L, 2))
-                    .thenReturn(BigDecimal.valueOf(50));
+            when(stockReserver.reserve(anyList()))
+                    .thenReturn(Map.of(201L, BigDecimal.valueOf(50)));
 
             when(discountService.totalDiscount(
                     eq(Role.PREMIUM_USER),
-                    argThat(bd -> bd.compareTo(BigDecimal.valueOf(100)) == 0),
-                    anyList()
-            )).thenReturn(BigDecimal.valueOf(20));
+                    any(Instant.class),
+                    isNull(),
+                    eq(10_000L),
+                    any(long[].class)
+            )).thenReturn(discountOf(20));
 
             Order savedOrder = mock(Order.class);
             OrderResponse response = mock(OrderResponse.class);
@@ -133,24 +140,24 @@ class OrderServiceTest {
 
 
     @Test
-    void placeOrder_shouldHandleNullDiscountAsZero() {
+    void placeOrder_shouldTreatNegativeDiscountAsZero() {
         AuthUser authUser = new AuthUser(1L, Role.USER, "user@example.com");
         try (MockedStatic<SecurityUtils> securityUtils = mockStatic(SecurityUtils.class)) {
             securityUtils.when(SecurityUtils::currentUser).thenReturn(authUser);
 
             OrderItemRequest item = new OrderItemRequest(301L, 1);
 
-            when(productService.reserveStock(301L, 1))
-                    .thenReturn(BigDecimal.valueOf(100));
+            when(stockReserver.reserve(anyList()))
+                    .thenReturn(Map.of(301L, BigDecimal.valueOf(100)));
 
-            when(discountService.totalDiscount(any(), any(), anyList()))
-                    .thenReturn(null);
+            when(discountService.totalDiscount(any(), any(Instant.class), isNull(), anyLong(), any(long[].class)))
+                    .thenReturn(discountOf(-5));
 
             Order savedOrder = mock(Order.class);
             OrderResponse response = mock(OrderResponse.class);
 
             when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
-            when(orderMapper.toResponse(eq(savedOrder), eq(BigDecimal.ZERO)))
+            when(orderMapper.toResponse(eq(savedOrder), argThat(bd -> bd.signum() == 0)))
                     .thenReturn(response);
 
             OrderResponse result = orderService.placeOrder(
@@ -169,15 +176,17 @@ class OrderServiceTest {
 
             OrderItemRequest item = new OrderItemRequest(401L, 1);
 
-            when(productService.reserveStock(401L, 1))
-                    .thenReturn(BigDecimal.valueOf(100));
+            when(stockReserver.reserve(anyList()))
+                    .thenReturn(Map.of(401L, BigDecimal.valueOf(100)));
 
-            doReturn(BigDecimal.valueOf(150))
+            doReturn(discountOf(150))
                     .when(discountService)
                     .totalDiscount(
                             eq(Role.ADMIN),
-                            argThat(bd -> bd.compareTo(BigDecimal.valueOf(100)) == 0),
-                            anyList()
+                            any(Instant.class),
+                            isNull(),
+                            eq(10_000L),
+                            any(long[].class)
                     );
 
             ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
@@ -213,16 +222,16 @@ class OrderServiceTest {
             OrderItemRequest item1 = new OrderItemRequest(501L, 1); // 100
             OrderItemRequest item2 = new OrderItemRequest(502L, 3); // 300
 
-            when(productService.reserveStock(501L, 1))
-                    .thenReturn(BigDecimal.valueOf(100));
-            when(productService.reserveStock(502L, 3))
-                    .thenReturn(BigDecimal.valueOf(100));
+            when(stockReserver.reserve(anyList()))
+                    .thenReturn(Map.of(501L, BigDecimal.valueOf(100), 502L, BigDecimal.valueOf(100)));
 
             when(discountService.totalDiscount(
                     eq(Role.PREMIUM_USER),
-                    argThat(bd -> bd.compareTo(BigDecimal.valueOf(400)) == 0),
-                    anyList()
-            )).thenReturn(BigDecimal.valueOf(40));
+                    any(Instant.class),
+                    isNull(),
+                    eq(40_000L),
+                    any(long[].class)
+            )).thenReturn(discountOf(40));
 
             ArgumentCaptor<Order> captor = ArgumentCaptor.forClass(Order.class);
             when(orderRepository.save(captor.capture()))
@@ -256,14 +265,16 @@ class OrderServiceTest {
 
             OrderItemRequest item = new OrderItemRequest(1L, 2); // 2 × 100 = 200
 
-            when(productService.reserveStock(1L, 2))
-                    .thenReturn(BigDecimal.valueOf(100));
+            when(stockReserver.reserve(anyList()))
+                    .thenReturn(Map.of(1L, BigDecimal.valueOf(100)));
 
             when(discountService.totalDiscount(
                     eq(Role.USER),
-                    any(BigDecimal.class),
-                    anyList()
-            )).thenReturn(BigDecimal.ZERO);
+                    any(Instant.class),
+                    isNull(),
+                    anyLong(),
+                    any(long[].class)
+            )).thenReturn(0L);
 
             ArgumentCaptor<Order> captor = ArgumentCaptor.forClass(Order.class);
             when(orderRepository.save(captor.capture()))
@@ -287,14 +298,16 @@ class OrderServiceTest {
 
             OrderItemRequest item = new OrderItemRequest(1L, 5); // 5 × 100 = 500
 
-            when(productService.reserveStock(1L, 5))
-                    .thenReturn(BigDecimal.valueOf(100));
+            when(stockReserver.reserve(anyList()))
+                    .thenReturn(Map.of(1L, BigDecimal.valueOf(100)));
 
             when(discountService.totalDiscount(
                     eq(Role.PREMIUM_USER),
-                    any(BigDecimal.class),
-                    anyList()
-            )).thenReturn(BigDecimal.valueOf(50));
+                    any(Instant.class),
+                    isNull(),
+                    anyLong(),
+                    any(long[].class)
+            )).thenReturn(discountOf(50));
 
             ArgumentCaptor<Order> captor = ArgumentCaptor.forClass(Order.class);
             when(orderRepository.save(captor.capture()))
@@ -318,14 +331,16 @@ class OrderServiceTest {
 
             OrderItemRequest item = new OrderItemRequest(1L, 8); // 8 × 100 = 800
 
-            when(productService.reserveStock(1L, 8))
-                    .thenReturn(BigDecimal.valueOf(100));
+            when(stockReserver.reserve(anyList()))
+                    .thenReturn(Map.of(1L, BigDecimal.valueOf(100)));
 
             when(discountService.totalDiscount(
                     eq(Role.PREMIUM_USER),
-                    any(BigDecimal.class),
-                    anyList()
-            )).thenReturn(BigDecimal.valueOf(120));
+                    any(Instant.class),
+                    isNull(),
+                    anyLong(),
+                    any(long[].class)
+            )).thenReturn(discountOf(120));
 
             ArgumentCaptor<Order> captor = ArgumentCaptor.forClass(Order.class);
             when(orderRepository.save(captor.capture()))
@@ -340,5 +355,31 @@ class OrderServiceTest {
         }
     }
 
+    @Test
+    void placeOrder_withCoupon_shouldRedeemItAndRecordItForTheSavedOrder() {
+        AuthUser authUser = new AuthUser(3L, Role.USER, "user@example.com");
+        OrderItemRequest item = new OrderItemRequest(401L, 1);
+        CouponTerms coupon = new CouponTerms(9L, "SAVE5", 0, 500);
+
+        when(stockReserver.reserve(anyList()))
+                .thenReturn(Map.of(401L, BigDecimal.valueOf(100)));
+        when(couponLedger.redeem(eq("SAVE5"), any(Instant.class))).thenReturn(coupon);
+        when(discountService.totalDiscount(eq(Role.USER), any(Instant.class), eq(coupon), eq(10_000L), any(long[].class)))
+                .thenReturn(coupon.discount(10_000L));
+
+        Order savedOrder = mock(Order.class);
+        when(savedOrder.getId()).thenReturn(77L);
+        ArgumentCaptor<Order> captor = ArgumentCaptor.forClass(Order.class);
+        when(orderRepository.save(captor.capture())).thenReturn(savedOrder);
+
+        orderService.placeOrder(authUser, List.of(item), "SAVE5");
+
+        assertThat(captor.getValue().getOrderTotal()).isEqualByComparingTo(BigDecimal.valueOf(95));
+        verify(couponLedger).recordOnCommit(coupon, 77L, 3L, captor.getValue().getCreatedAt());
+    }
 
+    /** A discount of {@code amount} currency units, as the discount chain returns it. */
+    private static long discountOf(long amount) {
+        return amount * 100 * Money.MILLIONTHS_PER_CENT;
+    }
 }
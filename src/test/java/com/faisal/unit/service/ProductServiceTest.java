@@ -1,24 +1,35 @@
 package com.faisal.unit.service;
 
+import com.faisal.cache.ProductCacheInvalidator;
 import com.faisal.dto.CachedPage;
 import com.faisal.dto.request.CreateProductRequest;
+import com.faisal.dto.request.OrderItemRequest;
 import com.faisal.dto.response.ProductResponse;
+import com.faisal.event.ProductChangedEvent;
 import com.faisal.exception.BadRequestException;
 import com.faisal.exception.ResourceNotFoundException;
 import com.faisal.mapper.ProductMapper;
 import com.faisal.model.Product;
+import com.faisal.repository.ProductPrice;
 import com.faisal.repository.ProductRepository;
+import com.faisal.repository.StockReservationResult;
 import com.faisal.service.ProductService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,6 +43,15 @@ class ProductServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCacheInvalidator productCacheInvalidator;
+
+    @Captor
+    private ArgumentCaptor<SortedMap<Long, Integer>> quantitiesCaptor;
+
     @InjectMocks
     private ProductService productService;
 
@@ -162,23 +182,21 @@ class ProductServiceTest {
 
         verify(product).softDelete();
         verify(productRepository).save(product);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
     }
 
     /* ---------------- RESERVE STOCK ---------------- */
 
     @Test
     void reserveStock_shouldDecreaseQuantityAndReturnPrice() {
-        Product product = mock(Product.class);
-
-        when(product.isDeleted()).thenReturn(false);
-        when(product.getQuantity()).thenReturn(10);
-        when(product.getPrice()).thenReturn(BigDecimal.TEN);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.decrementStock(eq(1L), eq(3), any(Instant.class))).thenReturn(1);
+        when(productRepository.findPriceById(1L)).thenReturn(Optional.of(BigDecimal.TEN));
 
         BigDecimal price = productService.reserveStock(1L, 3);
 
-        verify(product).setQuantity(7);
-        verify(productRepository).save(product);
+        verify(productRepository).decrementStock(eq(1L), eq(3), any(Instant.class));
+        verify(productRepository, never()).save(any());
+        verify(productCacheInvalidator).stockChanged(List.of(1L));
         assertThat(price).isEqualTo(BigDecimal.TEN);
     }
 
@@ -195,8 +213,8 @@ class ProductServiceTest {
         Product product = mock(Product.class);
 
         when(product.isDeleted()).thenReturn(false);
-        when(product.getQuantity()).thenReturn(2);
         when(product.getName()).thenReturn("Test");
+        when(productRepository.decrementStock(eq(1L), eq(5), any(Instant.class))).thenReturn(0);
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
 
         assertThatThrownBy(() ->
@@ -204,4 +222,75 @@ class ProductServiceTest {
         ).isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("Insufficient stock");
     }
+
+    @Test
+    void reserveStock_shouldThrowNotFound_whenProductDeleted() {
+        Product product = mock(Product.class);
+
+        when(product.isDeleted()).thenReturn(true);
+        when(productRepository.decrementStock(eq(1L), eq(2), any(Instant.class))).thenReturn(0);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        assertThatThrownBy(() ->
+                productService.reserveStock(1L, 2)
+        ).isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Product with ID 1 not found");
+    }
+
+    /* ---------------- RESERVE STOCK (BATCH) ---------------- */
+
+    @Test
+    void reserveStockBatch_shouldMergeDuplicateLinesInIdOrderAndReturnPrices() {
+        when(productRepository.reserveStock(any())).thenReturn(StockReservationResult.reserved());
+        when(productRepository.findPricesByIdIn(any())).thenReturn(List.of(
+                new ProductPrice(2L, BigDecimal.ONE),
+                new ProductPrice(5L, BigDecimal.TEN)
+        ));
+
+        Map<Long, BigDecimal> prices = productService.reserveStock(List.of(
+                new OrderItemRequest(5L, 1),
+                new OrderItemRequest(2L, 3),
+                new OrderItemRequest(5L, 2)
+        ));
+
+        verify(productRepository).reserveStock(quantitiesCaptor.capture());
+        assertThat(quantitiesCaptor.getValue()).containsExactly(entry(2L, 3), entry(5L, 3));
+        assertThat(prices).containsOnly(entry(2L, BigDecimal.ONE), entry(5L, BigDecimal.TEN));
+        verify(productCacheInvalidator).stockChanged(quantitiesCaptor.getValue().keySet());
+    }
+
+    @Test
+    void reserveStockBatch_shouldThrowException_whenQuantityInvalid() {
+        assertThatThrownBy(() ->
+                productService.reserveStock(List.of(new OrderItemRequest(1L, 0)))
+        ).isInstanceOf(BadRequestException.class)
+                .hasMessage("Quantity must be at least 1");
+
+        verify(productRepository, never()).reserveStock(any());
+    }
+
+    @Test
+    void reserveStockBatch_shouldReportShortProducts() {
+        when(productRepository.reserveStock(any()))
+                .thenReturn(new StockReservationResult(List.of(), List.of(3L, 7L)));
+
+        assertThatThrownBy(() ->
+                productService.reserveStock(List.of(new OrderItemRequest(3L, 5), new OrderItemRequest(7L, 1)))
+        ).isInstanceOf(BadRequestException.class)
+                .hasMessage("Insufficient stock for products: [3, 7]");
+
+        verify(productRepository, never()).findPricesByIdIn(any());
+        verifyNoInteractions(productCacheInvalidator);
+    }
+
+    @Test
+    void reserveStockBatch_shouldThrowNotFound_whenProductMissing() {
+        when(productRepository.reserveStock(any()))
+                .thenReturn(new StockReservationResult(List.of(9L), List.of()));
+
+        assertThatThrownBy(() ->
+                productService.reserveStock(List.of(new OrderItemRequest(9L, 1)))
+        ).isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Products with IDs [9] not found");
+    }
 }